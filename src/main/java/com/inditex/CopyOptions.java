@@ -0,0 +1,51 @@
+package com.inditex;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.sql.Connection;
+import java.util.function.UnaryOperator;
+
+/**
+ * Opciones de la copia de pedidos entre usuarios
+ *  - fetchSize: número de filas que se leen del servidor en cada viaje mientras se recorre la select (con
+ *    useCursorFetch el servidor mantiene un cursor y el cliente nunca tiene más de fetchSize filas en memoria)
+ *  - batchSize: número de inserts que se acumulan antes de ejecutar el batch
+ *  - transformer: transformación por fila (devolviendo null se descarta la fila). Sin transformer la copia se hace
+ *    íntegramente en el servidor con INSERT ... SELECT y fetchSize/batchSize no se usan
+ *  - isolation: nivel de aislamiento de la transacción de la copia. Por defecto READ COMMITTED: en MySQL con
+ *    REPEATABLE READ el INSERT ... SELECT bloquea (next-key locks) los pedidos leídos del usuario de origen, mientras
+ *    que con READ COMMITTED los lee de la instantánea sin bloquearlos (requiere binlog_format=ROW, el valor por
+ *    defecto de MySQL 8)
+ *  - retryPolicy: reintentos ante interbloqueos y timeouts de bloqueo; cada reintento repite la transacción completa
+ *  - idempotent: registra el par (origen, destino) en COPIAS_PEDIDOS dentro de la misma transacción, de modo que
+ *    repetir la copia de un par ya copiado no vuelve a insertar los pedidos (devuelve 0). Desactivado por defecto:
+ *    requiere haber creado la tabla COPIAS_PEDIDOS (Schema.DDL) y el registro es permanente por par
+ */
+@Getter
+@Builder
+public class CopyOptions {
+
+    private static final CopyOptions DEFAULTS = CopyOptions.builder().build();
+
+    @Builder.Default
+    private final int fetchSize = 1_000;
+
+    @Builder.Default
+    private final int batchSize = 1_000;
+
+    private final UnaryOperator<TestSqlDao.OrderRow> transformer;
+
+    @Builder.Default
+    private final int isolation = Connection.TRANSACTION_READ_COMMITTED;
+
+    @Builder.Default
+    private final RetryPolicy retryPolicy = RetryPolicy.defaults();
+
+    @Builder.Default
+    private final boolean idempotent = false;
+
+    public static CopyOptions defaults() {
+        return DEFAULTS;
+    }
+}
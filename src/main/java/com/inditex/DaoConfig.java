@@ -0,0 +1,72 @@
+package com.inditex;
+
+import com.inditex.metrics.QueryInstrumentation;
+import com.inditex.writebehind.WriteBehindConfig;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Configuración del DAO
+ *  - maxUserOrderIdCacheSize: número máximo de tiendas cuyo resultado de getMaxUserOrderId se mantiene en caché
+ *  - maxUserOrderIdCacheTtlMillis: tiempo que se considera válido un resultado cacheado (0 desactiva la caché)
+ *  - asyncQueueCapacity: número máximo de llamadas asíncronas pendientes de ejecutar
+ *  - queryTimeoutSeconds: timeout por defecto de las llamadas asíncronas (0 sin límite). También limita la espera de
+ *    las copias síncronas a que la escritura diferida escriba sus pedidos
+ *  - streamPageSize: número de pedidos por página de streamUserOrders/streamStoreOrders
+ *  - materializedView: sirve getMaxUserOrderId y getUserMaxOrder desde una vista en memoria por tienda mantenida de
+ *    forma incremental (MaxOrderView) en lugar de consultar PEDIDOS en cada llamada. Sustituye a la caché de
+ *    getMaxUserOrderId
+ *  - materializedViewPollIntervalMillis: periodicidad con la que la vista lee los pedidos insertados fuera del DAO
+ *    (0: solo tras las escrituras del propio DAO)
+ *  - materializedViewConsistencyCheck: cada lectura de la vista se compara con el resultado de la consulta SQL; si no
+ *    coinciden se registra, se recarga la tienda y se devuelve el resultado SQL. Pensado para validar la vista, no
+ *    para producción (anula su beneficio)
+ *  - checkQueryPlans: al crear el DAO se revisa con EXPLAIN el plan de cada consulta y se avisa en el log de los
+ *    recorridos completos y ordenaciones sin índice (IndexAdvisor)
+ *  - instrumentation: receptor de tiempos, filas y fallos de cada ejecución (por ejemplo QueryMetrics). Por defecto
+ *    NOOP, sin coste
+ *  - writeBehind: si se indica, los pedidos de copyUserOrders se insertan a través de una cola de escritura diferida
+ *    (OrderWriteBehindQueue) que agrupa las copias concurrentes en lotes y transacciones grandes. null la desactiva
+ */
+@Getter
+@Builder
+public class DaoConfig {
+
+    private static final DaoConfig DEFAULTS = DaoConfig.builder().build();
+
+    @Builder.Default
+    private final int maxUserOrderIdCacheSize = 1_000;
+
+    @Builder.Default
+    private final long maxUserOrderIdCacheTtlMillis = 30_000L;
+
+    @Builder.Default
+    private final int asyncQueueCapacity = 1_000;
+
+    @Builder.Default
+    private final int queryTimeoutSeconds = 0;
+
+    @Builder.Default
+    private final int streamPageSize = 1_000;
+
+    @Builder.Default
+    private final boolean materializedView = false;
+
+    @Builder.Default
+    private final long materializedViewPollIntervalMillis = 0L;
+
+    @Builder.Default
+    private final boolean materializedViewConsistencyCheck = false;
+
+    @Builder.Default
+    private final boolean checkQueryPlans = false;
+
+    @Builder.Default
+    private final QueryInstrumentation instrumentation = QueryInstrumentation.NOOP;
+
+    private final WriteBehindConfig writeBehind;
+
+    public static DaoConfig defaults() {
+        return DEFAULTS;
+    }
+}
@@ -0,0 +1,74 @@
+package com.inditex;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de reintento de transacciones ante errores transitorios de bloqueo
+ *  - Se reintenta si el servidor ha abortado la transacción por un interbloqueo (SQLState de clase 40, MySQL 1213) o
+ *    por superar el tiempo de espera de un bloqueo (MySQL 1205). El resto de errores se lanzan sin reintentar
+ *  - maxRetries: número máximo de reintentos (0 desactiva el reintento)
+ *  - initialBackoffMillis / maxBackoffMillis: la espera antes del reintento n es un valor aleatorio entre 0 y
+ *    min(maxBackoffMillis, initialBackoffMillis * 2^n) (backoff exponencial con jitter completo), para que las
+ *    transacciones que han chocado no vuelvan a chocar reintentando a la vez
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+public class RetryPolicy {
+
+    private static final RetryPolicy DEFAULTS = RetryPolicy.builder().build();
+
+    private static final RetryPolicy NONE = RetryPolicy.builder().maxRetries(0).build();
+
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    private static final int MYSQL_DEADLOCK = 1213;
+
+    @Builder.Default
+    private final int maxRetries = 3;
+
+    @Builder.Default
+    private final long initialBackoffMillis = 20L;
+
+    @Builder.Default
+    private final long maxBackoffMillis = 1_000L;
+
+    public static RetryPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Indica si se debe reintentar tras el fallo del intento attempt (empezando en 0)
+     */
+    public boolean shouldRetry(SQLException e, int attempt) {
+        return attempt < maxRetries && isTransient(e);
+    }
+
+    /**
+     * Espera antes del reintento attempt (empezando en 0), con jitter completo
+     */
+    public long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 30));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public static boolean isTransient(SQLException e) {
+        for (SQLException current = e; Objects.nonNull(current); current = current.getNextException()) {
+            if (current instanceof SQLTransactionRollbackException) return true;
+            if (Objects.nonNull(current.getSQLState()) && current.getSQLState().startsWith("40")) return true;
+            if (current.getErrorCode() == MYSQL_DEADLOCK || current.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) return true;
+        }
+        return false;
+    }
+}
@@ -1,27 +1,254 @@
 package com.inditex;
+import com.inditex.bulk.BulkCopyReport;
+import com.inditex.bulk.CopyPair;
+import com.inditex.bulk.CopyResult;
+import com.inditex.cache.LoadingCache;
+import com.inditex.collection.LongLongHashMap;
+import com.inditex.collection.LongLongMap;
+import com.inditex.metrics.QueryInstrumentation;
+import com.inditex.concurrent.CancellableFuture;
+import com.inditex.concurrent.QueryContext;
+import com.inditex.concurrent.SqlSupplier;
+import com.inditex.concurrent.WorkerExecutors;
+import com.inditex.pool.ConnectionPool;
+import com.inditex.pool.PoolConfig;
+import com.inditex.reader.KeysetPageIterator;
+import com.inditex.reader.PageLoader;
+import com.inditex.routing.ReplicaRouter;
+import com.inditex.schema.IndexAdvisor;
+import com.inditex.schema.PlanWarning;
+import com.inditex.snapshot.OrderSnapshotExporter;
+import com.inditex.view.MaxOrderView;
+import com.inditex.writebehind.OrderWriteBehindQueue;
+import com.inditex.writebehind.WriteBehindConfig;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.DoubleConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Mejorar cada uno de los métodos a nivel SQL y código cuando sea necesario
  * Razonar cada una de las mejoras que se han implementado
  * No es necesario que el código implementado funcione
  */
-public class TestSqlDao {
+public class TestSqlDao implements AutoCloseable {
 
-    private static TestSqlDao instance = new TestSqlDao();
-    private Hashtable<Long, Long> maxOrderUser;
+    /*
+     * Las consultas se definen como constantes para que el texto SQL sea siempre el mismo y la caché de
+     * PreparedStatement de cada conexión del pool las reutilice en lugar de volver a prepararlas
+     */
+    private static final String MAX_USER_ORDER_ID_QUERY =
+            "SELECT MAX(ID_PEDIDO) AS ID_PEDIDO, ID_USUARIO FROM PEDIDOS WHERE ID_TIENDA = ? GROUP BY ID_USUARIO";
+
+    private static final String USER_ORDERS_QUERY =
+            "SELECT ID_PEDIDO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION FROM PEDIDOS WHERE ID_USUARIO = ?";
+
+    private static final String COPY_USER_ORDERS =
+            "INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION) "
+                    .concat("SELECT ?, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION FROM PEDIDOS WHERE ID_USUARIO = ?");
+
+    private static final String REGISTER_COPY =
+            "INSERT INTO COPIAS_PEDIDOS (ID_USUARIO_ORIGEN, ID_USUARIO_DESTINO) VALUES (?, ?)";
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String USER_MAX_ORDER_QUERY = "SELECT U.ID_USUARIO, P.ID_PEDIDO, P.TOTAL, U.NOMBRE, U.DIRECCION "
+            .concat("FROM PEDIDOS AS P INNER JOIN USUARIOS AS U ON P.ID_USUARIO = U.ID_USUARIO ")
+            .concat("WHERE P.ID_TIENDA = ? ORDER BY P.TOTAL DESC LIMIT 1");
+
+    /*
+     * Máximo de tiendas por consulta en getUserMaxOrders. La lista IN se rellena hasta la siguiente potencia de dos
+     * (repitiendo la última tienda) para que solo existan unos pocos textos SQL distintos y se reutilicen desde la
+     * caché de statements
+     */
+    private static final int USER_MAX_ORDERS_CHUNK = 512;
+
+    /*
+     * Número máximo de pedidos nuevos que la vista materializada lee en cada consulta
+     */
+    private static final int MAX_ORDER_VIEW_BATCH = 1_000;
+
+    private static final String USER_STORES_QUERY = "SELECT DISTINCT ID_TIENDA FROM PEDIDOS WHERE ID_USUARIO = ?";
+
+    /*
+     * Paginación por keyset: cada página continúa desde el último ID_PEDIDO leído, por lo que el coste no crece con el
+     * número de páginas ya recorridas como ocurriría con OFFSET
+     */
+    private static final String USER_ORDERS_PAGE_QUERY =
+            "SELECT ID_PEDIDO, ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION FROM PEDIDOS "
+                    .concat("WHERE ID_USUARIO = ? AND ID_PEDIDO > ? ORDER BY ID_PEDIDO LIMIT ?");
+
+    private static final String STORE_ORDERS_PAGE_QUERY =
+            "SELECT ID_PEDIDO, ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION FROM PEDIDOS "
+                    .concat("WHERE ID_TIENDA = ? AND ID_PEDIDO > ? ORDER BY ID_PEDIDO LIMIT ?");
+
+    /*
+     * Nombres con los que se registran las ejecuciones en la instrumentación
+     */
+    private static final String METRIC_MAX_USER_ORDER_ID = "getMaxUserOrderId";
+    private static final String METRIC_COPY_IN_DATABASE = "copyUserOrders.insertSelect";
+    private static final String METRIC_COPY_STREAMING = "copyUserOrders.streaming";
+    private static final String METRIC_COPY_WRITE_BEHIND = "copyUserOrders.writeBehind";
+    private static final String METRIC_COPY_WRITE_BEHIND_FALLBACK = "copyUserOrders.writeBehindFallback";
+    private static final String METRIC_USER_STORES = "copyUserOrders.userStores";
+    private static final String METRIC_USER_MAX_ORDER = "getUserMaxOrder";
+    private static final String METRIC_USER_MAX_ORDERS = "getUserMaxOrders";
+    private static final String METRIC_USER_ORDERS_PAGE = "streamUserOrders.page";
+    private static final String METRIC_STORE_ORDERS_PAGE = "streamStoreOrders.page";
+
+    private final ConnectionPool pool;
+    private final ReplicaRouter router;
+    private final LoadingCache<Long, LongLongMap> maxOrderUserCache;
+    private final Map<Long, Integer> maxOrderUserSizeHints = new ConcurrentHashMap<>();
+    private final int maxOrderUserSizeHintsLimit;
+    private final int defaultQueryTimeoutSeconds;
+    private final int defaultStreamPageSize;
+    private final ThreadPoolExecutor asyncExecutor;
+    private final QueryInstrumentation instrumentation;
+    private final MaxOrderView maxOrderView;
+    private final boolean verifyMaxOrderView;
+    private final ScheduledExecutorService maxOrderViewPoller;
+    private final OrderWriteBehindQueue writeBehindQueue;
+
+    private TestSqlDao(ConnectionPool pool, ReplicaRouter router, DaoConfig config) {
+        this.pool = pool;
+        this.router = router;
+        this.instrumentation = config.getInstrumentation();
+        this.defaultQueryTimeoutSeconds = config.getQueryTimeoutSeconds();
+        this.defaultStreamPageSize = config.getStreamPageSize();
+        int asyncThreads = pool.getConfig().getMaxSize();
+        this.asyncExecutor = new ThreadPoolExecutor(
+                asyncThreads,
+                asyncThreads,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(config.getAsyncQueueCapacity()),
+                WorkerExecutors.daemonThreadFactory("dao-async")
+        );
+        this.asyncExecutor.allowCoreThreadTimeOut(true);
+        this.maxOrderView = config.isMaterializedView()
+                ? new MaxOrderView(this::getConnection, instrumentation, MAX_ORDER_VIEW_BATCH)
+                : null;
+        this.verifyMaxOrderView = config.isMaterializedViewConsistencyCheck();
+        if (Objects.nonNull(maxOrderView) && config.getMaterializedViewPollIntervalMillis() > 0) {
+            this.maxOrderViewPoller = Executors.newSingleThreadScheduledExecutor(WorkerExecutors.daemonThreadFactory("max-order-view"));
+            this.maxOrderViewPoller.scheduleWithFixedDelay(maxOrderView::catchUpQuietly,
+                    config.getMaterializedViewPollIntervalMillis(), config.getMaterializedViewPollIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.maxOrderViewPoller = null;
+        }
+        this.maxOrderUserCache = Objects.isNull(maxOrderView) && config.getMaxUserOrderIdCacheTtlMillis() > 0
+                ? new LoadingCache<>(config.getMaxUserOrderIdCacheSize(), config.getMaxUserOrderIdCacheTtlMillis(), TimeUnit.MILLISECONDS)
+                : null;
+        this.maxOrderUserSizeHintsLimit = Math.max(config.getMaxUserOrderIdCacheSize(), 1);
+        this.writeBehindQueue = Objects.nonNull(config.getWriteBehind())
+                ? new OrderWriteBehindQueue(this::getConnection, instrumentation, config.getWriteBehind())
+                : null;
+        if (config.isCheckQueryPlans()) IndexAdvisor.checkQuietly(this::getConnection, getQueries());
+    }
+
+    /**
+     * Se hace público el acceso a la instancia por defecto, que usa un pool de conexiones contra la base de datos MySQL.
+     * La instancia se crea de forma perezosa (holder) para no arrancar el pool si no se usa
+     */
+    public static TestSqlDao getInstance() {
+
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Crea una instancia que obtiene las conexiones del pool indicado (otra base de datos, otros tamaños de pool...)
+     */
+    public static TestSqlDao newInstance(ConnectionPool pool) {
+        return newInstance(pool, DaoConfig.defaults());
+    }
+
+    public static TestSqlDao newInstance(ConnectionPool pool, DaoConfig config) {
+        return new TestSqlDao(pool, null, config);
+    }
+
+    /**
+     * Crea una instancia que escribe en el primario del router y envía las lecturas (getMaxUserOrderId,
+     * getUserMaxOrder, getUserMaxOrders y las páginas de streamUserOrders/streamStoreOrders) a sus réplicas. La vista
+     * materializada, la comprobación de consistencia y la revisión de planes leen del primario. Con réplicas
+     * asíncronas conviene RoutingConfig.readYourWritesMillis para que, tras una copia, la caché de getMaxUserOrderId no
+     * se rellene desde una réplica que aún no la ha recibido
+     */
+    public static TestSqlDao newInstance(ReplicaRouter router) {
+        return newInstance(router, DaoConfig.defaults());
+    }
+
+    public static TestSqlDao newInstance(ReplicaRouter router, DaoConfig config) {
+        return new TestSqlDao(router.getPrimary(), router, config);
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public Optional<ReplicaRouter> getRouter() {
+        return Optional.ofNullable(router);
+    }
+
+    /**
+     * Consultas de lectura que ejecuta el DAO, incluidas las de la vista materializada y la exportación de
+     * instantáneas (nombre de la métrica -> SQL). getUserMaxOrders se incluye con una sola tienda en la lista IN
+     */
+    public static Map<String, String> getQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put(METRIC_MAX_USER_ORDER_ID, MAX_USER_ORDER_ID_QUERY);
+        queries.put(METRIC_COPY_IN_DATABASE, COPY_USER_ORDERS);
+        queries.put(METRIC_COPY_STREAMING, USER_ORDERS_QUERY);
+        queries.put(METRIC_USER_STORES, USER_STORES_QUERY);
+        queries.put(METRIC_USER_MAX_ORDER, USER_MAX_ORDER_QUERY);
+        queries.put(METRIC_USER_MAX_ORDERS, userMaxOrdersQuery(1));
+        queries.put(METRIC_USER_ORDERS_PAGE, USER_ORDERS_PAGE_QUERY);
+        queries.put(METRIC_STORE_ORDERS_PAGE, STORE_ORDERS_PAGE_QUERY);
+        queries.putAll(MaxOrderView.getQueries());
+        queries.putAll(OrderSnapshotExporter.getQueries());
+        return queries;
+    }
 
-    private TestSqlDao() {
+    /**
+     * Revisa con EXPLAIN el plan de ejecución de las consultas del DAO (ver IndexAdvisor y schema.Schema para los
+     * índices esperados)
+     */
+    public List<PlanWarning> checkQueryPlans() throws SQLException {
+        try (Connection connection = getConnection()) {
+            return IndexAdvisor.check(connection, getQueries());
+        }
+    }
 
+    /**
+     * Vista materializada de getMaxUserOrderId/getUserMaxOrder, si está activada (DaoConfig.materializedView)
+     */
+    public Optional<MaxOrderView> getMaxOrderView() {
+        return Optional.ofNullable(maxOrderView);
     }
 
-    private static TestSqlDao getInstance() {
+    /**
+     * Cola de escritura diferida de copyUserOrders, si está activada (DaoConfig.writeBehind), para consultar sus
+     * métricas o forzar su escritura con flush()
+     */
+    public Optional<OrderWriteBehindQueue> getWriteBehindQueue() {
+        return Optional.ofNullable(writeBehindQueue);
+    }
 
-        return instance;
+    /**
+     * Exportador de instantáneas columnares de los pedidos por tienda en el directorio indicado, que lee de las
+     * réplicas si hay router (ver OrderSnapshot para consultarlas sin acceder a la base de datos)
+     */
+    public OrderSnapshotExporter newSnapshotExporter(Path directory) {
+        return new OrderSnapshotExporter(this::getReadConnection, instrumentation, directory);
     }
 
     /**
@@ -31,24 +258,89 @@ public class TestSqlDao {
      *  - Se cambia el tipo de excepción lanzada a uno más específico (en este caso SQLException)
      *  - Se obtiene la fila con el máximo ID_PEDIDO desde la consulta, en lugar de traerse todos los registros
      *  - Se cambia a una consulta parametrizada para evitar la inyección de SQL
-     *  - Se verifica connection != null
+     *  - La conexión se obtiene del pool y se devuelve al terminar, cerrando el statement y el result set con
+     *    try-with-resources
+     *  - El PreparedStatement se reutiliza desde la caché de statements de la conexión del pool
+     *  - Se elimina el atributo Hashtable maxOrderUser, que cada llamada sobrescribía (compartido entre hilos y sin
+     *    utilidad como caché). El resultado se guarda en una caché por tienda con tamaño máximo, TTL y desalojo LRU,
+     *    sin bloqueo global, con carga única para fallos concurrentes de la misma tienda. copyUserOrders invalida las
+     *    tiendas afectadas. El Map devuelto es inmutable porque se comparte entre llamadas
+     *  - El Map devuelto es un adaptador sobre un mapa primitivo long -> long (ver getMaxUserOrderIdMap)
      */
     public Map<Long, Long> getMaxUserOrderId(long idTienda) throws SQLException {
-        String query = "SELECT MAX(ID_PEDIDO) AS ID_PEDIDO, ID_USUARIO FROM PEDIDOS WHERE ID_TIENDA = ? GROUP BY ID_USUARIO";
-        Connection connection = getConnection();
-        if (Objects.isNull(connection)) throw new SQLException("Something was wrong getting data base connection");
-        PreparedStatement stmt = connection.prepareStatement(query);
-        stmt.setLong(1, idTienda);
-        ResultSet rs = stmt.executeQuery();
-        maxOrderUser = new Hashtable<>();
+        return getMaxUserOrderIdMap(idTienda).asMap();
+    }
+
+    /**
+     * Variante de getMaxUserOrderId que devuelve un mapa primitivo long -> long de solo lectura
+     * Mejoras:
+     *  - El Hashtable crea dos Long y un objeto entrada por usuario y sincroniza cada put; el mapa de direccionamiento
+     *    abierto guarda las claves y los valores en dos arrays de long, sin objetos por entrada
+     *  - El mapa se dimensiona de antemano con el número de usuarios de la última carga de la tienda, evitando los
+     *    redimensionados mientras se lee el result set
+     *  - Se leen los IDs con getLong en lugar de getInt para no truncarlos
+     *  - Con la vista materializada activada el resultado se lee de memoria, sin consultar la base de datos
+     *  - Con un ReplicaRouter la consulta se envía a una réplica en lugar de competir con las copias en el primario
+     */
+    public LongLongMap getMaxUserOrderIdMap(long idTienda) throws SQLException {
+        if (Objects.nonNull(maxOrderView)) return readMaxUserOrderIdView(idTienda);
+        if (Objects.isNull(maxOrderUserCache)) return loadMaxUserOrderId(idTienda);
+        return maxOrderUserCache.get(idTienda, this::loadMaxUserOrderId);
+    }
+
+    /**
+     * Descarta el resultado cacheado de getMaxUserOrderId para la tienda (por ejemplo tras insertar pedidos desde
+     * fuera del DAO)
+     */
+    public void invalidateMaxUserOrderId(long idTienda) {
+        if (Objects.nonNull(maxOrderUserCache)) maxOrderUserCache.invalidate(idTienda);
+        if (Objects.nonNull(maxOrderView)) maxOrderView.invalidate(idTienda);
+    }
+
+    public void invalidateMaxUserOrderId() {
+        if (Objects.nonNull(maxOrderUserCache)) maxOrderUserCache.invalidateAll();
+        if (Objects.nonNull(maxOrderView)) maxOrderView.invalidateAll();
+    }
+
+    /**
+     * En el modo de comprobación se aplican antes los pedidos pendientes para no dar por divergentes los insertados
+     * después del último catchUp
+     */
+    private LongLongMap readMaxUserOrderIdView(long idTienda) throws SQLException {
+        if (!verifyMaxOrderView) return maxOrderView.getMaxUserOrderIds(idTienda);
+        maxOrderView.catchUp();
+        LongLongMap materialized = maxOrderView.getMaxUserOrderIds(idTienda);
+        LongLongMap actual = loadMaxUserOrderId(idTienda, this::getConnection);
+        if (!actual.asMap().equals(materialized.asMap())) maxOrderView.mismatch(idTienda, METRIC_MAX_USER_ORDER_ID);
+        return actual;
+    }
+
+    private LongLongMap loadMaxUserOrderId(long idTienda) throws SQLException {
+        return loadMaxUserOrderId(idTienda, this::getReadConnection);
+    }
 
-        while (rs.next()) {
-            long idPedido = rs.getInt("ID_PEDIDO");
-            long idUsuario = rs.getInt("ID_USUARIO");
-            maxOrderUser.put(idUsuario, idPedido);
+    private LongLongMap loadMaxUserOrderId(long idTienda, SqlSupplier<Connection> connections) throws SQLException {
+        LongLongHashMap maxOrderUser = new LongLongHashMap(maxOrderUserSizeHints.getOrDefault(idTienda, 0));
+        long start = startTimer();
+        try (Connection connection = connections.get();
+             PreparedStatement stmt = prepare(connection, MAX_USER_ORDER_ID_QUERY)) {
+            stmt.setLong(1, idTienda);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long idPedido = rs.getLong("ID_PEDIDO");
+                    long idUsuario = rs.getLong("ID_USUARIO");
+                    maxOrderUser.put(idUsuario, idPedido);
+                }
+            }
+            recordExecuted(METRIC_MAX_USER_ORDER_ID, start, maxOrderUser.size(), 0);
+        } catch (SQLException e) {
+            recordFailed(METRIC_MAX_USER_ORDER_ID, start, e);
+            throw e;
         }
 
-        return maxOrderUser;
+        if (maxOrderUserSizeHints.size() >= maxOrderUserSizeHintsLimit) maxOrderUserSizeHints.clear();
+        maxOrderUserSizeHints.put(idTienda, maxOrderUser.size());
+        return maxOrderUser.readOnly();
     }
 
     /**
@@ -56,50 +348,380 @@ public class TestSqlDao {
      * Mejoras:
      *  - Se cambia el tipo de excepción lanzada a uno más específico (en este caso SQLException)
      *  - Se cambia a una consulta parametrizada para evitar la inyección de SQL
-     *  - Se trata de optimizar el número de conexiones a base de datos, para ello se almacenan todos los registros
-     *    obtenidos en el select en una lista de Map con los valores para cada columna, una vez tenemos todos los datos
-     *    que necesitamos para los inserts, se van agregando a la consulta del insert los lotes (batch) necesarios,
-     *    ejecutando todos los inserts con una sola conexión
+     *  - Se trata de optimizar el número de viajes a base de datos, para ello se van agregando a la consulta del
+     *    insert los lotes (batch) necesarios, ejecutando todos los inserts con una sola conexión
      *  - Se agregan los campos que faltan para los inserts (ID_TIENDA, ID_USUARIO)
-     *  - Se verifica connection != null
-     */
-    public void copyUserOrders(long idUserOri, long idUserDes) throws SQLException {
-
-        String query = "SELECT ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION FROM PEDIDOS WHERE ID_USUARIO = ?";
-        Connection connection = getConnection();
-        if (Objects.isNull(connection)) throw new SQLException("Something was wrong getting data base connection");
-        PreparedStatement selectStatement = connection.prepareStatement(query);
-        selectStatement.setLong(1, idUserOri);
-        ResultSet rs = selectStatement.executeQuery();
-
-        List<Map<String, Object>> rows = new ArrayList<>();
-        while (rs.next()) {
-            Map<String, Object> row = new HashMap<>();
-            row.put("ID_TIENDA", rs.getLong("ID_TIENDA"));
-            row.put("FECHA", rs.getTimestamp("FECHA"));
-            row.put("TOTAL", rs.getDouble("TOTAL"));
-            row.put("SUBTOTAL", rs.getDouble("SUBTOTAL"));
-            row.put("DIRECCION", rs.getString("DIRECCION"));
-            rows.add(row);
-        }
-
-        String insert = "INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION) VALUES (?, ?, ?, ?, ?, ?)";
-        PreparedStatement insertStatement = connection.prepareStatement(insert);
-        rows.forEach(info -> {
+     *  - La conexión se obtiene del pool y se devuelve al terminar, cerrando los statements y el result set con
+     *    try-with-resources
+     *  - Los PreparedStatement de la select y del insert se reutilizan desde la caché de statements de la conexión
+     *  - Se copia en streaming: en lugar de cargar todos los pedidos en una lista de Map (un HashMap y varios valores
+     *    boxed por fila) se lee la select con un cursor en el servidor (fetchSize) y cada fila se pasa directamente al
+     *    insert, ejecutando el batch cada batchSize filas. La memoria usada no depende del número de pedidos y con
+     *    rewriteBatchedStatements cada batch viaja como un único INSERT multi-fila
+     *  - Toda la copia se ejecuta en una única transacción, de modo que un fallo no deja una copia parcial
+     *  - Por defecto la copia se resuelve en el servidor con un único INSERT ... SELECT, sin transferir los pedidos
+     *    a la JVM y de vuelta. Solo si las opciones incluyen un transformer (modificar o descartar filas) se usa la
+     *    copia en streaming desde el cliente
+     *  - Se devuelve el número de pedidos copiados
+     *  - Tras la copia se invalida la caché de getMaxUserOrderId de las tiendas afectadas
+     *  - Las dos variantes se ejecutan en una transacción explícita con el nivel de aislamiento de las opciones. Si el
+     *    servidor la aborta por un interbloqueo o un timeout de bloqueo se reintenta completa, con backoff
+     *    exponencial y jitter; los reintentos se registran en la instrumentación
+     *  - Con CopyOptions.idempotent el par (origen, destino) se registra en COPIAS_PEDIDOS en la misma transacción,
+     *    por lo que una copia repetida (por ejemplo al relanzar un proceso que falló) no duplica pedidos y devuelve 0.
+     *    El registro es permanente: una copia posterior del mismo par también devuelve 0 aunque el usuario de origen
+     *    tenga pedidos nuevos. Requiere la tabla COPIAS_PEDIDOS (Schema.DDL); por defecto está desactivado
+     *  - Con un ReplicaRouter se ejecuta en el primario y, al confirmarse, lo notifica al router para que las lecturas
+     *    posteriores puedan ver la copia (readYourWritesMillis)
+     *  - Con la escritura diferida activada (DaoConfig.writeBehind) los pedidos de origen se leen en el hilo que llama
+     *    y se encolan en OrderWriteBehindQueue, que los inserta junto con los de otras copias concurrentes en un lote y
+     *    una sola transacción (con el registro en COPIAS_PEDIDOS); la llamada espera a que esa transacción se
+     *    confirme. Las copias de más de maxBatchRows pedidos ya forman lotes grandes y siguen el camino directo, igual
+     *    que las que no caben en la cola (capacity)
+     *  - La escritura diferida usa la transacción, los reintentos (WriteBehindConfig.retryPolicy) y el tamaño de lote
+     *    de la cola, no los de las opciones: una copia con isolation, retryPolicy o batchSize distintos de los de
+     *    CopyOptions.defaults() sigue el camino directo para respetarlos. fetchSize, transformer e idempotent se
+     *    aplican en los dos caminos
+     */
+    public int copyUserOrders(long idUserOri, long idUserDes) throws SQLException {
+        return copyUserOrders(idUserOri, idUserDes, CopyOptions.defaults());
+    }
+
+    public int copyUserOrders(long idUserOri, long idUserDes, CopyOptions options) throws SQLException {
+        if (Objects.nonNull(writeBehindQueue) && usesDefaultTransaction(options)) {
+            OptionalInt copied = copyUserOrdersWriteBehind(idUserOri, idUserDes, options);
+            if (copied.isPresent()) return copied.getAsInt();
+        }
+        boolean inDatabase = Objects.isNull(options.getTransformer());
+        String metric = inDatabase ? METRIC_COPY_IN_DATABASE : METRIC_COPY_STREAMING;
+        RetryPolicy retryPolicy = options.getRetryPolicy();
+        for (int attempt = 0; ; attempt++) {
             try {
-                insertStatement.setLong(1, idUserDes);
-                insertStatement.setLong(2, (Long) info.get("ID_TIENDA"));
-                insertStatement.setTimestamp(3, (Timestamp) info.get("FECHA"));
-                insertStatement.setDouble(4, (Double) info.get("TOTAL"));
-                insertStatement.setDouble(5, (Double) info.get("SUBTOTAL"));
-                insertStatement.setString(6, (String) info.get("DIRECCION"));
-                insertStatement.addBatch();
-                insertStatement.clearParameters();
+                return inDatabase
+                        ? copyUserOrdersInDatabase(idUserOri, idUserDes, options)
+                        : copyUserOrdersStreaming(idUserOri, idUserDes, options);
             } catch (SQLException e) {
-                throw new RuntimeException(e);
+                if (!retryPolicy.shouldRetry(e, attempt)) throw e;
+                if (instrumentation.isEnabled()) instrumentation.retried(metric, attempt + 1, e);
+                backoff(retryPolicy.backoffMillis(attempt), e);
+            }
+        }
+    }
+
+    /**
+     * Copia masiva de pedidos para una colección de pares (origen, destino)
+     *  - Los pares se reparten entre trabajadores (hilos virtuales en JDK 21+, pool fijo en otro caso) cuya
+     *    concurrencia se limita a parallelism y como máximo al tamaño del pool de conexiones, para que el throughput
+     *    escale con las conexiones disponibles sin dejar trabajadores bloqueados esperando conexión
+     *  - Cada par se copia en su propia transacción; un fallo queda registrado en su resultado sin abortar el resto
+     */
+    public BulkCopyReport copyUserOrders(Collection<CopyPair> pairs, int parallelism) throws InterruptedException {
+        return copyUserOrders(pairs, parallelism, CopyOptions.defaults());
+    }
+
+    public BulkCopyReport copyUserOrders(Collection<CopyPair> pairs, int parallelism, CopyOptions options)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        int workers = Math.max(1, Math.min(parallelism, pool.getConfig().getMaxSize()));
+        Semaphore slots = new Semaphore(workers);
+        ExecutorService executor = WorkerExecutors.newWorkerExecutor("bulk-copy", workers);
+        try {
+            List<Future<CopyResult>> futures = new ArrayList<>(pairs.size());
+            for (CopyPair pair : pairs) {
+                futures.add(executor.submit(() -> {
+                    slots.acquire();
+                    try {
+                        return CopyResult.success(pair, copyUserOrders(pair.getOriginUserId(), pair.getDestinationUserId(), options));
+                    } catch (SQLException | RuntimeException e) {
+                        return CopyResult.failure(pair, e);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+            List<CopyResult> results = new ArrayList<>(futures.size());
+            Iterator<CopyPair> pairIterator = pairs.iterator();
+            for (Future<CopyResult> future : futures) {
+                CopyPair pair = pairIterator.next();
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(CopyResult.failure(pair, e.getCause() instanceof Exception ? (Exception) e.getCause() : e));
+                }
+            }
+            return new BulkCopyReport(results, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int copyUserOrdersInDatabase(long idUserOri, long idUserDes, CopyOptions options) throws SQLException {
+        long start = startTimer();
+        int copied;
+        try (Connection connection = getConnection()) {
+            beginTransaction(connection, options);
+            try (PreparedStatement stmt = prepare(connection, COPY_USER_ORDERS)) {
+                if (options.isIdempotent() && !registerCopy(connection, idUserOri, idUserDes)) {
+                    connection.rollback();
+                    recordExecuted(METRIC_COPY_IN_DATABASE, start, 0, 0);
+                    return 0;
+                }
+                stmt.setLong(1, idUserDes);
+                stmt.setLong(2, idUserOri);
+                copied = stmt.executeUpdate();
+                connection.commit();
+                if (Objects.nonNull(router)) router.writeCommitted();
+                recordExecuted(METRIC_COPY_IN_DATABASE, start, 0, copied);
+            } catch (SQLException | RuntimeException e) {
+                rollback(connection, e);
+                throw e;
+            }
+            if (copied > 0 && Objects.nonNull(maxOrderUserCache)) {
+                invalidateCachedMaxUserOrderId(findUserStores(connection, idUserOri));
+            }
+        } catch (SQLException e) {
+            recordFailed(METRIC_COPY_IN_DATABASE, start, e);
+            throw e;
+        }
+        catchUpMaxOrderView(copied);
+        return copied;
+    }
+
+    /**
+     * Inicia la transacción de la copia con el nivel de aislamiento pedido (antes de la primera sentencia, que es
+     * cuando MySQL lo aplica). El pool restaura el nivel original al devolver la conexión
+     */
+    private static void beginTransaction(Connection connection, CopyOptions options) throws SQLException {
+        connection.setAutoCommit(false);
+        if (connection.getTransactionIsolation() != options.getIsolation()) {
+            connection.setTransactionIsolation(options.getIsolation());
+        }
+    }
+
+    /**
+     * Registra la copia del par (origen, destino) en la transacción en curso. Devuelve false si el par ya se había
+     * copiado. Si otra transacción está copiando el mismo par, el insert espera al bloqueo de su clave primaria y
+     * solo una de las dos realiza la copia
+     */
+    private boolean registerCopy(Connection connection, long idUserOri, long idUserDes) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, REGISTER_COPY)) {
+            stmt.setLong(1, idUserOri);
+            stmt.setLong(2, idUserDes);
+            stmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (e instanceof SQLIntegrityConstraintViolationException
+                    || (Objects.nonNull(e.getSQLState()) && e.getSQLState().startsWith("23"))) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static void backoff(long millis, SQLException cause) throws SQLException {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cause.addSuppressed(e);
+            throw cause;
+        }
+    }
+
+    private Set<Long> findUserStores(Connection connection, long idUsuario) throws SQLException {
+        Set<Long> stores = new HashSet<>();
+        long start = startTimer();
+        try (PreparedStatement stmt = prepare(connection, USER_STORES_QUERY)) {
+            stmt.setLong(1, idUsuario);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) stores.add(rs.getLong("ID_TIENDA"));
+            }
+            recordExecuted(METRIC_USER_STORES, start, stores.size(), 0);
+        } catch (SQLException e) {
+            recordFailed(METRIC_USER_STORES, start, e);
+            throw e;
+        }
+        return stores;
+    }
+
+    /**
+     * Tras una copia solo se descarta la caché de getMaxUserOrderId: la vista materializada no se invalida, se pone al
+     * día con catchUpMaxOrderView para no tener que recargar las tiendas completas
+     */
+    private void invalidateCachedMaxUserOrderId(Set<Long> stores) {
+        if (Objects.nonNull(maxOrderUserCache)) stores.forEach(maxOrderUserCache::invalidate);
+    }
+
+    /**
+     * Aplica a la vista materializada los pedidos copiados. Se llama con la conexión de la copia ya devuelta al pool,
+     * porque catchUp pide otra conexión mientras mantiene el bloqueo de la vista
+     */
+    private void catchUpMaxOrderView(int copied) {
+        if (copied > 0 && Objects.nonNull(maxOrderView)) maxOrderView.catchUpQuietly();
+    }
+
+    private int copyUserOrdersStreaming(long idUserOri, long idUserDes, CopyOptions options) throws SQLException {
+        UnaryOperator<OrderRow> transformer = options.getTransformer();
+        long start = startTimer();
+        int copied = 0;
+        try (Connection connection = getConnection()) {
+            beginTransaction(connection, options);
+            try (PreparedStatement selectStatement = prepare(connection, USER_ORDERS_QUERY);
+                 PreparedStatement insertStatement = prepare(connection, INSERT_ORDER)) {
+                if (options.isIdempotent() && !registerCopy(connection, idUserOri, idUserDes)) {
+                    connection.rollback();
+                    recordExecuted(METRIC_COPY_STREAMING, start, 0, 0);
+                    return 0;
+                }
+                selectStatement.setFetchSize(options.getFetchSize());
+                selectStatement.setLong(1, idUserOri);
+                int pending = 0;
+                int read = 0;
+                Set<Long> stores = new HashSet<>();
+                try (ResultSet rs = selectStatement.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        OrderRow row = transformer.apply(new OrderRow(
+                                rs.getLong("ID_PEDIDO"),
+                                idUserDes,
+                                rs.getLong("ID_TIENDA"),
+                                rs.getTimestamp("FECHA"),
+                                rs.getDouble("TOTAL"),
+                                rs.getDouble("SUBTOTAL"),
+                                rs.getString("DIRECCION")
+                        ));
+                        if (Objects.isNull(row)) continue;
+                        insertStatement.setLong(1, row.getUserId());
+                        insertStatement.setLong(2, row.getStoreId());
+                        insertStatement.setTimestamp(3, row.getDate());
+                        insertStatement.setDouble(4, row.getTotal());
+                        insertStatement.setDouble(5, row.getSubtotal());
+                        insertStatement.setString(6, row.getAddress());
+                        insertStatement.addBatch();
+                        stores.add(row.getStoreId());
+                        copied++;
+                        if (++pending == options.getBatchSize()) {
+                            insertStatement.executeBatch();
+                            recordBatch(METRIC_COPY_STREAMING, pending);
+                            pending = 0;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    insertStatement.executeBatch();
+                    recordBatch(METRIC_COPY_STREAMING, pending);
+                }
+                connection.commit();
+                if (Objects.nonNull(router)) router.writeCommitted();
+                recordExecuted(METRIC_COPY_STREAMING, start, read, copied);
+                invalidateCachedMaxUserOrderId(stores);
+            } catch (SQLException | RuntimeException e) {
+                rollback(connection, e);
+                throw e;
+            }
+        } catch (SQLException e) {
+            recordFailed(METRIC_COPY_STREAMING, start, e);
+            throw e;
+        }
+        catchUpMaxOrderView(copied);
+        return copied;
+    }
+
+    /**
+     * La escritura diferida solo se usa si las opciones no piden una transacción distinta de la de por defecto
+     */
+    private static boolean usesDefaultTransaction(CopyOptions options) {
+        CopyOptions defaults = CopyOptions.defaults();
+        return options.getIsolation() == defaults.getIsolation()
+                && options.getBatchSize() == defaults.getBatchSize()
+                && defaults.getRetryPolicy().equals(options.getRetryPolicy());
+    }
+
+    /**
+     * Lee los pedidos de origen (aplicando el transformer) y los encola en la escritura diferida. Devuelve vacío, sin
+     * encolar nada, si el usuario tiene más de maxBatchRows pedidos o más de los que caben en la cola (capacity); cada
+     * vuelta al camino directo se registra como una ejecución de copyUserOrders.writeBehindFallback
+     */
+    private OptionalInt copyUserOrdersWriteBehind(long idUserOri, long idUserDes, CopyOptions options) throws SQLException {
+        UnaryOperator<OrderRow> transformer = options.getTransformer();
+        WriteBehindConfig writeBehind = writeBehindQueue.getConfig();
+        int limit = Math.min(writeBehind.getCapacity(), writeBehind.getMaxBatchRows());
+        long start = startTimer();
+        List<OrderRow> rows = new ArrayList<>();
+        Set<Long> stores = new HashSet<>();
+        int read = 0;
+        try {
+            try (Connection connection = getConnection();
+                 PreparedStatement stmt = prepare(connection, USER_ORDERS_QUERY)) {
+                stmt.setFetchSize(Math.min(options.getFetchSize(), limit + 1));
+                stmt.setLong(1, idUserOri);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (++read > limit) {
+                            recordExecuted(METRIC_COPY_WRITE_BEHIND_FALLBACK, start, read, 0);
+                            return OptionalInt.empty();
+                        }
+                        OrderRow row = new OrderRow(
+                                rs.getLong("ID_PEDIDO"),
+                                idUserDes,
+                                rs.getLong("ID_TIENDA"),
+                                rs.getTimestamp("FECHA"),
+                                rs.getDouble("TOTAL"),
+                                rs.getDouble("SUBTOTAL"),
+                                rs.getString("DIRECCION")
+                        );
+                        if (Objects.nonNull(transformer)) row = transformer.apply(row);
+                        if (Objects.isNull(row)) continue;
+                        rows.add(row);
+                        stores.add(row.getStoreId());
+                    }
+                }
             }
-        });
-        insertStatement.executeBatch();
+            CopyPair copy = options.isIdempotent() ? CopyPair.of(idUserOri, idUserDes) : null;
+            CompletableFuture<Integer> pending = writeBehindQueue.submit(rows, copy);
+            QueryContext.track(pending);
+            int copied = await(pending);
+            if (copied > 0) {
+                if (Objects.nonNull(router)) router.writeCommitted();
+                invalidateCachedMaxUserOrderId(stores);
+                catchUpMaxOrderView(copied);
+            }
+            recordExecuted(METRIC_COPY_WRITE_BEHIND, start, read, copied);
+            return OptionalInt.of(copied);
+        } catch (SQLException e) {
+            recordFailed(METRIC_COPY_WRITE_BEHIND, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Espera el resultado de la escritura diferida, como máximo el timeout de la llamada asíncrona en curso o, si no la
+     * hay, queryTimeoutSeconds (0 sin límite). Al vencer se cancela la petición (que se descarta si sigue en la cola)
+     * y se lanza SQLTimeoutException. El error se envuelve (conservando SQLState y código) porque la misma excepción
+     * puede completar varias peticiones
+     */
+    private int await(CompletableFuture<Integer> future) throws SQLException {
+        QueryContext context = QueryContext.current();
+        int timeoutSeconds = Objects.nonNull(context) ? context.getTimeoutSeconds() : defaultQueryTimeoutSeconds;
+        try {
+            return timeoutSeconds > 0 ? future.get(timeoutSeconds, TimeUnit.SECONDS) : future.get();
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new SQLTimeoutException("Write-behind request not written after " + timeoutSeconds + " s", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the write-behind queue", e);
+        } catch (CancellationException e) {
+            throw new SQLException("Write-behind request has been cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                SQLException sqlCause = (SQLException) cause;
+                throw new SQLException(sqlCause.getMessage(), sqlCause.getSQLState(), sqlCause.getErrorCode(), sqlCause);
+            }
+            throw new SQLException("Write-behind request failed", cause);
+        }
     }
 
     /**
@@ -113,41 +735,344 @@ public class TestSqlDao {
      *  - Se obtiene la fila con el máximo TOTAL desde la consulta, en lugar de traerse todos los registros
      *  - Se cambia el tipo de excepción lanzada a uno más específico (en este caso SQLException)
      *  - Se cambia a una consulta parametrizada para evitar la inyección de SQL
-     *  - Se verifica connection != null
+     *  - La conexión se obtiene del pool y se devuelve al terminar, cerrando el statement y el result set con
+     *    try-with-resources
+     *  - El PreparedStatement se reutiliza desde la caché de statements de la conexión del pool
+     *  - Con la vista materializada activada el resultado se lee de memoria, sin consultar la base de datos
+     *  - Con un ReplicaRouter la consulta se envía a una réplica en lugar de competir con las copias en el primario
      */
     public Optional<Order> getUserMaxOrder(long idTienda) throws SQLException {
-        String query = "SELECT U.ID_USUARIO, P.ID_PEDIDO, P.TOTAL, U.NOMBRE, U.DIRECCION "
+        if (Objects.nonNull(maxOrderView)) return readUserMaxOrderView(idTienda);
+        return loadUserMaxOrder(idTienda, null, this::getReadConnection);
+    }
+
+    /**
+     * En la comprobación se aceptan pedidos distintos con el mismo importe: con empates la consulta devuelve
+     * cualquiera de ellos
+     */
+    private Optional<Order> readUserMaxOrderView(long idTienda) throws SQLException {
+        if (!verifyMaxOrderView) return maxOrderView.getMaxOrder(idTienda);
+        maxOrderView.catchUp();
+        Optional<Order> materialized = maxOrderView.getMaxOrder(idTienda);
+        double materializedTotal = maxOrderView.getMaxTotal(idTienda);
+        double[] actualTotal = {Double.NaN};
+        Optional<Order> actual = loadUserMaxOrder(idTienda, total -> actualTotal[0] = total, this::getConnection);
+        boolean consistent = actual.isPresent() == materialized.isPresent()
+                && (actual.isEmpty()
+                || actual.get().getOrderId() == materialized.get().getOrderId()
+                || Double.compare(actualTotal[0], materializedTotal) == 0);
+        if (!consistent) maxOrderView.mismatch(idTienda, METRIC_USER_MAX_ORDER);
+        return actual;
+    }
+
+    private Optional<Order> loadUserMaxOrder(long idTienda, DoubleConsumer totalConsumer, SqlSupplier<Connection> connections)
+            throws SQLException {
+        long start = startTimer();
+        try (Connection connection = connections.get();
+             PreparedStatement stmt = prepare(connection, USER_MAX_ORDER_QUERY)) {
+            stmt.setLong(1, idTienda);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Order order = new Order(
+                            rs.getLong("ID_USUARIO"),
+                            rs.getLong("ID_PEDIDO"),
+                            rs.getString("NOMBRE"),
+                            rs.getString("DIRECCION")
+                    );
+                    if (Objects.nonNull(totalConsumer)) totalConsumer.accept(rs.getDouble("TOTAL"));
+                    recordExecuted(METRIC_USER_MAX_ORDER, start, 1, 0);
+                    return Optional.of(order);
+                } else {
+                    recordExecuted(METRIC_USER_MAX_ORDER, start, 0, 0);
+                    return Optional.empty();
+                }
+            }
+        } catch (SQLException e) {
+            recordFailed(METRIC_USER_MAX_ORDER, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene, para cada tienda, los datos del usuario y pedido con el pedido de mayor importe
+     * Mejoras:
+     *  - Se resuelven todas las tiendas en una sola consulta (o una por cada bloque de USER_MAX_ORDERS_CHUNK tiendas)
+     *    en lugar de una consulta por tienda: ROW_NUMBER() OVER (PARTITION BY ID_TIENDA ORDER BY TOTAL DESC) numera
+     *    los pedidos de cada tienda y se queda con el primero. La latencia ya no crece linealmente con el número de
+     *    tiendas
+     *  - Las tiendas sin pedidos no aparecen en el resultado
+     */
+    public Map<Long, Order> getUserMaxOrders(Collection<Long> storeIds) throws SQLException {
+        Map<Long, Order> orders = new HashMap<>();
+        if (storeIds.isEmpty()) return orders;
+        long[] stores = storeIds.stream().distinct().mapToLong(Long::longValue).toArray();
+        long start = startTimer();
+        try (Connection connection = getReadConnection()) {
+            for (int from = 0; from < stores.length; from += USER_MAX_ORDERS_CHUNK) {
+                int to = Math.min(from + USER_MAX_ORDERS_CHUNK, stores.length);
+                int parameters = Math.max(Integer.highestOneBit(to - from - 1) << 1, 1);
+                try (PreparedStatement stmt = prepare(connection, userMaxOrdersQuery(parameters))) {
+                    for (int i = 0; i < parameters; i++) stmt.setLong(i + 1, stores[Math.min(from + i, to - 1)]);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            orders.put(rs.getLong("ID_TIENDA"), new Order(
+                                    rs.getLong("ID_USUARIO"),
+                                    rs.getLong("ID_PEDIDO"),
+                                    rs.getString("NOMBRE"),
+                                    rs.getString("DIRECCION")
+                            ));
+                        }
+                    }
+                }
+            }
+            recordExecuted(METRIC_USER_MAX_ORDERS, start, orders.size(), 0);
+        } catch (SQLException e) {
+            recordFailed(METRIC_USER_MAX_ORDERS, start, e);
+            throw e;
+        }
+        return orders;
+    }
+
+    private static String userMaxOrdersQuery(int parameters) {
+        return "SELECT R.ID_TIENDA, R.ID_USUARIO, R.ID_PEDIDO, R.NOMBRE, R.DIRECCION FROM ("
+                .concat("SELECT P.ID_TIENDA, U.ID_USUARIO, P.ID_PEDIDO, U.NOMBRE, U.DIRECCION, ")
+                .concat("ROW_NUMBER() OVER (PARTITION BY P.ID_TIENDA ORDER BY P.TOTAL DESC) AS POSICION ")
                 .concat("FROM PEDIDOS AS P INNER JOIN USUARIOS AS U ON P.ID_USUARIO = U.ID_USUARIO ")
-                .concat("WHERE P.ID_TIENDA = ? ORDER BY P.TOTAL DESC LIMIT 1");
-        Connection connection = getConnection();
-        if (Objects.isNull(connection)) throw new SQLException("Something was wrong getting data base connection");
-        PreparedStatement stmt = connection.prepareStatement(query);
-        stmt.setLong(1, idTienda);
-        ResultSet rs = stmt.executeQuery();
-
-        if (rs.next()) {
-            return Optional.of(new Order(
-                    rs.getInt("ID_USUARIO"),
-                    rs.getInt("ID_PEDIDO"),
-                    rs.getString("NOMBRE"),
-                    rs.getString("DIRECCION")
-            ));
-        } else {
-            return Optional.empty();
+                .concat("WHERE P.ID_TIENDA IN (")
+                .concat(String.join(", ", Collections.nCopies(parameters, "?")))
+                .concat(")) AS R WHERE R.POSICION = 1");
+    }
+
+    /**
+     * Recorre los pedidos del usuario ordenados por ID_PEDIDO sin cargarlos todos en memoria
+     *  - Se lee por páginas de pageSize pedidos con paginación por keyset (ID_PEDIDO > último leído), no con OFFSET,
+     *    por lo que la última página cuesta lo mismo que la primera
+     *  - La siguiente página se pide en segundo plano (en el ejecutor asíncrono) mientras se procesa la actual: en
+     *    memoria hay como máximo dos páginas
+     *  - Cada página obtiene su propia conexión del pool y la devuelve al terminar, de modo que un consumidor lento no
+     *    retiene una conexión ni un cursor abierto en el servidor
+     *  - Es obligatorio cerrar el Stream (try-with-resources) para cancelar la página que se esté pidiendo
+     *  - Los errores de base de datos se lanzan al consumir el Stream como UncheckedSQLException
+     *  - Los pedidos insertados durante el recorrido con un ID_PEDIDO mayor que el último leído también se devuelven
+     */
+    public Stream<OrderRow> streamUserOrders(long idUsuario) {
+        return streamUserOrders(idUsuario, defaultStreamPageSize);
+    }
+
+    public Stream<OrderRow> streamUserOrders(long idUsuario, int pageSize) {
+        return streamOrders(USER_ORDERS_PAGE_QUERY, METRIC_USER_ORDERS_PAGE, idUsuario, pageSize);
+    }
+
+    /**
+     * Recorre los pedidos de la tienda ordenados por ID_PEDIDO, con las mismas características que streamUserOrders
+     */
+    public Stream<OrderRow> streamStoreOrders(long idTienda) {
+        return streamStoreOrders(idTienda, defaultStreamPageSize);
+    }
+
+    public Stream<OrderRow> streamStoreOrders(long idTienda, int pageSize) {
+        return streamOrders(STORE_ORDERS_PAGE_QUERY, METRIC_STORE_ORDERS_PAGE, idTienda, pageSize);
+    }
+
+    private Stream<OrderRow> streamOrders(String query, String metric, long id, int pageSize) {
+        PageLoader loader = afterOrderId -> loadOrdersPage(query, metric, id, afterOrderId, pageSize);
+        KeysetPageIterator iterator = new KeysetPageIterator(
+                loader,
+                afterOrderId -> async(() -> loader.load(afterOrderId), defaultQueryTimeoutSeconds),
+                pageSize
+        );
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false
+        ).onClose(iterator::close);
+    }
+
+    private List<OrderRow> loadOrdersPage(String query, String metric, long id, long afterOrderId, int pageSize)
+            throws SQLException {
+        long start = startTimer();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = prepare(connection, query)) {
+            stmt.setLong(1, id);
+            stmt.setLong(2, afterOrderId);
+            stmt.setInt(3, pageSize);
+            List<OrderRow> page = new ArrayList<>(pageSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(new OrderRow(
+                            rs.getLong("ID_PEDIDO"),
+                            rs.getLong("ID_USUARIO"),
+                            rs.getLong("ID_TIENDA"),
+                            rs.getTimestamp("FECHA"),
+                            rs.getDouble("TOTAL"),
+                            rs.getDouble("SUBTOTAL"),
+                            rs.getString("DIRECCION")
+                    ));
+                }
+            }
+            recordExecuted(metric, start, page.size(), 0);
+            return page;
+        } catch (SQLException e) {
+            recordFailed(metric, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Versiones asíncronas de los métodos del DAO
+     *  - Se ejecutan en un ejecutor propio con tantos hilos como conexiones tiene el pool (más hilos solo esperarían
+     *    por una conexión) y una cola acotada; si la cola está llena el future se completa con
+     *    RejectedExecutionException en lugar de acumular trabajo sin límite
+     *  - Cancelar el future cancela en el servidor la consulta en curso (Statement.cancel) y las que se intenten
+     *    preparar después fallan; si aún no había empezado, no llega a ejecutarse
+     *  - Con escritura diferida, cancelar una copia descarta su petición si sigue en la cola; si el escritor ya la
+     *    está escribiendo en un lote, sus pedidos se insertan igualmente
+     *  - timeoutSeconds se aplica a cada statement con setQueryTimeout (0 sin límite)
+     */
+    public CompletableFuture<Map<Long, Long>> getMaxUserOrderIdAsync(long idTienda) {
+        return getMaxUserOrderIdAsync(idTienda, defaultQueryTimeoutSeconds);
+    }
+
+    public CompletableFuture<Map<Long, Long>> getMaxUserOrderIdAsync(long idTienda, int timeoutSeconds) {
+        return async(() -> getMaxUserOrderId(idTienda), timeoutSeconds);
+    }
+
+    public CompletableFuture<Integer> copyUserOrdersAsync(long idUserOri, long idUserDes) {
+        return copyUserOrdersAsync(idUserOri, idUserDes, CopyOptions.defaults(), defaultQueryTimeoutSeconds);
+    }
+
+    public CompletableFuture<Integer> copyUserOrdersAsync(long idUserOri, long idUserDes, CopyOptions options, int timeoutSeconds) {
+        return async(() -> copyUserOrders(idUserOri, idUserDes, options), timeoutSeconds);
+    }
+
+    public CompletableFuture<Optional<Order>> getUserMaxOrderAsync(long idTienda) {
+        return getUserMaxOrderAsync(idTienda, defaultQueryTimeoutSeconds);
+    }
+
+    public CompletableFuture<Optional<Order>> getUserMaxOrderAsync(long idTienda, int timeoutSeconds) {
+        return async(() -> getUserMaxOrder(idTienda), timeoutSeconds);
+    }
+
+    /**
+     * Escribe lo pendiente en la cola de escritura diferida y cierra el ejecutor asíncrono, la actualización periódica
+     * de la vista materializada y el pool de conexiones (o el router con el primario y las réplicas)
+     */
+    @Override
+    public void close() {
+        if (Objects.nonNull(writeBehindQueue)) writeBehindQueue.close();
+        asyncExecutor.shutdown();
+        if (Objects.nonNull(maxOrderViewPoller)) maxOrderViewPoller.shutdownNow();
+        if (Objects.nonNull(router)) router.close();
+        else pool.close();
+    }
+
+    private <T> CompletableFuture<T> async(SqlSupplier<T> call, int timeoutSeconds) {
+        QueryContext context = new QueryContext(timeoutSeconds);
+        CancellableFuture<T> future = new CancellableFuture<>(context);
+        try {
+            asyncExecutor.execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    future.complete(context.run(call));
+                } catch (SQLException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
         }
+        return future;
     }
 
     /**
-     * Se agrega una implementación de getConnection para una base de datos MySQL
+     * Prepara el statement (desde la caché de la conexión) aplicándole el timeout y la cancelación de la llamada
+     * asíncrona en curso, si la hay
+     */
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            QueryContext.apply(statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        return statement;
+    }
+
+    /**
+     * Las conexiones se piden al pool en lugar de abrir una conexión nueva con DriverManager en cada llamada
+     * (evitando el handshake TCP y de autenticación) y se devuelven al pool al cerrarlas, por lo que ya no se quedan
+     * conexiones abiertas sin cerrar
      */
     private Connection getConnection() throws SQLException {
+        return acquire(pool::getConnection);
+    }
+
+    /**
+     * Conexión para consultas de solo lectura: de una réplica si hay router, del pool en otro caso
+     */
+    private Connection getReadConnection() throws SQLException {
+        if (Objects.isNull(router)) return getConnection();
+        return acquire(router::getReadConnection);
+    }
+
+    private Connection acquire(SqlSupplier<Connection> connections) throws SQLException {
+        if (!instrumentation.isEnabled()) return connections.get();
+        long start = System.nanoTime();
+        try {
+            Connection connection = connections.get();
+            instrumentation.connectionAcquired(System.nanoTime() - start);
+            return connection;
+        } catch (SQLException e) {
+            instrumentation.connectionFailed(e);
+            throw e;
+        }
+    }
+
+    /*
+     * Con la instrumentación desactivada no se toman tiempos (startTimer devuelve 0) ni se registra nada
+     */
+    private long startTimer() {
+        return instrumentation.isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    private void recordExecuted(String query, long start, long rowsRead, long rowsWritten) {
+        if (start != 0L) instrumentation.executed(query, System.nanoTime() - start, rowsRead, rowsWritten);
+    }
+
+    private void recordBatch(String query, int rows) {
+        if (instrumentation.isEnabled()) instrumentation.batchExecuted(query, rows);
+    }
+
+    private void recordFailed(String query, long start, SQLException e) {
+        if (start != 0L) instrumentation.failed(query, System.nanoTime() - start, e);
+    }
+
+    private static void rollback(Connection connection, Exception cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Configuración del pool para la base de datos MySQL. Se activa useServerPrepStmts para que los statements
+     * cacheados en el pool queden preparados en el servidor y las consultas repetidas se ahorren el parseo,
+     * useCursorFetch para que setFetchSize lea con un cursor en el servidor y rewriteBatchedStatements para que los
+     * batch de inserts se envíen como INSERT multi-fila
+     */
+    private static PoolConfig defaultPoolConfig() {
         Properties properties = new Properties();
         properties.put("user", "root");
         properties.put("password", "root");
-        return DriverManager.getConnection(
-                "jdbc:mysql://localhost/inditex?serverTimezone=Europe/Madrid&useSSL=false",
-                properties
-        );
+        return PoolConfig.builder()
+                .url("jdbc:mysql://localhost/inditex?serverTimezone=Europe/Madrid&useSSL=false&useServerPrepStmts=true"
+                        .concat("&useCursorFetch=true&rewriteBatchedStatements=true"))
+                .properties(properties)
+                .build();
+    }
+
+    private static class InstanceHolder {
+        private static final TestSqlDao INSTANCE = new TestSqlDao(new ConnectionPool(defaultPoolConfig()), null, DaoConfig.defaults());
     }
 
     @Getter
@@ -158,4 +1083,21 @@ public class TestSqlDao {
         private final String name;
         private final String address;
     }
+
+    /**
+     * Fila de la tabla PEDIDOS. En la copia de pedidos, orderId es el ID del pedido de origen y userId el usuario de
+     * destino; el transformer puede devolver una copia modificada (toBuilder) o null para descartar la fila
+     */
+    @Getter
+    @Builder(toBuilder = true)
+    @AllArgsConstructor
+    public static class OrderRow {
+        private final long orderId;
+        private final long userId;
+        private final long storeId;
+        private final Timestamp date;
+        private final double total;
+        private final double subtotal;
+        private final String address;
+    }
 }
@@ -0,0 +1,29 @@
+package com.inditex.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Informe de una copia masiva: un resultado por par, en el mismo orden en que se recibieron los pares
+ */
+@Getter
+@AllArgsConstructor
+public class BulkCopyReport {
+    private final List<CopyResult> results;
+    private final long elapsedNanos;
+
+    public List<CopyResult> getFailures() {
+        return results.stream().filter(result -> !result.isSuccess()).collect(Collectors.toList());
+    }
+
+    public long getSucceededCount() {
+        return results.stream().filter(CopyResult::isSuccess).count();
+    }
+
+    public long getCopiedOrders() {
+        return results.stream().mapToLong(CopyResult::getCopiedOrders).sum();
+    }
+}
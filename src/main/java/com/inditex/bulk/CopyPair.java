@@ -0,0 +1,18 @@
+package com.inditex.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Par (usuario origen, usuario destino) de una copia de pedidos
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(staticName = "of")
+public class CopyPair {
+    private final long originUserId;
+    private final long destinationUserId;
+}
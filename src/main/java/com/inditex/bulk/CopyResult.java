@@ -0,0 +1,29 @@
+package com.inditex.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * Resultado de la copia de un par: número de pedidos copiados o el error que la hizo fallar
+ */
+@Getter
+@AllArgsConstructor
+public class CopyResult {
+    private final CopyPair pair;
+    private final int copiedOrders;
+    private final Exception failure;
+
+    public static CopyResult success(CopyPair pair, int copiedOrders) {
+        return new CopyResult(pair, copiedOrders, null);
+    }
+
+    public static CopyResult failure(CopyPair pair, Exception failure) {
+        return new CopyResult(pair, 0, failure);
+    }
+
+    public boolean isSuccess() {
+        return Objects.isNull(failure);
+    }
+}
@@ -0,0 +1,150 @@
+package com.inditex.cache;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de lectura (read-through) acotada, con caducidad (TTL) y desalojo LRU
+ *  - Las lecturas no bloquean: se apoya en ConcurrentHashMap en lugar de un Hashtable con bloqueo global
+ *  - Carga única (single-flight): si varios hilos fallan a la vez para la misma clave solo uno ejecuta la carga y
+ *    el resto espera su resultado
+ *  - Al superar maxSize se desalojan primero las entradas caducadas y después las menos usadas recientemente
+ *  - invalidate() descarta la entrada y cualquier carga en curso de esa clave, para que el resultado de una carga
+ *    iniciada antes de la invalidación no se guarde
+ * Los valores se comparten entre hilos, por lo que deben ser inmutables
+ */
+public class LoadingCache<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public LoadingCache(int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Invalid cache size: " + maxSize);
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now - entry.loadedNanos < ttlNanos) {
+            entry.lastAccessNanos = now;
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) return await(inFlight);
+        try {
+            V value = loader.load(key);
+            Entry<V> loaded = new Entry<>(value, System.nanoTime());
+            entries.put(key, loaded);
+            if (!loading.remove(key, future)) entries.remove(key, loaded);
+            evictIfNeeded();
+            future.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException e) {
+            loading.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && System.nanoTime() - entry.loadedNanos < ttlNanos ? entry.value : null;
+    }
+
+    public void invalidate(K key) {
+        loading.remove(key);
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        loading.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private V await(CompletableFuture<V> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a concurrent load", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new SQLException(e.getCause());
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (entries.size() > maxSize) {
+            long now = System.nanoTime();
+            Map.Entry<K, Entry<V>> victim = null;
+            for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+                if (now - candidate.getValue().loadedNanos >= ttlNanos) {
+                    victim = candidate;
+                    break;
+                }
+                if (victim == null || candidate.getValue().lastAccessNanos < victim.getValue().lastAccessNanos) {
+                    victim = candidate;
+                }
+            }
+            if (victim == null) return;
+            if (entries.remove(victim.getKey(), victim.getValue())) evictions.increment();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+
+        private final long loadedNanos;
+
+        private volatile long lastAccessNanos;
+
+        private Entry(V value, long loadedNanos) {
+            this.value = value;
+            this.loadedNanos = loadedNanos;
+            this.lastAccessNanos = loadedNanos;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.inditex.collection;
+
+import java.util.*;
+
+/**
+ * Mapa long -> long con direccionamiento abierto (sondeo lineal) sobre dos arrays de primitivos
+ *  - Sin objetos por entrada ni boxing: cada entrada ocupa 16 bytes en los arrays
+ *  - La clave 0 se usa como marca de hueco libre, por lo que se guarda aparte (hasZeroKey/zeroValue)
+ *  - La capacidad es potencia de dos y se duplica al superar el factor de carga 0.75
+ *  - No es thread-safe; para compartirlo una vez construido se publica la vista readOnly()
+ */
+public class LongLongHashMap implements LongLongMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int mask;
+
+    private int size = 0;
+
+    private int threshold;
+
+    private boolean hasZeroKey = false;
+
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Invalid expected size: " + expectedSize);
+        allocate(capacityFor(expectedSize));
+    }
+
+    public long put(long key, long value) {
+        if (key == 0) {
+            long previous = hasZeroKey ? zeroValue : 0;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) rehash(keys.length << 1);
+        return 0;
+    }
+
+    /**
+     * Guarda value solo si la clave no existe o su valor actual es menor. Devuelve true si se modificó el mapa
+     */
+    public boolean putIfGreater(long key, long value) {
+        if (containsKey(key) && get(key, Long.MIN_VALUE) >= value) return false;
+        put(key, value);
+        return true;
+    }
+
+    @Override
+    public long get(long key, long defaultValue) {
+        if (key == 0) return hasZeroKey ? zeroValue : defaultValue;
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZeroKey;
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void forEach(Consumer consumer) {
+        if (hasZeroKey) consumer.accept(0, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Copia independiente del mapa (clonando los arrays, sin volver a insertar las entradas)
+     */
+    public LongLongHashMap copy() {
+        LongLongHashMap copy = new LongLongHashMap(0);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.mask = mask;
+        copy.size = size;
+        copy.threshold = threshold;
+        copy.hasZeroKey = hasZeroKey;
+        copy.zeroValue = zeroValue;
+        return copy;
+    }
+
+    /**
+     * Vista de solo lectura que no permite volver al mapa modificable
+     */
+    public LongLongMap readOnly() {
+        return new ReadOnlyView(this);
+    }
+
+    @Override
+    public Map<Long, Long> asMap() {
+        return new MapAdapter(this);
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed) capacity <<= 1;
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int slot = slot(key);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static class ReadOnlyView implements LongLongMap {
+
+        private final LongLongHashMap map;
+
+        private ReadOnlyView(LongLongHashMap map) {
+            this.map = map;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(long key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public long get(long key, long defaultValue) {
+            return map.get(key, defaultValue);
+        }
+
+        @Override
+        public void forEach(Consumer consumer) {
+            map.forEach(consumer);
+        }
+
+        @Override
+        public Map<Long, Long> asMap() {
+            return map.asMap();
+        }
+
+        @Override
+        public String toString() {
+            return map.toString();
+        }
+    }
+
+    private static class MapAdapter extends AbstractMap<Long, Long> {
+
+        private final LongLongHashMap map;
+
+        private MapAdapter(LongLongHashMap map) {
+            this.map = map;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Long && map.containsKey((Long) key);
+        }
+
+        @Override
+        public Long get(Object key) {
+            if (!containsKey(key)) return null;
+            return map.get((Long) key, 0);
+        }
+
+        @Override
+        public Set<Entry<Long, Long>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return map.size();
+                }
+
+                @Override
+                public Iterator<Entry<Long, Long>> iterator() {
+                    return new EntryIterator(map);
+                }
+            };
+        }
+    }
+
+    private static class EntryIterator implements Iterator<Map.Entry<Long, Long>> {
+
+        private final LongLongHashMap map;
+
+        private boolean zeroPending;
+
+        private int next = -1;
+
+        private EntryIterator(LongLongHashMap map) {
+            this.map = map;
+            this.zeroPending = map.hasZeroKey;
+            advance();
+        }
+
+        private void advance() {
+            do {
+                next++;
+            } while (next < map.keys.length && map.keys[next] == 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return zeroPending || next < map.keys.length;
+        }
+
+        @Override
+        public Map.Entry<Long, Long> next() {
+            if (zeroPending) {
+                zeroPending = false;
+                return new AbstractMap.SimpleImmutableEntry<>(0L, map.zeroValue);
+            }
+            if (next >= map.keys.length) throw new NoSuchElementException();
+            Map.Entry<Long, Long> entry = new AbstractMap.SimpleImmutableEntry<>(map.keys[next], map.values[next]);
+            advance();
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.inditex.collection;
+
+import java.util.Map;
+
+/**
+ * Vista de solo lectura de un mapa long -> long sin boxing
+ */
+public interface LongLongMap {
+
+    @FunctionalInterface
+    interface Consumer {
+        void accept(long key, long value);
+    }
+
+    int size();
+
+    boolean isEmpty();
+
+    boolean containsKey(long key);
+
+    long get(long key, long defaultValue);
+
+    void forEach(Consumer consumer);
+
+    /**
+     * Adaptador inmutable a Map<Long, Long> para compatibilidad. Las claves y valores se crean (boxing) al acceder
+     */
+    Map<Long, Long> asMap();
+}
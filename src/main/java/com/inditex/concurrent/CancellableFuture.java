@@ -0,0 +1,24 @@
+package com.inditex.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CompletableFuture cuya cancelación se propaga a las consultas en curso de su QueryContext. Solo se propaga la
+ * primera vez, cuando la cancelación es la que completa el future
+ */
+public class CancellableFuture<T> extends CompletableFuture<T> {
+
+    private final QueryContext context;
+
+    public CancellableFuture(QueryContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = completeExceptionally(new CancellationException());
+        if (cancelled) context.cancel();
+        return cancelled || isCancelled();
+    }
+}
@@ -0,0 +1,96 @@
+package com.inditex.concurrent;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Future;
+
+/**
+ * Contexto de una llamada asíncrona del DAO, asociado al hilo que la ejecuta
+ *  - Los statements que prepara el DAO se registran en el contexto y reciben su timeout (setQueryTimeout)
+ *  - cancel() cancela en el servidor (Statement.cancel) los statements registrados, y los que se preparen después
+ *    fallan inmediatamente
+ *  - También cancela los futures registrados con track (peticiones encoladas en la escritura diferida)
+ */
+public class QueryContext {
+
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    private final int timeoutSeconds;
+
+    private final List<Statement> statements = new ArrayList<>();
+
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    private boolean cancelled = false;
+
+    public QueryContext(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public static QueryContext current() {
+        return CURRENT.get();
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    /**
+     * Aplica al statement el timeout del contexto del hilo actual (0 si no hay contexto, para no heredar el de un uso
+     * anterior del statement cacheado) y lo registra para poder cancelarlo
+     */
+    public static void apply(Statement statement) throws SQLException {
+        QueryContext context = CURRENT.get();
+        statement.setQueryTimeout(Objects.isNull(context) ? 0 : context.timeoutSeconds);
+        if (Objects.nonNull(context)) context.register(statement);
+    }
+
+    /**
+     * Registra en el contexto del hilo actual, si lo hay, un future que cancel() debe cancelar. Si el contexto ya está
+     * cancelado se cancela inmediatamente
+     */
+    public static void track(Future<?> future) {
+        QueryContext context = CURRENT.get();
+        if (Objects.isNull(context)) return;
+        synchronized (context) {
+            if (!context.cancelled) {
+                context.futures.add(future);
+                return;
+            }
+        }
+        future.cancel(false);
+    }
+
+    public <T> T run(SqlSupplier<T> call) throws SQLException {
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+            synchronized (this) {
+                statements.clear();
+                futures.clear();
+            }
+        }
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // El statement ya se ha cerrado
+            }
+        }
+        futures.forEach(future -> future.cancel(false));
+    }
+
+    private synchronized void register(Statement statement) throws SQLException {
+        if (cancelled) throw new SQLException("Query has been cancelled");
+        statements.add(statement);
+    }
+}
@@ -0,0 +1,53 @@
+package com.inditex.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creación de los ejecutores de trabajo del DAO
+ *  - En JDK 21+ se usan hilos virtuales (un hilo por tarea), ya que las tareas pasan casi todo el tiempo bloqueadas
+ *    en E/S JDBC. Se obtiene por reflexión porque el proyecto compila para Java 11. Quien lo use debe acotar la
+ *    concurrencia (por ejemplo al tamaño del pool de conexiones)
+ *  - En versiones anteriores se usa un pool fijo de hilos daemon de tamaño threads
+ */
+public final class WorkerExecutors {
+
+    private static final Method VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private WorkerExecutors() {}
+
+    public static boolean virtualThreadsAvailable() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    public static ExecutorService newWorkerExecutor(String name, int threads) {
+        if (VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Se usa el pool fijo
+            }
+        }
+        return Executors.newFixedThreadPool(threads, daemonThreadFactory(name));
+    }
+
+    public static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method findVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
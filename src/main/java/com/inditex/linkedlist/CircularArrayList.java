@@ -0,0 +1,261 @@
+package com.inditex.linkedlist;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Alternativa a LinkedList con la misma API sobre un array circular que crece al doble
+ *  - get(int) es O(1) y añadir al principio o al final es O(1) amortizado
+ *  - Insertar o eliminar en medio desplaza la mitad más corta del array
+ *  - Los elementos están contiguos en memoria: recorrerla no salta de nodo en nodo ni crea un objeto por elemento
+ */
+public class CircularArrayList<T> implements Collection<T> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /*
+     * Mayor potencia de dos representable en un int
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Object[] elements;
+
+    private int head = 0;
+
+    private int size = 0;
+
+    private int modCount = 0;
+
+    private CircularArrayList(int capacity) {
+        this.elements = new Object[capacity];
+    }
+
+    public static <T> CircularArrayList<T> getInstance() {
+        return new CircularArrayList<>(MIN_CAPACITY);
+    }
+
+    public static <T> CircularArrayList<T> getInstance(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > MAX_CAPACITY)
+            throw new IllegalArgumentException("Invalid expected size: " + expectedSize);
+        return new CircularArrayList<>(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(expectedSize - 1, 1)) << 1));
+    }
+
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+        return elementAt(index);
+    }
+
+    public void add(int index, T element) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException();
+        if (size == elements.length) grow();
+        int mask = elements.length - 1;
+        if (index < size - index) {
+            head = (head - 1) & mask;
+            for (int i = 0; i < index; i++) {
+                elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+            }
+        } else {
+            for (int i = size; i > index; i--) {
+                elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+            }
+        }
+        elements[(head + index) & mask] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return indexOf(object) >= 0;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new CircularArrayListIterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return copyTo(new Object[size]);
+    }
+
+    @Override
+    public <E> E[] toArray(E[] baseArray) {
+        E[] array = baseArray.length >= size
+                ? baseArray
+                : CircularArrayList.<E[]>cast(Array.newInstance(baseArray.getClass().getComponentType(), size));
+        copyTo(array);
+        if (array.length > size) array[size] = null;
+        return array;
+    }
+
+    @Override
+    public boolean add(T t) {
+        add(size, t);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        int index = indexOf(object);
+        if (index < 0) return false;
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> collection) {
+        for (Object object : collection) {
+            if (!contains(object)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        Object[] added = collection.toArray();
+        if (added.length == 0) return false;
+        while (elements.length - size < added.length) grow();
+        int mask = elements.length - 1;
+        for (Object element : added) elements[(head + size++) & mask] = element;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        return removeIf(collection::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        return removeIf(element -> !collection.contains(element));
+    }
+
+    /**
+     * Compacta los elementos que se conservan en una sola pasada, en lugar de desplazar el array por cada borrado
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int mask = elements.length - 1;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            T element = elementAt(i);
+            if (!filter.test(element)) elements[(head + kept++) & mask] = element;
+        }
+        if (kept == size) return false;
+        for (int i = kept; i < size; i++) elements[(head + i) & mask] = null;
+        size = kept;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        int mask = elements.length - 1;
+        for (int i = 0; i < size; i++) elements[(head + i) & mask] = null;
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    private T elementAt(int index) {
+        return cast(elements[(head + index) & (elements.length - 1)]);
+    }
+
+    private int indexOf(Object object) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(elementAt(i), object)) return i;
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        int mask = elements.length - 1;
+        if (index < size - index - 1) {
+            for (int i = index; i > 0; i--) {
+                elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+            }
+            elements[head] = null;
+            head = (head + 1) & mask;
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+            }
+            elements[(head + size - 1) & mask] = null;
+        }
+        size--;
+        modCount++;
+    }
+
+    private <E> E[] copyTo(E[] array) {
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, array, 0, firstPart);
+        System.arraycopy(elements, 0, array, firstPart, size - firstPart);
+        return array;
+    }
+
+    private void grow() {
+        if (elements.length == MAX_CAPACITY) throw new IllegalStateException("List too large");
+        Object[] grown = copyTo(new Object[elements.length << 1]);
+        elements = grown;
+        head = 0;
+    }
+
+    /**
+     * Único punto de conversión sin comprobar: el array de elementos y el de toArray no conservan el tipo genérico
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R cast(Object object) {
+        return (R) object;
+    }
+
+    private class CircularArrayListIterator implements Iterator<T> {
+
+        private int next = 0;
+
+        private int lastReturned = -1;
+
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (next >= size)
+                throw new NoSuchElementException();
+            lastReturned = next++;
+            return elementAt(lastReturned);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            removeAt(lastReturned);
+            next = lastReturned;
+            lastReturned = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
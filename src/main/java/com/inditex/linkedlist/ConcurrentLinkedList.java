@@ -0,0 +1,134 @@
+package com.inditex.linkedlist;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Predicate;
+
+/**
+ * Variante concurrente de LinkedList para compartir entre hilos sin bloqueos externos
+ *  - Se apoya en ConcurrentLinkedDeque: lista doblemente enlazada sin bloqueos (CAS) con inserción y extracción
+ *    linealizables en los dos extremos
+ *  - Los iteradores son débilmente consistentes: no lanzan ConcurrentModificationException y pueden ver o no los
+ *    cambios hechos durante el recorrido
+ *  - size() recorre la lista (O(n)) y con modificaciones concurrentes es solo una estimación
+ *  - Las operaciones masivas (addAll, removeAll...) no son atómicas
+ *  - No admite elementos null: poll/peek devuelven null para indicar lista vacía
+ */
+public class ConcurrentLinkedList<T> implements Collection<T> {
+
+    private final ConcurrentLinkedDeque<T> elements = new ConcurrentLinkedDeque<>();
+
+    private ConcurrentLinkedList() {}
+
+    public static <T> ConcurrentLinkedList<T> getInstance() {
+        return new ConcurrentLinkedList<>();
+    }
+
+    public void addFirst(T element) {
+        elements.addFirst(element);
+    }
+
+    public void addLast(T element) {
+        elements.addLast(element);
+    }
+
+    public T pollFirst() {
+        return elements.pollFirst();
+    }
+
+    public T pollLast() {
+        return elements.pollLast();
+    }
+
+    public T peekFirst() {
+        return elements.peekFirst();
+    }
+
+    public T peekLast() {
+        return elements.peekLast();
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return elements.contains(object);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return elements.iterator();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return elements.spliterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.toArray();
+    }
+
+    @Override
+    public <E> E[] toArray(E[] baseArray) {
+        return elements.toArray(baseArray);
+    }
+
+    @Override
+    public boolean add(T element) {
+        return elements.add(element);
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        return elements.remove(object);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> collection) {
+        return elements.containsAll(collection);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        if (collection == this) throw new IllegalArgumentException("Cannot add a list to itself");
+        return elements.addAll(collection);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        return elements.removeAll(collection);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        return elements.retainAll(collection);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        return elements.removeIf(Objects.requireNonNull(filter));
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+    }
+
+    @Override
+    public String toString() {
+        return elements.toString();
+    }
+}
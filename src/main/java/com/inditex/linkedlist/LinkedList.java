@@ -1,8 +1,27 @@
 package com.inditex.linkedlist;
 
+import java.lang.reflect.Array;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-public class LinkedList<T> implements Collection<T> {
+public class LinkedList<T> extends AbstractSequentialList<T> implements List<T> {
+
+    /*
+     * Por debajo de este tamaño recorrer la colección argumento es más barato que construir un HashSet con ella
+     */
+    private static final int HASH_LOOKUP_THRESHOLD = 16;
+
+    /*
+     * Modo indexado: las etiquetas de orden de los nodos están en [0, ORDER_LIMIT). Al añadir por los extremos se deja
+     * ORDER_GAP de separación; al reetiquetar, una ventana de 2^i etiquetas debe tener como mucho 2^i / ORDER_DENSITY^i
+     * nodos, de modo que las ventanas pequeñas pueden estar más llenas que las grandes (coste amortizado O(log n))
+     */
+    private static final long ORDER_LIMIT = 1L << 62;
+
+    private static final long ORDER_GAP = 1L << 24;
+
+    private static final double ORDER_DENSITY = 1.3;
 
     private Node<T> first;
 
@@ -10,40 +29,58 @@ public class LinkedList<T> implements Collection<T> {
 
     private int size = 0;
 
-    private LinkedList() {}
+    /*
+     * Solo en modo indexado: elemento -> primer nodo con ese elemento. Los duplicados forman una cadena intrusiva en
+     * orden de lista (prevEqual/nextEqual), en la que el prevEqual del primero apunta al último
+     */
+    private final Map<Object, IndexedNode<T>> nodesByElement;
+
+    private LinkedList(boolean indexed) {
+        this.nodesByElement = indexed ? new HashMap<>() : null;
+    }
 
     public static <T> LinkedList<T> getInstance() {
-        return new LinkedList<>();
+        return new LinkedList<>(false);
     }
 
+    /**
+     * Lista que mantiene además un índice hash de sus elementos: contains, indexOf de elementos ausentes, remove(Object)
+     * y removeAll pasan a ser O(1) por elemento, conservando el orden de inserción y los duplicados. A cambio cada
+     * elemento cuesta del orden de 60 bytes más (entrada y hueco de la tabla del HashMap, etiqueta de orden y enlaces
+     * entre duplicados) y los elementos deben respetar el contrato de hashCode/equals y no modificarse mientras están
+     * en la lista
+     *  - Los duplicados de un elemento se enlazan entre sí en orden de lista: desenlazar es O(1) y enlazar también
+     *    cuando el nuevo nodo queda delante o detrás de todos sus duplicados o junto a uno de ellos. Solo insertar un
+     *    duplicado entre otros sin ninguno al lado recorre la cadena de ese elemento (O(duplicados posteriores)),
+     *    nunca la lista
+     *  - Cada nodo lleva una etiqueta creciente en orden de lista para saber dónde va un duplicado dentro de su cadena
+     *    sin recorrer la lista; cuando se agota el hueco entre dos etiquetas se reetiqueta una ventana de nodos vecinos
+     */
+    public static <T> LinkedList<T> getIndexedInstance() {
+        return new LinkedList<>(true);
+    }
+
+    @Override
     public T get(int index) {
         return getNode(index).element;
     }
 
-    public boolean add(T element, int index) {
+    @Override
+    public T set(int index, T element) {
+        return replace(getNode(index), element);
+    }
+
+    @Override
+    public void add(int index, T element) {
         if (index < 0 || index > size)
             throw new IndexOutOfBoundsException();
-        Node<T> node = new Node<>(element);
-        if (size == 0) {
-            first = node;
-            last = node;
-        } else if (index == 0) {
-            node.next = first;
-            first.prev = node;
-            first = node;
-        } else if (index == size) {
-            node.prev = last;
-            last.next = node;
-            last = node;
-        } else {
-            Node<T> actual = getNode(index);
-            node.next = actual;
-            node.prev = actual.prev;
-            node.prev.next = node;
-            actual.prev = node;
-        }
-        size++;
-        return true;
+        if (index == size) linkLast(element);
+        else linkBefore(element, getNode(index));
+    }
+
+    @Override
+    public T remove(int index) {
+        return unlink(getNode(index));
     }
 
     @Override
@@ -58,18 +95,44 @@ public class LinkedList<T> implements Collection<T> {
 
     @Override
     public boolean contains(Object object) {
-        T t = (T) object;
-        Node<T> node = first;
-        while (Objects.nonNull(node)) {
-            if (node.element.equals(t)) return true;
-            node = node.next;
+        if (isIndexed()) return nodesByElement.containsKey(object);
+        return indexOf(object) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object object) {
+        if (isIndexed() && !nodesByElement.containsKey(object)) return -1;
+        int index = 0;
+        for (Node<T> node = first; Objects.nonNull(node); node = node.next, index++) {
+            if (Objects.equals(node.element, object)) return index;
         }
-        return false;
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object object) {
+        int index = size - 1;
+        for (Node<T> node = last; Objects.nonNull(node); node = node.prev, index--) {
+            if (Objects.equals(node.element, object)) return index;
+        }
+        return -1;
     }
 
     @Override
     public Iterator<T> iterator() {
-        return new LinkedListIterator<>(first);
+        return new LinkedListIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException();
+        return new LinkedListIterator(index);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new LinkedListSpliterator();
     }
 
     @Override
@@ -86,48 +149,33 @@ public class LinkedList<T> implements Collection<T> {
 
     @Override
     public <E> E[] toArray(E[] baseArray) {
-        if (size == 0) return Collections.emptyList().toArray(baseArray);
-        Node<T> actual = first;
-        List<E> elements = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            elements.add(i, (E) actual.element);
-            actual = actual.next;
-        }
-        return elements.toArray(baseArray);
+        E[] array = baseArray.length >= size
+                ? baseArray
+                : LinkedList.<E[]>cast(Array.newInstance(baseArray.getClass().getComponentType(), size));
+        int i = 0;
+        for (Node<T> node = first; Objects.nonNull(node); node = node.next) array[i++] = cast(node.element);
+        if (array.length > size) array[size] = null;
+        return array;
     }
 
     @Override
     public boolean add(T t) {
-        return add(t, size);
+        linkLast(t);
+        return true;
     }
 
     @Override
     public boolean remove(Object object) {
-        if (size == 0) {
-            return false;
-        } else if (size == 1 && first.element.equals(object)) {
-            clear();
-            return true;
-        } else if (size > 1 && first.element.equals(object)){
-            first.next.prev = null;
-            first = first.next;
-            size--;
+        if (isIndexed()) {
+            IndexedNode<T> head = nodesByElement.get(object);
+            if (Objects.isNull(head)) return false;
+            unlink(head);
             return true;
-        } else if (size > 1 && last.element.equals(object)) {
-            last.prev.next = null;
-            last = last.prev;
-            size--;
-            return true;
-        } else if (size > 1) {
-            Node<T> actual = first.next;
-            while (Objects.nonNull(actual)) {
-                if (actual.element.equals(object)) {
-                    actual.prev.next = actual.next;
-                    actual.next.prev = actual.prev;
-                    size--;
-                    return true;
-                }
-                actual = actual.next;
+        }
+        for (Node<T> node = first; Objects.nonNull(node); node = node.next) {
+            if (Objects.equals(node.element, object)) {
+                unlink(node);
+                return true;
             }
         }
         return false;
@@ -135,29 +183,103 @@ public class LinkedList<T> implements Collection<T> {
 
     @Override
     public boolean containsAll(Collection<?> collection) {
-        return collection.stream().map(this::contains).reduce(true, Boolean::logicalAnd);
+        if (isIndexed() || collection.size() <= HASH_LOOKUP_THRESHOLD) {
+            for (Object object : collection) {
+                if (!contains(object)) return false;
+            }
+            return true;
+        }
+        return new HashSet<>(this).containsAll(collection);
     }
 
     @Override
     public boolean addAll(Collection<? extends T> collection) {
-        return collection.stream().map(this::add).reduce(true, Boolean::logicalAnd);
+        return addAll(size, collection);
     }
 
+    /**
+     * Enlaza primero los nuevos elementos entre sí y después inserta la cadena completa con un único empalme. En modo
+     * indexado los nodos se enlazan uno a uno, porque cada uno necesita la etiqueta de sus vecinos ya enlazados
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends T> collection) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException();
+        Object[] added = collection.toArray();
+        if (added.length == 0) return false;
+        if (isIndexed()) {
+            Node<T> successor = index == size ? null : getNode(index);
+            for (Object element : added) {
+                if (Objects.isNull(successor)) linkLast(cast(element));
+                else linkBefore(cast(element), successor);
+            }
+            return true;
+        }
+        Node<T> chainFirst = new Node<>(cast(added[0]));
+        Node<T> chainLast = chainFirst;
+        for (int i = 1; i < added.length; i++) {
+            Node<T> node = new Node<>(cast(added[i]));
+            node.prev = chainLast;
+            chainLast.next = node;
+            chainLast = node;
+        }
+        Node<T> successor = index == size ? null : getNode(index);
+        Node<T> predecessor = Objects.isNull(successor) ? last : successor.prev;
+        chainFirst.prev = predecessor;
+        chainLast.next = successor;
+        if (Objects.isNull(predecessor)) first = chainFirst;
+        else predecessor.next = chainFirst;
+        if (Objects.isNull(successor)) last = chainLast;
+        else successor.prev = chainLast;
+        size += added.length;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * En modo indexado, si el argumento es más pequeño que la lista, se eliminan directamente los nodos de cada elemento
+     * a partir del índice en lugar de recorrer la lista
+     */
     @Override
     public boolean removeAll(Collection<?> collection) {
-        return collection.stream().map(this::remove).reduce(true, Boolean::logicalAnd);
+        if (isIndexed() && !(collection instanceof Set) && collection.size() < size) {
+            boolean changed = false;
+            for (Object object : collection) {
+                IndexedNode<T> node = nodesByElement.get(object);
+                if (Objects.isNull(node)) continue;
+                while (Objects.nonNull(node)) {
+                    IndexedNode<T> nextEqual = node.nextEqual;
+                    unlink(node);
+                    node = nextEqual;
+                }
+                changed = true;
+            }
+            return changed;
+        }
+        Collection<?> lookup = lookup(collection);
+        return removeIf(lookup::contains);
     }
 
     @Override
     public boolean retainAll(Collection<?> collection) {
+        Collection<?> lookup = lookup(collection);
+        return removeIf(element -> !lookup.contains(element));
+    }
+
+    /**
+     * Una sola pasada desenlazando en O(1) cada nodo que cumple el filtro
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
         boolean changed = false;
-        Iterator<T> iterator = iterator();
-        while (iterator.hasNext()) {
-            T element = iterator.next();
-            if (!collection.contains(element)) {
-                remove(element);
+        Node<T> node = first;
+        while (Objects.nonNull(node)) {
+            Node<T> next = node.next;
+            if (filter.test(node.element)) {
+                unlink(node);
                 changed = true;
             }
+            node = next;
         }
         return changed;
     }
@@ -174,51 +296,431 @@ public class LinkedList<T> implements Collection<T> {
             actual = next;
         }
         size = 0;
+        modCount++;
+        if (isIndexed()) nodesByElement.clear();
     }
 
+    private boolean isIndexed() {
+        return Objects.nonNull(nodesByElement);
+    }
+
+    /**
+     * Los Set se usan tal cual para respetar su propia semántica de pertenencia (TreeSet con Comparator, etc.); el resto
+     * de colecciones grandes se copian a un HashSet para que cada consulta sea O(1) en lugar de O(m)
+     */
+    private static Collection<?> lookup(Collection<?> collection) {
+        if (collection instanceof Set || collection.size() <= HASH_LOOKUP_THRESHOLD) return collection;
+        return new HashSet<>(collection);
+    }
+
+    /**
+     * Recorre desde el extremo más cercano al índice, por lo que como mucho se recorre la mitad de la lista
+     */
     private Node<T> getNode(int index) {
         if (index < 0 || index >= size)
             throw new IndexOutOfBoundsException();
-        Node<T> actual = first;
-        for (int i = 0; i < size; i++) {
-            if (i == index) break;
-            actual = actual.next;
+        Node<T> actual;
+        if (index < (size >> 1)) {
+            actual = first;
+            for (int i = 0; i < index; i++) actual = actual.next;
+        } else {
+            actual = last;
+            for (int i = size - 1; i > index; i--) actual = actual.prev;
         }
         return actual;
     }
 
+    /*
+     * Las modificaciones de la estructura pasan siempre por linkLast, linkBefore y unlink, que mantienen first, last,
+     * size y modCount
+     */
+    private void linkLast(T element) {
+        Node<T> node = newNode(element);
+        node.prev = last;
+        if (Objects.isNull(last)) first = node;
+        else last.next = node;
+        last = node;
+        size++;
+        modCount++;
+        if (isIndexed()) index((IndexedNode<T>) node);
+    }
+
+    private void linkBefore(T element, Node<T> successor) {
+        Node<T> node = newNode(element);
+        node.next = successor;
+        node.prev = successor.prev;
+        if (Objects.isNull(successor.prev)) first = node;
+        else successor.prev.next = node;
+        successor.prev = node;
+        size++;
+        modCount++;
+        if (isIndexed()) index((IndexedNode<T>) node);
+    }
+
+    private Node<T> newNode(T element) {
+        return isIndexed() ? new IndexedNode<>(element) : new Node<>(element);
+    }
+
+    private T unlink(Node<T> node) {
+        if (isIndexed()) indexRemove((IndexedNode<T>) node);
+        if (Objects.isNull(node.prev)) first = node.next;
+        else node.prev.next = node.next;
+        if (Objects.isNull(node.next)) last = node.prev;
+        else node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        size--;
+        modCount++;
+        return node.element;
+    }
+
+    private T replace(Node<T> node, T element) {
+        T previous = node.element;
+        if (isIndexed()) indexRemove((IndexedNode<T>) node);
+        node.element = element;
+        if (isIndexed()) indexAdd((IndexedNode<T>) node);
+        return previous;
+    }
+
+    /**
+     * El nodo acaba de enlazarse: recibe su etiqueta de orden y entra en el índice
+     */
+    private void index(IndexedNode<T> node) {
+        if (!assignOrder(node)) relabel(node);
+        indexAdd(node);
+    }
+
+    /**
+     * Etiqueta entre las de sus vecinos: a ORDER_GAP del vecino si está en un extremo, en el punto medio si no.
+     * Devuelve false si no queda hueco
+     */
+    private boolean assignOrder(IndexedNode<T> node) {
+        long low = Objects.isNull(node.prev) ? -1 : ((IndexedNode<T>) node.prev).order;
+        long high = Objects.isNull(node.next) ? ORDER_LIMIT : ((IndexedNode<T>) node.next).order;
+        if (high - low < 2) return false;
+        long half = (high - low) / 2;
+        if (Objects.isNull(node.next) && Objects.nonNull(node.prev)) node.order = low + Math.min(ORDER_GAP, half);
+        else if (Objects.isNull(node.prev) && Objects.nonNull(node.next)) node.order = high - Math.min(ORDER_GAP, half);
+        else node.order = low + half;
+        return true;
+    }
+
+    /**
+     * Busca la menor ventana alineada de 2^i etiquetas alrededor del nodo que no supere la densidad permitida y reparte
+     * uniformemente las etiquetas de sus nodos, incluido el nuevo. Las ventanas se amplían a partir de la anterior, por
+     * lo que el coste es proporcional al número de nodos reetiquetados
+     */
+    private void relabel(IndexedNode<T> node) {
+        long anchor = ((IndexedNode<T>) (Objects.nonNull(node.prev) ? node.prev : node.next)).order;
+        IndexedNode<T> leftmost = node;
+        IndexedNode<T> rightmost = node;
+        int count = 1;
+        double density = 1;
+        for (int bits = 1; ; bits++) {
+            long range = 1L << bits;
+            long low = anchor & -range;
+            while (Objects.nonNull(leftmost.prev) && ((IndexedNode<T>) leftmost.prev).order >= low) {
+                leftmost = (IndexedNode<T>) leftmost.prev;
+                count++;
+            }
+            while (Objects.nonNull(rightmost.next) && ((IndexedNode<T>) rightmost.next).order < low + range) {
+                rightmost = (IndexedNode<T>) rightmost.next;
+                count++;
+            }
+            density *= ORDER_DENSITY;
+            long spacing = range / (count + 1);
+            if (spacing >= 2 && (range == ORDER_LIMIT || count <= range / density)) {
+                long order = low;
+                for (IndexedNode<T> relabeled = leftmost; ; relabeled = (IndexedNode<T>) relabeled.next) {
+                    order += spacing;
+                    relabeled.order = order;
+                    if (relabeled == rightmost) return;
+                }
+            }
+        }
+    }
+
+    /**
+     * El nodo ya está enlazado y etiquetado. Se coloca en la cadena de duplicados según su etiqueta: por los extremos
+     * en O(1) y, si va en medio, recorriendo la cadena desde el último duplicado
+     */
+    private void indexAdd(IndexedNode<T> node) {
+        IndexedNode<T> head = nodesByElement.putIfAbsent(node.element, node);
+        node.nextEqual = null;
+        if (Objects.isNull(head)) {
+            node.prevEqual = node;
+            return;
+        }
+        IndexedNode<T> tail = head.prevEqual;
+        if (node.order > tail.order) {
+            tail.nextEqual = node;
+            node.prevEqual = tail;
+            head.prevEqual = node;
+        } else if (node.order < head.order) {
+            node.nextEqual = head;
+            node.prevEqual = tail;
+            head.prevEqual = node;
+            nodesByElement.put(node.element, node);
+        } else {
+            IndexedNode<T> following = equalNeighbourAfter(node);
+            if (Objects.isNull(following)) {
+                following = tail;
+                while (following.prevEqual.order > node.order) following = following.prevEqual;
+            }
+            IndexedNode<T> preceding = following.prevEqual;
+            preceding.nextEqual = node;
+            node.prevEqual = preceding;
+            node.nextEqual = following;
+            following.prevEqual = node;
+        }
+    }
+
+    /**
+     * Si un vecino de lista tiene el mismo elemento ya está en la cadena, y el nodo va justo a su lado: devuelve el
+     * duplicado que le sigue en la cadena, o null si hay que buscarlo
+     */
+    private IndexedNode<T> equalNeighbourAfter(IndexedNode<T> node) {
+        if (Objects.nonNull(node.next) && Objects.equals(node.next.element, node.element))
+            return (IndexedNode<T>) node.next;
+        if (Objects.nonNull(node.prev) && Objects.equals(node.prev.element, node.element))
+            return ((IndexedNode<T>) node.prev).nextEqual;
+        return null;
+    }
+
+    private void indexRemove(IndexedNode<T> node) {
+        IndexedNode<T> head = nodesByElement.get(node.element);
+        IndexedNode<T> nextEqual = node.nextEqual;
+        if (node == head) {
+            if (Objects.isNull(nextEqual)) {
+                nodesByElement.remove(node.element);
+            } else {
+                nextEqual.prevEqual = node.prevEqual;
+                nodesByElement.put(node.element, nextEqual);
+            }
+        } else {
+            node.prevEqual.nextEqual = nextEqual;
+            if (Objects.isNull(nextEqual)) head.prevEqual = node.prevEqual;
+            else nextEqual.prevEqual = node.prevEqual;
+        }
+        node.prevEqual = null;
+        node.nextEqual = null;
+    }
+
+    /**
+     * Único punto de conversión sin comprobar: los arrays de addAll/toArray no conservan el tipo genérico
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R cast(Object object) {
+        return (R) object;
+    }
+
     private static class Node<T> {
-        private final T element;
+        T element;
 
-        private Node<T> prev = null;
+        Node<T> prev = null;
 
-        private Node<T> next = null;
+        Node<T> next = null;
 
         private Node(T element) {
             this.element = element;
         }
     }
 
-    private static class LinkedListIterator<T> implements Iterator<T> {
+    /**
+     * Nodo del modo indexado: etiqueta de orden y enlaces con los nodos anterior y siguiente del mismo elemento
+     */
+    private static final class IndexedNode<T> extends Node<T> {
+        private long order;
+
+        private IndexedNode<T> prevEqual;
+
+        private IndexedNode<T> nextEqual;
+
+        private IndexedNode(T element) {
+            super(element);
+        }
+    }
+
+    /**
+     * ListIterator con cursor entre dos nodos: add, remove y set actúan sobre el cursor en O(1). Falla
+     * (ConcurrentModificationException) si la lista se modifica por otra vía durante el recorrido
+     */
+    private class LinkedListIterator implements ListIterator<T> {
+
+        private Node<T> next;
+
+        private Node<T> lastReturned;
+
+        private int nextIndex;
 
-        private Node<T> actual;
+        private int expectedModCount = modCount;
 
-        private LinkedListIterator(Node<T> first) {
-            this.actual = first;
+        private LinkedListIterator(int index) {
+            this.next = index == size ? null : getNode(index);
+            this.nextIndex = index;
         }
 
         @Override
         public boolean hasNext() {
-            return Objects.nonNull(actual);
+            return nextIndex < size;
         }
 
         @Override
         public T next() {
-            if (Objects.isNull(actual))
+            checkForComodification();
+            if (!hasNext())
                 throw new NoSuchElementException();
-            T element = actual.element;
-            actual = actual.next;
-            return element;
+            lastReturned = next;
+            next = next.next;
+            nextIndex++;
+            return lastReturned.element;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public T previous() {
+            checkForComodification();
+            if (!hasPrevious())
+                throw new NoSuchElementException();
+            next = Objects.isNull(next) ? last : next.prev;
+            lastReturned = next;
+            nextIndex--;
+            return lastReturned.element;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (Objects.isNull(lastReturned))
+                throw new IllegalStateException();
+            Node<T> lastNext = lastReturned.next;
+            unlink(lastReturned);
+            if (next == lastReturned) next = lastNext;
+            else nextIndex--;
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(T element) {
+            if (Objects.isNull(lastReturned))
+                throw new IllegalStateException();
+            checkForComodification();
+            replace(lastReturned, element);
+        }
+
+        @Override
+        public void add(T element) {
+            checkForComodification();
+            lastReturned = null;
+            if (Objects.isNull(next)) linkLast(element);
+            else linkBefore(element, next);
+            nextIndex++;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Spliterator SIZED y ORDERED que divide copiando el principio de la lista a arrays de tamaño creciente
+     * (BATCH_UNIT, 2 * BATCH_UNIT...), que sí se dividen de forma equilibrada. Se vincula a la lista en el primer uso y
+     * falla (ConcurrentModificationException) si esta se modifica durante el recorrido
+     */
+    private class LinkedListSpliterator implements Spliterator<T> {
+
+        private static final int BATCH_UNIT = 1 << 10;
+
+        private static final int MAX_BATCH = 1 << 25;
+
+        private Node<T> current;
+
+        private int remaining = -1;
+
+        private int expectedModCount;
+
+        private int batch = 0;
+
+        private int remaining() {
+            if (remaining < 0) {
+                current = first;
+                remaining = size;
+                expectedModCount = modCount;
+            }
+            return remaining;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int available = remaining();
+            if (available <= 1 || Objects.isNull(current)) return null;
+            int length = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), available);
+            Object[] elements = new Object[length];
+            for (int i = 0; i < length; i++) {
+                elements[i] = current.element;
+                current = current.next;
+            }
+            batch = length;
+            remaining -= length;
+            return Spliterators.spliterator(elements, 0, length, Spliterator.ORDERED);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (remaining() <= 0 || Objects.isNull(current)) return false;
+            T element = current.element;
+            current = current.next;
+            remaining--;
+            action.accept(element);
+            checkForComodification();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int count = remaining();
+            Node<T> node = current;
+            current = null;
+            remaining = 0;
+            for (int i = 0; i < count && Objects.nonNull(node); i++) {
+                action.accept(node.element);
+                node = node.next;
+            }
+            checkForComodification();
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
         }
     }
 }
@@ -0,0 +1,389 @@
+package com.inditex.linkedlist;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Lista enlazada "desenrollada": cada nodo guarda un array de hasta nodeCapacity elementos
+ *  - El coste de cabecera y enlaces de un nodo se reparte entre todos sus elementos y los recorridos (iterador,
+ *    contains, toArray) leen arrays contiguos en lugar de saltar de nodo en nodo
+ *  - Insertar en un nodo lleno lo divide en dos mitades; al eliminar, un nodo por debajo de la mitad se fusiona con el
+ *    siguiente si caben juntos y los nodos vacíos se desenlazan
+ *  - get(int) y add(int, T) localizan el nodo desde el extremo más cercano saltando nodos completos
+ */
+public class UnrolledLinkedList<T> implements Collection<T> {
+
+    private static final int DEFAULT_NODE_CAPACITY = 32;
+
+    private static final int MIN_NODE_CAPACITY = 4;
+
+    private final int nodeCapacity;
+
+    private Chunk first;
+
+    private Chunk last;
+
+    private int size = 0;
+
+    private int modCount = 0;
+
+    private UnrolledLinkedList(int nodeCapacity) {
+        this.nodeCapacity = nodeCapacity;
+    }
+
+    public static <T> UnrolledLinkedList<T> getInstance() {
+        return new UnrolledLinkedList<>(DEFAULT_NODE_CAPACITY);
+    }
+
+    public static <T> UnrolledLinkedList<T> getInstance(int nodeCapacity) {
+        if (nodeCapacity < MIN_NODE_CAPACITY)
+            throw new IllegalArgumentException("Invalid node capacity: " + nodeCapacity);
+        return new UnrolledLinkedList<>(nodeCapacity);
+    }
+
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+        Position position = locate(index);
+        return cast(position.chunk.elements[position.offset]);
+    }
+
+    public void add(int index, T element) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException();
+        if (index == size) {
+            add(element);
+            return;
+        }
+        Position position = locate(index);
+        Chunk chunk = position.chunk;
+        int offset = position.offset;
+        if (chunk.count == nodeCapacity) {
+            Chunk upper = split(chunk);
+            if (offset > chunk.count) {
+                offset -= chunk.count;
+                chunk = upper;
+            }
+        }
+        System.arraycopy(chunk.elements, offset, chunk.elements, offset + 1, chunk.count - offset);
+        chunk.elements[offset] = element;
+        chunk.count++;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        for (Chunk chunk = first; Objects.nonNull(chunk); chunk = chunk.next) {
+            Object[] elements = chunk.elements;
+            for (int i = 0; i < chunk.count; i++) {
+                if (Objects.equals(elements[i], object)) return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new UnrolledLinkedListIterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return copyTo(new Object[size]);
+    }
+
+    @Override
+    public <E> E[] toArray(E[] baseArray) {
+        E[] array = baseArray.length >= size
+                ? baseArray
+                : UnrolledLinkedList.<E[]>cast(Array.newInstance(baseArray.getClass().getComponentType(), size));
+        copyTo(array);
+        if (array.length > size) array[size] = null;
+        return array;
+    }
+
+    @Override
+    public boolean add(T t) {
+        if (Objects.isNull(last) || last.count == nodeCapacity) linkLast(new Chunk(nodeCapacity));
+        last.elements[last.count++] = t;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        for (Chunk chunk = first; Objects.nonNull(chunk); chunk = chunk.next) {
+            for (int i = 0; i < chunk.count; i++) {
+                if (Objects.equals(chunk.elements[i], object)) {
+                    removeAt(chunk, i);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> collection) {
+        for (Object object : collection) {
+            if (!contains(object)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Rellena primero el hueco del último nodo y después crea nodos completos copiando tramos del array
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        Object[] added = collection.toArray();
+        if (added.length == 0) return false;
+        int copied = 0;
+        while (copied < added.length) {
+            if (Objects.isNull(last) || last.count == nodeCapacity) linkLast(new Chunk(nodeCapacity));
+            int length = Math.min(nodeCapacity - last.count, added.length - copied);
+            System.arraycopy(added, copied, last.elements, last.count, length);
+            last.count += length;
+            copied += length;
+        }
+        size += added.length;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        return removeIf(collection::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        return removeIf(element -> !collection.contains(element));
+    }
+
+    /**
+     * Compacta cada nodo en una pasada, desenlaza los que quedan vacíos y fusiona después los vecinos que caben juntos
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int removed = 0;
+        Chunk chunk = first;
+        while (Objects.nonNull(chunk)) {
+            Chunk next = chunk.next;
+            Object[] elements = chunk.elements;
+            int kept = 0;
+            for (int i = 0; i < chunk.count; i++) {
+                T element = cast(elements[i]);
+                if (!filter.test(element)) elements[kept++] = element;
+            }
+            Arrays.fill(elements, kept, chunk.count, null);
+            removed += chunk.count - kept;
+            chunk.count = kept;
+            if (kept == 0) unlink(chunk);
+            chunk = next;
+        }
+        if (removed == 0) return false;
+        for (chunk = first; Objects.nonNull(chunk); chunk = chunk.next) {
+            while (Objects.nonNull(chunk.next) && chunk.count + chunk.next.count <= nodeCapacity) merge(chunk);
+        }
+        size -= removed;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        first = null;
+        last = null;
+        size = 0;
+        modCount++;
+    }
+
+    private Position locate(int index) {
+        if (index < (size >> 1)) {
+            Chunk chunk = first;
+            while (index >= chunk.count) {
+                index -= chunk.count;
+                chunk = chunk.next;
+            }
+            return new Position(chunk, index);
+        }
+        Chunk chunk = last;
+        int remaining = size - index;
+        while (remaining > chunk.count) {
+            remaining -= chunk.count;
+            chunk = chunk.prev;
+        }
+        return new Position(chunk, chunk.count - remaining);
+    }
+
+    private void removeAt(Chunk chunk, int offset) {
+        System.arraycopy(chunk.elements, offset + 1, chunk.elements, offset, chunk.count - offset - 1);
+        chunk.elements[--chunk.count] = null;
+        size--;
+        modCount++;
+        if (chunk.count == 0) unlink(chunk);
+        else if (chunk.count < nodeCapacity >> 1
+                && Objects.nonNull(chunk.next)
+                && chunk.count + chunk.next.count <= nodeCapacity) merge(chunk);
+    }
+
+    /**
+     * Mueve la mitad superior de un nodo lleno a un nodo nuevo enlazado justo detrás
+     */
+    private Chunk split(Chunk chunk) {
+        Chunk upper = new Chunk(nodeCapacity);
+        int moved = chunk.count >> 1;
+        int kept = chunk.count - moved;
+        System.arraycopy(chunk.elements, kept, upper.elements, 0, moved);
+        Arrays.fill(chunk.elements, kept, chunk.count, null);
+        chunk.count = kept;
+        upper.count = moved;
+        upper.prev = chunk;
+        upper.next = chunk.next;
+        if (Objects.isNull(chunk.next)) last = upper;
+        else chunk.next.prev = upper;
+        chunk.next = upper;
+        return upper;
+    }
+
+    /**
+     * Añade al nodo los elementos del siguiente y desenlaza este; los elementos que había detrás del nodo siguen
+     * quedando detrás de los del nodo, en el mismo orden
+     */
+    private void merge(Chunk chunk) {
+        Chunk next = chunk.next;
+        System.arraycopy(next.elements, 0, chunk.elements, chunk.count, next.count);
+        chunk.count += next.count;
+        unlink(next);
+    }
+
+    private void linkLast(Chunk chunk) {
+        chunk.prev = last;
+        if (Objects.isNull(last)) first = chunk;
+        else last.next = chunk;
+        last = chunk;
+    }
+
+    private void unlink(Chunk chunk) {
+        if (Objects.isNull(chunk.prev)) first = chunk.next;
+        else chunk.prev.next = chunk.next;
+        if (Objects.isNull(chunk.next)) last = chunk.prev;
+        else chunk.next.prev = chunk.prev;
+    }
+
+    private <E> E[] copyTo(E[] array) {
+        int copied = 0;
+        for (Chunk chunk = first; Objects.nonNull(chunk); chunk = chunk.next) {
+            System.arraycopy(chunk.elements, 0, array, copied, chunk.count);
+            copied += chunk.count;
+        }
+        return array;
+    }
+
+    /**
+     * Único punto de conversión sin comprobar: los arrays de los chunks y el de toArray no conservan el tipo genérico
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R cast(Object object) {
+        return (R) object;
+    }
+
+    private static class Chunk {
+        private final Object[] elements;
+
+        private int count = 0;
+
+        private Chunk prev = null;
+
+        private Chunk next = null;
+
+        private Chunk(int capacity) {
+            this.elements = new Object[capacity];
+        }
+    }
+
+    private static class Position {
+        private final Chunk chunk;
+
+        private final int offset;
+
+        private Position(Chunk chunk, int offset) {
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+    }
+
+    private class UnrolledLinkedListIterator implements Iterator<T> {
+
+        private Chunk chunk = first;
+
+        private int offset = 0;
+
+        private int nextIndex = 0;
+
+        private Chunk lastChunk;
+
+        private int lastOffset = -1;
+
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (!hasNext())
+                throw new NoSuchElementException();
+            while (offset == chunk.count) {
+                chunk = chunk.next;
+                offset = 0;
+            }
+            lastChunk = chunk;
+            lastOffset = offset++;
+            nextIndex++;
+            return cast(chunk.elements[lastOffset]);
+        }
+
+        /**
+         * Tras eliminar, el siguiente elemento pasa a la posición eliminada del mismo nodo (aunque se haya fusionado con
+         * el siguiente) o, si el nodo se ha quedado vacío y se ha desenlazado, al principio del nodo que lo seguía
+         */
+        @Override
+        public void remove() {
+            if (lastOffset < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            Chunk following = lastChunk.next;
+            removeAt(lastChunk, lastOffset);
+            if (lastChunk.count == 0) {
+                chunk = following;
+                offset = 0;
+            } else {
+                chunk = lastChunk;
+                offset = lastOffset;
+            }
+            nextIndex--;
+            lastOffset = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
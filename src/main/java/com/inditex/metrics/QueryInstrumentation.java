@@ -0,0 +1,59 @@
+package com.inditex.metrics;
+
+import java.sql.SQLException;
+
+/**
+ * Punto de extensión para instrumentar las ejecuciones del DAO. Los tiempos se reciben en nanosegundos.
+ * El DAO solo toma tiempos si isEnabled(), de modo que con NOOP no hay coste (ni asignaciones) en el camino caliente
+ */
+public interface QueryInstrumentation {
+
+    QueryInstrumentation NOOP = new QueryInstrumentation() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void connectionAcquired(long nanos) {
+        }
+
+        @Override
+        public void connectionFailed(SQLException e) {
+        }
+
+        @Override
+        public void executed(String query, long nanos, long rowsRead, long rowsWritten) {
+        }
+
+        @Override
+        public void batchExecuted(String query, int rows) {
+        }
+
+        @Override
+        public void failed(String query, long nanos, SQLException e) {
+        }
+
+        @Override
+        public void retried(String query, int attempt, SQLException cause) {
+        }
+    };
+
+    boolean isEnabled();
+
+    void connectionAcquired(long nanos);
+
+    void connectionFailed(SQLException e);
+
+    void executed(String query, long nanos, long rowsRead, long rowsWritten);
+
+    void batchExecuted(String query, int rows);
+
+    void failed(String query, long nanos, SQLException e);
+
+    /**
+     * La operación se va a reintentar (attempt es el número de reintento, empezando en 1) tras el error transitorio
+     * cause, que ya se ha notificado con failed()
+     */
+    void retried(String query, int attempt, SQLException cause);
+}
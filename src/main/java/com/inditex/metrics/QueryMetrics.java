@@ -0,0 +1,208 @@
+package com.inditex.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Implementación de QueryInstrumentation que acumula las métricas en memoria
+ *  - Histogramas de latencia y de tamaño de batch, filas leídas/escritas, fallos y reintentos por consulta
+ *  - Tiempo de obtención de conexión del pool y fallos al obtenerla
+ *  - Las consultas que superan slowQueryThresholdMillis se registran en el log (WARNING)
+ *  - Se consulta con snapshot() (pull) o por JMX registrando el MBean con register()
+ *  - Se puede desactivar en caliente (setEnabled), con lo que el DAO deja de tomar tiempos
+ */
+public class QueryMetrics implements QueryInstrumentation, QueryMetricsMBean {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryMetrics.class.getName());
+
+    private final Map<String, QueryStats> queries = new ConcurrentHashMap<>();
+
+    private final Histogram connectionAcquire = new Histogram();
+
+    private final LongAdder connectionFailures = new LongAdder();
+
+    private volatile boolean enabled = true;
+
+    private volatile long slowQueryThresholdNanos;
+
+    public QueryMetrics(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+    }
+
+    /**
+     * Registra el MBean en el MBeanServer de la plataforma con el nombre com.inditex:type=QueryMetrics,name=...
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.inditex:type=QueryMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    public Map<String, QuerySnapshot> snapshot() {
+        Map<String, QuerySnapshot> snapshot = new TreeMap<>();
+        queries.forEach((query, stats) -> snapshot.put(query, stats.snapshot()));
+        return snapshot;
+    }
+
+    public HistogramSnapshot connectionAcquireSnapshot() {
+        return connectionAcquire.snapshot();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+    }
+
+    @Override
+    public void connectionAcquired(long nanos) {
+        connectionAcquire.record(nanos);
+    }
+
+    @Override
+    public void connectionFailed(SQLException e) {
+        connectionFailures.increment();
+    }
+
+    @Override
+    public void executed(String query, long nanos, long rowsRead, long rowsWritten) {
+        stats(query).executed(nanos, rowsRead, rowsWritten);
+        if (nanos > slowQueryThresholdNanos && LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.warning(String.format("Slow query %s: %.3f ms, %d rows read, %d rows written",
+                    query, nanos / 1_000_000.0, rowsRead, rowsWritten));
+        }
+    }
+
+    @Override
+    public void batchExecuted(String query, int rows) {
+        stats(query).batchExecuted(rows);
+    }
+
+    @Override
+    public void failed(String query, long nanos, SQLException e) {
+        stats(query).failed(nanos);
+        LOGGER.log(Level.FINE, "Query " + query + " failed", e);
+    }
+
+    @Override
+    public void retried(String query, int attempt, SQLException cause) {
+        stats(query).retried();
+        LOGGER.log(Level.FINE, "Retrying " + query + " (attempt " + attempt + ")", cause);
+    }
+
+    @Override
+    public String[] getQueries() {
+        return queries.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public long getExecutions(String query) {
+        QueryStats stats = queries.get(query);
+        return Objects.isNull(stats) ? 0 : stats.snapshot().getExecutions();
+    }
+
+    @Override
+    public long getFailures(String query) {
+        QueryStats stats = queries.get(query);
+        return Objects.isNull(stats) ? 0 : stats.snapshot().getFailures();
+    }
+
+    @Override
+    public long getRetries(String query) {
+        QueryStats stats = queries.get(query);
+        return Objects.isNull(stats) ? 0 : stats.snapshot().getRetries();
+    }
+
+    @Override
+    public double getLatencyPercentileMillis(String query, double percentile) {
+        QueryStats stats = queries.get(query);
+        return Objects.isNull(stats) ? 0 : stats.getLatency().getPercentile(percentile) / 1_000_000.0;
+    }
+
+    @Override
+    public long getRowsRead(String query) {
+        QueryStats stats = queries.get(query);
+        return Objects.isNull(stats) ? 0 : stats.snapshot().getRowsRead();
+    }
+
+    @Override
+    public long getRowsWritten(String query) {
+        QueryStats stats = queries.get(query);
+        return Objects.isNull(stats) ? 0 : stats.snapshot().getRowsWritten();
+    }
+
+    @Override
+    public long getConnectionAcquisitions() {
+        return connectionAcquire.getCount();
+    }
+
+    @Override
+    public long getConnectionFailures() {
+        return connectionFailures.sum();
+    }
+
+    @Override
+    public double getConnectionAcquirePercentileMillis(double percentile) {
+        return connectionAcquire.getPercentile(percentile) / 1_000_000.0;
+    }
+
+    @Override
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        snapshot().forEach((query, snapshot) -> report.append(String.format(
+                "%s: executions=%d failures=%d retries=%d p50=%.3fms p99=%.3fms max=%.3fms rowsRead=%d rowsWritten=%d batches=%d%n",
+                query,
+                snapshot.getExecutions(),
+                snapshot.getFailures(),
+                snapshot.getRetries(),
+                snapshot.getLatency().getP50() / 1_000_000.0,
+                snapshot.getLatency().getP99() / 1_000_000.0,
+                snapshot.getLatency().getMax() / 1_000_000.0,
+                snapshot.getRowsRead(),
+                snapshot.getRowsWritten(),
+                snapshot.getBatchSizes().getCount()
+        )));
+        report.append(String.format("connection: count=%d failures=%d p99=%.3fms%n",
+                connectionAcquire.getCount(), connectionFailures.sum(), getConnectionAcquirePercentileMillis(99)));
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        queries.values().forEach(QueryStats::reset);
+        connectionAcquire.reset();
+        connectionFailures.reset();
+    }
+
+    private QueryStats stats(String query) {
+        QueryStats stats = queries.get(query);
+        return Objects.nonNull(stats) ? stats : queries.computeIfAbsent(query, QueryStats::new);
+    }
+}
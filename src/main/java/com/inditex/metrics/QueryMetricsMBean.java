@@ -0,0 +1,45 @@
+package com.inditex.metrics;
+
+/**
+ * Interfaz JMX de QueryMetrics. Los tiempos se exponen en milisegundos
+ */
+public interface QueryMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long slowQueryThresholdMillis);
+
+    String[] getQueries();
+
+    /**
+     * Ejecuciones correctas de la consulta; las fallidas se cuentan aparte en getFailures
+     */
+    long getExecutions(String query);
+
+    long getFailures(String query);
+
+    long getRetries(String query);
+
+    /**
+     * Percentil de la latencia de todas las ejecuciones, correctas y fallidas
+     */
+    double getLatencyPercentileMillis(String query, double percentile);
+
+    long getRowsRead(String query);
+
+    long getRowsWritten(String query);
+
+    long getConnectionAcquisitions();
+
+    long getConnectionFailures();
+
+    double getConnectionAcquirePercentileMillis(double percentile);
+
+    String report();
+
+    void reset();
+}
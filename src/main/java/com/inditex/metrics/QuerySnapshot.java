@@ -0,0 +1,21 @@
+package com.inditex.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Foto de las métricas de una consulta. Las latencias están en nanosegundos
+ *  - executions cuenta las ejecuciones correctas y failures las fallidas; latency incluye ambas
+ */
+@Getter
+@AllArgsConstructor
+public class QuerySnapshot {
+    private final String query;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot batchSizes;
+    private final long executions;
+    private final long rowsRead;
+    private final long rowsWritten;
+    private final long failures;
+    private final long retries;
+}
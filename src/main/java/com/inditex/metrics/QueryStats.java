@@ -0,0 +1,76 @@
+package com.inditex.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas acumuladas de una consulta del DAO
+ */
+public class QueryStats {
+
+    private final String query;
+
+    private final Histogram latency = new Histogram();
+
+    private final Histogram batchSizes = new Histogram();
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder rowsRead = new LongAdder();
+
+    private final LongAdder rowsWritten = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder retries = new LongAdder();
+
+    QueryStats(String query) {
+        this.query = query;
+    }
+
+    void executed(long nanos, long read, long written) {
+        latency.record(nanos);
+        executions.increment();
+        rowsRead.add(read);
+        rowsWritten.add(written);
+    }
+
+    void batchExecuted(int rows) {
+        batchSizes.record(rows);
+    }
+
+    void failed(long nanos) {
+        latency.record(nanos);
+        failures.increment();
+    }
+
+    void retried() {
+        retries.increment();
+    }
+
+    Histogram getLatency() {
+        return latency;
+    }
+
+    QuerySnapshot snapshot() {
+        return new QuerySnapshot(
+                query,
+                latency.snapshot(),
+                batchSizes.snapshot(),
+                executions.sum(),
+                rowsRead.sum(),
+                rowsWritten.sum(),
+                failures.sum(),
+                retries.sum()
+        );
+    }
+
+    void reset() {
+        latency.reset();
+        batchSizes.reset();
+        executions.reset();
+        rowsRead.reset();
+        rowsWritten.reset();
+        failures.reset();
+        retries.reset();
+    }
+}
@@ -0,0 +1,224 @@
+package com.inditex.pool;
+
+import com.inditex.concurrent.WorkerExecutors;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool acotado de conexiones JDBC
+ *  - Préstamo/devolución: getConnection() presta una conexión y su close() la devuelve al pool
+ *  - El número de conexiones prestadas está limitado por maxSize, si no hay conexiones disponibles se espera como
+ *    máximo borrowTimeoutMillis antes de lanzar PoolTimeoutException (un SQLTimeoutException)
+ *  - Las conexiones ociosas se reutilizan en orden LIFO (la más reciente primero) para que las más antiguas puedan
+ *    desalojarse cuando superan idleTimeoutMillis, manteniendo siempre al menos minSize conexiones
+ *  - Se valida la conexión antes de prestarla si lleva ociosa más de validationIntervalMillis
+ *  - Las conexiones físicas se crean bajo demanda, por lo que crear el pool no requiere que la base de datos esté
+ *    disponible
+ *  - Cada conexión física mantiene una caché LRU de PreparedStatement (statementCacheSize) con contadores de
+ *    aciertos, fallos y desalojos para poder dimensionarla
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final PoolConfig config;
+
+    private final Semaphore permits;
+
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private final LongAdder borrowCount = new LongAdder();
+
+    private final LongAdder timeoutCount = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final LongAdder createdCount = new LongAdder();
+
+    private final LongAdder destroyedCount = new LongAdder();
+
+    private final LongAdder statementCacheHits = new LongAdder();
+
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
+    private final ScheduledExecutorService maintenance;
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(PoolConfig config) {
+        if (config.getMaxSize() <= 0 || config.getMinSize() < 0 || config.getMinSize() > config.getMaxSize())
+            throw new IllegalArgumentException("Invalid pool size: min " + config.getMinSize() + ", max " + config.getMaxSize());
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(WorkerExecutors.daemonThreadFactory("connection-pool-maintenance"));
+        this.maintenance.scheduleWithFixedDelay(this::maintain, 0, config.getEvictionIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Presta una conexión del pool. Es obligatorio cerrarla (try-with-resources) para devolverla
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long start = System.nanoTime();
+        boolean acquired;
+        waiters.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new PoolTimeoutException("Timeout waiting for a connection after " + config.getBorrowTimeoutMillis() + " ms");
+        }
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) pooled = create();
+            active.incrementAndGet();
+            borrowCount.increment();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Conexiones prestadas más hilos esperando una, sin construir la foto completa de getMetrics
+     */
+    public int getLoad() {
+        return active.get() + waiters.get();
+    }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(
+                active.get(),
+                idle.size(),
+                waiters.get(),
+                borrowCount.sum(),
+                timeoutCount.sum(),
+                totalWaitNanos.sum(),
+                maxWaitNanos.get(),
+                createdCount.sum(),
+                destroyedCount.sum(),
+                statementCacheHits.sum(),
+                statementCacheMisses.sum(),
+                statementCacheEvictions.sum()
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) destroy(pooled);
+    }
+
+    void release(PooledConnection pooled) {
+        active.decrementAndGet();
+        try {
+            if (closed || active.get() + idle.size() >= config.getMaxSize() || !pooled.reset()) {
+                destroy(pooled);
+            } else {
+                pooled.touch();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    void statementHit() {
+        statementCacheHits.increment();
+    }
+
+    void statementMiss() {
+        statementCacheMisses.increment();
+    }
+
+    void statementEvicted() {
+        statementCacheEvictions.increment();
+    }
+
+    private PooledConnection takeIdle() {
+        long validationInterval = TimeUnit.MILLISECONDS.toNanos(config.getValidationIntervalMillis());
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (System.nanoTime() - pooled.getLastUsedNanos() < validationInterval
+                    || pooled.isValid(config.getValidationTimeoutSeconds())) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection connection = DriverManager.getConnection(config.getUrl(), config.getProperties());
+        try {
+            PooledConnection pooled = new PooledConnection(this, connection, config.getStatementCacheSize());
+            createdCount.increment();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.close();
+            } catch (SQLException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        pooled.closePhysical();
+        destroyedCount.increment();
+    }
+
+    /**
+     * Desaloja las conexiones ociosas caducadas (empezando por las más antiguas) y rellena hasta minSize
+     */
+    private void maintain() {
+        try {
+            long idleTimeout = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+            long now = System.nanoTime();
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && active.get() + idle.size() > config.getMinSize()) {
+                PooledConnection pooled = iterator.next();
+                if (now - pooled.getLastUsedNanos() > idleTimeout && idle.remove(pooled)) destroy(pooled);
+            }
+            while (!closed && active.get() + idle.size() < config.getMinSize()) {
+                idle.offerLast(create());
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool maintenance failed", e);
+        }
+    }
+}
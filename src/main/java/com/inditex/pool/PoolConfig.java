@@ -0,0 +1,51 @@
+package com.inditex.pool;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Properties;
+
+/**
+ * Configuración del pool de conexiones
+ *  - minSize: número mínimo de conexiones que se mantienen abiertas aunque estén ociosas
+ *  - maxSize: número máximo de conexiones abiertas (prestadas + ociosas)
+ *  - borrowTimeoutMillis: tiempo máximo de espera para obtener una conexión cuando el pool está agotado
+ *  - idleTimeoutMillis: tiempo que puede estar ociosa una conexión (por encima de minSize) antes de cerrarse
+ *  - evictionIntervalMillis: periodicidad de la tarea de mantenimiento (desalojo y relleno hasta minSize)
+ *  - validationIntervalMillis: si una conexión lleva ociosa más de este tiempo se valida antes de prestarla
+ *  - validationTimeoutSeconds: tiempo máximo de la validación (Connection.isValid)
+ *  - statementCacheSize: número de PreparedStatement cacheados por conexión física (0 desactiva la caché)
+ */
+@Getter
+@Builder
+public class PoolConfig {
+
+    private final String url;
+
+    @Builder.Default
+    private final Properties properties = new Properties();
+
+    @Builder.Default
+    private final int minSize = 2;
+
+    @Builder.Default
+    private final int maxSize = 10;
+
+    @Builder.Default
+    private final long borrowTimeoutMillis = 30_000L;
+
+    @Builder.Default
+    private final long idleTimeoutMillis = 600_000L;
+
+    @Builder.Default
+    private final long evictionIntervalMillis = 30_000L;
+
+    @Builder.Default
+    private final long validationIntervalMillis = 500L;
+
+    @Builder.Default
+    private final int validationTimeoutSeconds = 2;
+
+    @Builder.Default
+    private final int statementCacheSize = 32;
+}
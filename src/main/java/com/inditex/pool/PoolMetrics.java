@@ -0,0 +1,37 @@
+package com.inditex.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Foto de las métricas del pool en un instante dado
+ */
+@Getter
+@AllArgsConstructor
+public class PoolMetrics {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public int getTotal() {
+        return active + idle;
+    }
+
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+}
@@ -0,0 +1,16 @@
+package com.inditex.pool;
+
+import java.sql.SQLTimeoutException;
+
+/**
+ * Se lanza cuando no queda ninguna conexión libre en el pool tras esperar borrowTimeoutMillis. Indica saturación del
+ * pool y no un fallo de la base de datos, a diferencia de un SQLTimeoutException del driver al conectar
+ */
+public class PoolTimeoutException extends SQLTimeoutException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PoolTimeoutException(String reason) {
+        super(reason);
+    }
+}
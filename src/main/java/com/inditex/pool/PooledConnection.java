@@ -0,0 +1,121 @@
+package com.inditex.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Conexión física gestionada por el pool. Cada préstamo se entrega como un proxy de Connection cuyo close()
+ * devuelve la conexión física al pool en lugar de cerrarla. Los prepareStatement(String) se sirven desde la caché de
+ * statements de la conexión física. Al devolverla se deshace la transacción pendiente y se restauran el autocommit y
+ * el nivel de aislamiento con el que se abrió
+ */
+class PooledConnection {
+
+    private final ConnectionPool pool;
+
+    private final Connection connection;
+
+    private final StatementCache statementCache;
+
+    private final int defaultIsolation;
+
+    private volatile long lastUsedNanos;
+
+    PooledConnection(ConnectionPool pool, Connection connection, int statementCacheSize) throws SQLException {
+        this.pool = pool;
+        this.connection = connection;
+        this.defaultIsolation = connection.getTransactionIsolation();
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(pool, statementCacheSize) : null;
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    Connection lease() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Lease()
+        );
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    void touch() {
+        lastUsedNanos = System.nanoTime();
+    }
+
+    boolean isValid(int timeoutSeconds) {
+        try {
+            return connection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deja la conexión física lista para el siguiente préstamo. Devuelve false si no se puede reutilizar
+     */
+    boolean reset() {
+        try {
+            if (connection.isClosed()) return false;
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (connection.getTransactionIsolation() != defaultIsolation) connection.setTransactionIsolation(defaultIsolation);
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void closePhysical() {
+        if (statementCache != null) statementCache.closeAll();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // La conexión se descarta igualmente
+        }
+    }
+
+    private class Lease implements InvocationHandler {
+
+        private boolean closed = false;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + connection + "]";
+                default:
+                    if (closed) throw new SQLException("Connection has already been returned to the pool");
+                    if (statementCache != null && "prepareStatement".equals(method.getName()) && args.length == 1) {
+                        return statementCache.prepare(connection, (Connection) proxy, (String) args[0]);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.inditex.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché LRU de PreparedStatement de una conexión física, indexada por el texto SQL
+ *  - El statement se entrega como un proxy cuyo close() lo limpia (parámetros, batch y result set abierto) y lo
+ *    deja en la caché para el siguiente uso, en lugar de cerrarlo
+ *  - Al superar el tamaño máximo se desaloja el menos usado recientemente y se cierra de verdad, liberando el
+ *    statement preparado en el servidor. Si estaba en uso se cierra cuando se devuelva
+ *  - Si se pide un SQL cuyo statement ya está en uso (dos statements iguales abiertos a la vez) se prepara uno nuevo
+ *    fuera de la caché
+ * No es thread-safe: la conexión física solo la usa quien la tiene prestada
+ */
+class StatementCache {
+
+    private final ConnectionPool pool;
+
+    private final int maxSize;
+
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(ConnectionPool pool, int maxSize) {
+        this.pool = pool;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) return false;
+                eldest.getValue().evict();
+                pool.statementEvicted();
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(Connection physical, Connection logical, String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            pool.statementHit();
+            return cached.checkout(logical);
+        }
+        pool.statementMiss();
+        PreparedStatement statement = physical.prepareStatement(sql);
+        if (cached != null) return statement;
+        cached = new CachedStatement(statement);
+        statements.put(sql, cached);
+        return cached.checkout(logical);
+    }
+
+    void closeAll() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (iterator.hasNext()) {
+            iterator.next().evict();
+            iterator.remove();
+        }
+    }
+
+    private static class CachedStatement {
+
+        private final PreparedStatement statement;
+
+        private boolean inUse = false;
+
+        private boolean evicted = false;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkout(Connection logical) {
+            this.inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Handle(logical)
+            );
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) closeQuietly();
+        }
+
+        private void checkin() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            ResultSet resultSet = statement.getResultSet();
+            if (resultSet != null) resultSet.close();
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // El statement se descarta igualmente
+            }
+        }
+
+        /**
+         * Un préstamo del statement: tras cerrarlo, el proxy deja de operar aunque el statement se vuelva a prestar
+         */
+        private class Handle implements InvocationHandler {
+
+            private final Connection logical;
+
+            /*
+             * volatile porque Statement.cancel() puede invocarse desde otro hilo: un préstamo ya cerrado no debe
+             * cancelar el statement cuando se ha vuelto a prestar a otra consulta
+             */
+            private volatile boolean closed = false;
+
+            private Handle(Connection logical) {
+                this.logical = logical;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            checkin();
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed || statement.isClosed();
+                    case "getConnection":
+                        return logical;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "CachedStatement[" + statement + "]";
+                    default:
+                        if (closed) throw new SQLException("Statement is closed");
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            }
+        }
+    }
+}
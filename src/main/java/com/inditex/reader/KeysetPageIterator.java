@@ -0,0 +1,103 @@
+package com.inditex.reader;
+
+import com.inditex.TestSqlDao.OrderRow;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.LongFunction;
+
+/**
+ * Iterador de pedidos paginado por keyset (ID_PEDIDO > último ID leído) en lugar de OFFSET, de modo que cada página
+ * cuesta lo mismo aunque se esté al final de millones de pedidos
+ *  - Mientras se recorre una página, la siguiente se pide en segundo plano (prefetch), por lo que en memoria hay como
+ *    máximo dos páginas
+ *  - Si el ejecutor rechaza el prefetch (cola llena) la página se carga en el hilo que recorre el iterador
+ *  - Una página más corta que pageSize indica el final
+ *  - close() cancela la página que se esté pidiendo (la cancelación llega hasta Statement.cancel) y descarta la actual
+ *  - No es thread-safe, igual que cualquier Iterator
+ */
+public class KeysetPageIterator implements Iterator<OrderRow>, AutoCloseable {
+
+    private final PageLoader loader;
+
+    private final LongFunction<CompletableFuture<List<OrderRow>>> prefetcher;
+
+    private final int pageSize;
+
+    private List<OrderRow> page = Collections.emptyList();
+
+    private int index = 0;
+
+    private long lastOrderId = Long.MIN_VALUE;
+
+    private CompletableFuture<List<OrderRow>> nextPage;
+
+    private boolean closed = false;
+
+    /**
+     * @param loader     carga síncrona de una página
+     * @param prefetcher carga asíncrona de una página (normalmente loader ejecutado en otro hilo)
+     */
+    public KeysetPageIterator(PageLoader loader, LongFunction<CompletableFuture<List<OrderRow>>> prefetcher, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        this.loader = loader;
+        this.prefetcher = prefetcher;
+        this.pageSize = pageSize;
+        this.nextPage = prefetcher.apply(lastOrderId);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) return false;
+        if (index < page.size()) return true;
+        if (Objects.isNull(nextPage)) return false;
+        page = await(nextPage);
+        index = 0;
+        if (page.size() == pageSize) {
+            lastOrderId = page.get(page.size() - 1).getOrderId();
+            nextPage = prefetcher.apply(lastOrderId);
+        } else {
+            nextPage = null;
+        }
+        return !page.isEmpty();
+    }
+
+    @Override
+    public OrderRow next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return page.get(index++);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        page = Collections.emptyList();
+        if (Objects.nonNull(nextPage)) nextPage.cancel(true);
+        nextPage = null;
+    }
+
+    private List<OrderRow> await(CompletableFuture<List<OrderRow>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new CancellationException("Interrupted while waiting for the next page");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RejectedExecutionException) return loadSynchronously();
+            if (cause instanceof SQLException) throw new UncheckedSQLException((SQLException) cause);
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new CompletionException(cause);
+        }
+    }
+
+    private List<OrderRow> loadSynchronously() {
+        try {
+            return loader.load(lastOrderId);
+        } catch (SQLException e) {
+            throw new UncheckedSQLException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.inditex.reader;
+
+import com.inditex.TestSqlDao.OrderRow;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Carga la página de pedidos con ID_PEDIDO mayor que afterOrderId, ordenada por ID_PEDIDO y con un máximo de
+ * pageSize filas
+ */
+@FunctionalInterface
+public interface PageLoader {
+    List<OrderRow> load(long afterOrderId) throws SQLException;
+}
@@ -0,0 +1,21 @@
+package com.inditex.reader;
+
+import java.sql.SQLException;
+
+/**
+ * Envuelve una SQLException lanzada al recorrer un Stream o Iterator, que no admiten excepciones comprobadas
+ * (equivalente a UncheckedIOException)
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
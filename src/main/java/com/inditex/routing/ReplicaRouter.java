@@ -0,0 +1,182 @@
+package com.inditex.routing;
+
+import com.inditex.concurrent.WorkerExecutors;
+import com.inditex.pool.ConnectionPool;
+import com.inditex.pool.PoolTimeoutException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Reparte las conexiones entre el primario (escrituras) y un conjunto de réplicas de solo lectura, cada una con su pool
+ *  - getReadConnection elige una réplica sana según la estrategia de RoutingConfig. Si la réplica elegida falla al
+ *    dar la conexión se expulsa y se prueba la siguiente; sin réplicas sanas se lee del primario
+ *  - Solo se expulsa por fallos de conexión o de validación. Un pool de réplica saturado (PoolTimeoutException) se
+ *    salta sin expulsarlo y una interrupción del hilo se propaga sin tocar el estado de las réplicas
+ *  - La comprobación de salud (periódica o con checkHealth) valida cada réplica, expulsando las que fallan y
+ *    readmitiendo las que se recuperan
+ *  - Lectura de las propias escrituras: writeCommitted() fija el instante de la última escritura y, durante
+ *    readYourWritesMillis, las lecturas van al primario. Es global y no por hilo, para que también lo respeten las
+ *    lecturas asíncronas que ejecutan otros hilos
+ *  - El router es dueño de los pools: close() los cierra todos
+ */
+public class ReplicaRouter implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicaRouter.class.getName());
+
+    private final ConnectionPool primary;
+
+    private final List<Replica> replicas;
+
+    private final RoutingConfig config;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final ScheduledExecutorService healthChecker;
+
+    private volatile long lastWriteNanos;
+
+    private volatile boolean written = false;
+
+    public ReplicaRouter(ConnectionPool primary, List<ConnectionPool> replicas, RoutingConfig config) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toUnmodifiableList());
+        this.config = config;
+        if (!this.replicas.isEmpty() && config.getHealthCheckIntervalMillis() > 0) {
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(WorkerExecutors.daemonThreadFactory("replica-health"));
+            this.healthChecker.scheduleWithFixedDelay(this::checkHealth,
+                    config.getHealthCheckIntervalMillis(), config.getHealthCheckIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.healthChecker = null;
+        }
+    }
+
+    public ConnectionPool getPrimary() {
+        return primary;
+    }
+
+    public RoutingConfig getConfig() {
+        return config;
+    }
+
+    public Connection getWriteConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    public Connection getReadConnection() throws SQLException {
+        if (replicas.isEmpty() || readsPinnedToPrimary()) return primary.getConnection();
+        for (Replica replica : candidates()) {
+            try {
+                return replica.pool.getConnection();
+            } catch (PoolTimeoutException e) {
+                LOGGER.fine(() -> "Replica " + replica.pool.getConfig().getUrl() + " saturated, trying the next one");
+            } catch (SQLException e) {
+                if (interrupted(e)) throw e;
+                eject(replica, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Registra una escritura confirmada en el primario (solo tiene efecto con readYourWritesMillis > 0)
+     */
+    public void writeCommitted() {
+        if (config.getReadYourWritesMillis() <= 0) return;
+        lastWriteNanos = System.nanoTime();
+        written = true;
+    }
+
+    /**
+     * Valida todas las réplicas, incluidas las expulsadas, y actualiza su estado. Las réplicas con el pool saturado
+     * conservan su estado, ya que no se ha podido validarlas
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (connection.isValid(config.getValidationTimeoutSeconds())) admit(replica);
+                else eject(replica, new SQLException("Connection is not valid"));
+            } catch (PoolTimeoutException e) {
+                LOGGER.fine(() -> "Replica " + replica.pool.getConfig().getUrl() + " saturated, health check skipped");
+            } catch (SQLException e) {
+                if (interrupted(e)) return;
+                eject(replica, e);
+            } catch (RuntimeException e) {
+                eject(replica, new SQLException(e));
+            }
+        }
+    }
+
+    public List<ConnectionPool> getHealthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).map(replica -> replica.pool).collect(Collectors.toList());
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private boolean readsPinnedToPrimary() {
+        return written && System.nanoTime() - lastWriteNanos < TimeUnit.MILLISECONDS.toNanos(config.getReadYourWritesMillis());
+    }
+
+    /**
+     * Réplicas sanas en el orden en que se prueban: por turnos a partir de la siguiente o, con LEAST_LOADED, de menor a
+     * mayor carga (el turno solo desempata)
+     */
+    private List<Replica> candidates() {
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        List<Replica> candidates = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) candidates.add(replica);
+        }
+        if (config.getStrategy() == RoutingConfig.Strategy.LEAST_LOADED) {
+            candidates.sort(Comparator.comparingInt(replica -> replica.pool.getLoad()));
+        }
+        return candidates;
+    }
+
+    /**
+     * El pool lanza SQLException con un InterruptedException como causa si se interrumpe al hilo mientras espera
+     */
+    private static boolean interrupted(SQLException e) {
+        return e.getCause() instanceof InterruptedException || Thread.currentThread().isInterrupted();
+    }
+
+    private void eject(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOGGER.log(Level.WARNING, "Replica " + replica.pool.getConfig().getUrl() + " ejected", cause);
+        }
+    }
+
+    private void admit(Replica replica) {
+        if (!replica.healthy) {
+            replica.healthy = true;
+            LOGGER.info(() -> "Replica " + replica.pool.getConfig().getUrl() + " readmitted");
+        }
+    }
+
+    private static class Replica {
+        private final ConnectionPool pool;
+
+        private volatile boolean healthy = true;
+
+        private Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.inditex.routing;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Configuración del reparto de lecturas entre réplicas (ReplicaRouter)
+ *  - strategy: ROUND_ROBIN reparte las lecturas por turnos, LEAST_LOADED elige la réplica con menos conexiones
+ *    prestadas y esperas en su pool
+ *  - healthCheckIntervalMillis: periodicidad con la que se validan todas las réplicas, expulsando las que fallan y
+ *    readmitiendo las que se recuperan (0: sin comprobación periódica, solo checkHealth() explícito)
+ *  - validationTimeoutSeconds: tiempo máximo de la validación de cada réplica (Connection.isValid)
+ *  - readYourWritesMillis: tras una escritura confirmada en el primario, durante este tiempo todas las lecturas van
+ *    también al primario para no leer de una réplica que aún no la ha recibido (0 lo desactiva). Debe cubrir el
+ *    retraso de replicación habitual
+ */
+@Getter
+@Builder
+public class RoutingConfig {
+
+    private static final RoutingConfig DEFAULTS = RoutingConfig.builder().build();
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    @Builder.Default
+    private final Strategy strategy = Strategy.ROUND_ROBIN;
+
+    @Builder.Default
+    private final long healthCheckIntervalMillis = 5_000L;
+
+    @Builder.Default
+    private final int validationTimeoutSeconds = 2;
+
+    @Builder.Default
+    private final long readYourWritesMillis = 0L;
+
+    public static RoutingConfig defaults() {
+        return DEFAULTS;
+    }
+}
@@ -0,0 +1,160 @@
+package com.inditex.schema;
+
+import com.inditex.concurrent.SqlSupplier;
+
+import java.sql.*;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Comprueba con EXPLAIN que las consultas del DAO usan índices
+ *  - MySQL: se avisa de las filas del plan con type ALL (recorrido completo de la tabla), type index (recorrido
+ *    completo de un índice) y de Extra con "Using filesort" (ordenación sin índice)
+ *  - H2: el plan es un texto con el índice elegido para cada tabla; se avisa si es un tableScan o si el índice no
+ *    tiene una condición sobre su primera columna (lo recorre completo). H2 no indica las ordenaciones, por lo que
+ *    la ordenación solo se comprueba en MySQL
+ *  - Los parámetros de las consultas se rellenan con 1: todos son numéricos y EXPLAIN no ejecuta la consulta
+ *  - Los EXPLAIN se preparan sobre la conexión física (unwrap) para que no ocupen la caché de statements del pool,
+ *    ya que no se vuelven a ejecutar y desplazarían a las consultas del DAO
+ *  - Cada aviso se registra en el log (WARNING). Las consultas que no se pueden analizar se informan como
+ *    EXPLAIN_FAILED en lugar de interrumpir la comprobación
+ */
+public final class IndexAdvisor {
+
+    private static final Logger LOGGER = Logger.getLogger(IndexAdvisor.class.getName());
+
+    /*
+     * Comentario de H2 con el índice elegido para una tabla: /* PUBLIC.IDX_PEDIDOS_TIENDA_TOTAL: ID_TIENDA = ?1 * /
+     */
+    private static final Pattern H2_INDEX = Pattern.compile("/\\* ([\\w$]+)\\.([\\w$]+)(?:\\.tableScan)?(?:: ([^*]*))?\\s*\\*/");
+
+    private static final Pattern H2_CONDITION_COLUMN = Pattern.compile("([\\w$]+)\\s*(?:=|<|>|<=|>=|IN\\b)");
+
+    private IndexAdvisor() {
+    }
+
+    /**
+     * Analiza el plan de cada consulta (nombre -> SQL) y devuelve los avisos encontrados
+     */
+    public static List<PlanWarning> check(Connection connection, Map<String, String> queries) {
+        List<PlanWarning> warnings = new ArrayList<>();
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            try {
+                warnings.addAll(explain(connection, query.getKey(), query.getValue()));
+            } catch (SQLException e) {
+                warnings.add(new PlanWarning(query.getKey(), null, PlanWarning.Reason.EXPLAIN_FAILED, e.getMessage()));
+            }
+        }
+        warnings.forEach(warning -> LOGGER.warning("Query plan: " + warning));
+        return warnings;
+    }
+
+    /**
+     * Igual que check, obteniendo la conexión del origen indicado y registrando en el log (en lugar de lanzarlo) el
+     * error si no se puede obtener, para usarlo al arrancar sin impedir el arranque
+     */
+    public static List<PlanWarning> checkQuietly(SqlSupplier<Connection> connections, Map<String, String> queries) {
+        try (Connection connection = connections.get()) {
+            return check(connection, queries);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Query plans could not be checked", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static List<PlanWarning> explain(Connection connection, String name, String sql) throws SQLException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        try (PreparedStatement stmt = connection.unwrap(Connection.class).prepareStatement("EXPLAIN " + sql)) {
+            int parameters = stmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) stmt.setLong(i, 1L);
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                while (rs.next()) {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.put(metaData.getColumnLabel(i).toUpperCase(Locale.ROOT), rs.getString(i));
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+        if (!rows.isEmpty() && rows.get(0).containsKey("PLAN")) {
+            return analyzeH2(name, rows.get(0).get("PLAN"), leadingColumns(connection));
+        }
+        return analyzeMySql(name, rows);
+    }
+
+    /**
+     * Analiza las filas de un EXPLAIN tabular de MySQL (columnas table, type y Extra)
+     */
+    static List<PlanWarning> analyzeMySql(String name, List<Map<String, String>> rows) {
+        List<PlanWarning> warnings = new ArrayList<>();
+        for (Map<String, String> row : rows) {
+            String table = row.get("TABLE");
+            String type = row.get("TYPE");
+            String extra = Objects.toString(row.get("EXTRA"), "");
+            String detail = "type=" + type + ", key=" + row.get("KEY") + ", rows=" + row.get("ROWS") + ", Extra=" + extra;
+            // Las tablas derivadas (<derived2>) se materializan y se recorren siempre completas
+            boolean derived = Objects.nonNull(table) && table.startsWith("<");
+            if ("ALL".equalsIgnoreCase(type) && !derived) {
+                warnings.add(new PlanWarning(name, table, PlanWarning.Reason.FULL_TABLE_SCAN, detail));
+            } else if ("index".equalsIgnoreCase(type)) {
+                warnings.add(new PlanWarning(name, table, PlanWarning.Reason.FULL_INDEX_SCAN, detail));
+            }
+            if (extra.contains("Using filesort")) {
+                warnings.add(new PlanWarning(name, table, PlanWarning.Reason.FILESORT, detail));
+            }
+        }
+        return warnings;
+    }
+
+    /**
+     * Analiza el texto del plan de H2. leadingColumns es la primera columna de cada índice (nombre -> columna)
+     */
+    static List<PlanWarning> analyzeH2(String name, String plan, Map<String, String> leadingColumns) {
+        List<PlanWarning> warnings = new ArrayList<>();
+        Matcher matcher = H2_INDEX.matcher(plan);
+        while (matcher.find()) {
+            String index = matcher.group(2);
+            String conditions = matcher.group(3);
+            if (matcher.group(0).contains(".tableScan")) {
+                warnings.add(new PlanWarning(name, index, PlanWarning.Reason.FULL_TABLE_SCAN, matcher.group(0)));
+                continue;
+            }
+            String leading = leadingColumns.get(index);
+            if (Objects.isNull(leading)) continue;
+            if (Objects.isNull(conditions) || !conditionColumns(conditions).contains(leading)) {
+                warnings.add(new PlanWarning(name, index, PlanWarning.Reason.FULL_INDEX_SCAN, matcher.group(0)));
+            }
+        }
+        return warnings;
+    }
+
+    private static Set<String> conditionColumns(String conditions) {
+        Set<String> columns = new HashSet<>();
+        Matcher matcher = H2_CONDITION_COLUMN.matcher(conditions);
+        while (matcher.find()) columns.add(matcher.group(1).toUpperCase(Locale.ROOT));
+        return columns;
+    }
+
+    private static Map<String, String> leadingColumns(Connection connection) throws SQLException {
+        Map<String, String> leading = new HashMap<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, null, new String[]{"TABLE"})) {
+            while (tables.next()) {
+                try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), tables.getString("TABLE_SCHEM"),
+                        tables.getString("TABLE_NAME"), false, true)) {
+                    while (indexes.next()) {
+                        if (indexes.getShort("ORDINAL_POSITION") == 1) {
+                            leading.put(indexes.getString("INDEX_NAME"), indexes.getString("COLUMN_NAME").toUpperCase(Locale.ROOT));
+                        }
+                    }
+                }
+            }
+        }
+        return leading;
+    }
+}
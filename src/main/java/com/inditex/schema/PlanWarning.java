@@ -0,0 +1,33 @@
+package com.inditex.schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Problema detectado en el plan de ejecución de una consulta
+ *  - query: nombre de la consulta en el DAO
+ *  - table: tabla afectada (puede ser null si el plan no la indica)
+ *  - reason: tipo de problema
+ *  - detail: fila o fragmento del plan en el que se ha detectado
+ */
+@Getter
+@AllArgsConstructor
+public class PlanWarning {
+
+    public enum Reason {
+        FULL_TABLE_SCAN,
+        FULL_INDEX_SCAN,
+        FILESORT,
+        EXPLAIN_FAILED
+    }
+
+    private final String query;
+    private final String table;
+    private final Reason reason;
+    private final String detail;
+
+    @Override
+    public String toString() {
+        return query + ": " + reason + (table == null ? "" : " on " + table) + " (" + detail + ")";
+    }
+}
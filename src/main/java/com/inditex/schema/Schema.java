@@ -0,0 +1,62 @@
+package com.inditex.schema;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * DDL de las tablas que usa el DAO, con los índices que necesita cada consulta
+ *  - IDX_PEDIDOS_TIENDA_USUARIO (ID_TIENDA, ID_USUARIO, ID_PEDIDO): getMaxUserOrderId. Cubre la consulta completa,
+ *    MAX(ID_PEDIDO) ... GROUP BY ID_USUARIO se resuelve leyendo solo el índice (en MySQL, "Using index for group-by")
+ *  - IDX_PEDIDOS_TIENDA_TOTAL (ID_TIENDA, TOTAL, ID_USUARIO): getUserMaxOrder y getUserMaxOrders. El ORDER BY TOTAL
+ *    DESC LIMIT 1 lee la primera entrada del índice en orden inverso sin ordenar, e incluye ID_USUARIO para el join
+ *    con USUARIOS (ID_PEDIDO va implícito en los índices secundarios de InnoDB)
+ *  - IDX_PEDIDOS_TIENDA_PEDIDO (ID_TIENDA, ID_PEDIDO): streamStoreOrders (keyset por ID_PEDIDO dentro de la tienda)
+ *    y la carga de la vista materializada
+ *  - IDX_PEDIDOS_USUARIO_PEDIDO (ID_USUARIO, ID_PEDIDO, ID_TIENDA): copyUserOrders, streamUserOrders y las tiendas de
+ *    un usuario (DISTINCT ID_TIENDA) leyendo solo el índice
+ *  - COPIAS_PEDIDOS: registro de idempotencia de copyUserOrders, con clave primaria (origen, destino)
+ * Cada índice secundario encarece los inserts en PEDIDOS; no se crean índices que ninguna consulta use.
+ * Las sentencias son válidas en MySQL y en H2 (modo MySQL) y usan IF NOT EXISTS para poder ejecutarse al arrancar
+ */
+public final class Schema {
+
+    public static final List<String> DDL = List.of(
+            "CREATE TABLE IF NOT EXISTS USUARIOS ("
+                    .concat("ID_USUARIO BIGINT NOT NULL, ")
+                    .concat("NOMBRE VARCHAR(100), ")
+                    .concat("DIRECCION VARCHAR(255), ")
+                    .concat("PRIMARY KEY (ID_USUARIO))"),
+            "CREATE TABLE IF NOT EXISTS PEDIDOS ("
+                    .concat("ID_PEDIDO BIGINT NOT NULL AUTO_INCREMENT, ")
+                    .concat("ID_USUARIO BIGINT NOT NULL, ")
+                    .concat("ID_TIENDA BIGINT NOT NULL, ")
+                    .concat("FECHA TIMESTAMP NULL, ")
+                    .concat("TOTAL DOUBLE, ")
+                    .concat("SUBTOTAL DOUBLE, ")
+                    .concat("DIRECCION VARCHAR(255), ")
+                    .concat("PRIMARY KEY (ID_PEDIDO), ")
+                    .concat("INDEX IDX_PEDIDOS_TIENDA_USUARIO (ID_TIENDA, ID_USUARIO, ID_PEDIDO), ")
+                    .concat("INDEX IDX_PEDIDOS_TIENDA_TOTAL (ID_TIENDA, TOTAL, ID_USUARIO), ")
+                    .concat("INDEX IDX_PEDIDOS_TIENDA_PEDIDO (ID_TIENDA, ID_PEDIDO), ")
+                    .concat("INDEX IDX_PEDIDOS_USUARIO_PEDIDO (ID_USUARIO, ID_PEDIDO, ID_TIENDA))"),
+            "CREATE TABLE IF NOT EXISTS COPIAS_PEDIDOS ("
+                    .concat("ID_USUARIO_ORIGEN BIGINT NOT NULL, ")
+                    .concat("ID_USUARIO_DESTINO BIGINT NOT NULL, ")
+                    .concat("FECHA TIMESTAMP DEFAULT CURRENT_TIMESTAMP, ")
+                    .concat("PRIMARY KEY (ID_USUARIO_ORIGEN, ID_USUARIO_DESTINO))")
+    );
+
+    private Schema() {
+    }
+
+    /**
+     * Crea las tablas y sus índices si no existen
+     */
+    public static void create(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : DDL) statement.execute(ddl);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.inditex.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichero inmutable con un tramo de pedidos de una tienda, ordenados por ID_PEDIDO, en formato columnar
+ *  - Cabecera de HEADER_SIZE bytes: magic, versión, tienda, número de filas y ID_PEDIDO mínimo y máximo
+ *  - A continuación una columna tras otra: ID_PEDIDO, ID_USUARIO y FECHA (long, epoch en milisegundos o NULL_DATE),
+ *    TOTAL y SUBTOTAL (double) y, al final para no desalinear las anteriores, un byte por fila que indica si el
+ *    usuario existía en USUARIOS al exportar
+ *  - Little-endian, el orden nativo de x86 y ARM, para que leer del mapeo sea un acceso directo a memoria
+ *  - El nombre (store-<tienda>-<ID_PEDIDO máximo con 19 dígitos>.seg) ordena los tramos por ID_PEDIDO y permite
+ *    conocer la marca de agua sin abrirlos
+ * Solo se mapea en modo lectura; un tramo se escribe completo en un fichero temporal que luego se renombra
+ */
+final class OrderSegment {
+
+    static final int MAGIC = 0x4F534E50;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int ROW_BYTES = 5 * Long.BYTES + 1;
+
+    /*
+     * Un MappedByteBuffer no puede superar Integer.MAX_VALUE bytes
+     */
+    static final int MAX_ROWS = (Integer.MAX_VALUE - HEADER_SIZE) / ROW_BYTES;
+
+    static final long NULL_DATE = Long.MIN_VALUE;
+
+    private static final String SUFFIX = ".seg";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final long maxOrderId;
+
+    private final int userIds;
+    private final int dates;
+    private final int totals;
+    private final int subtotals;
+    private final int userExists;
+
+    private OrderSegment(Path file, MappedByteBuffer buffer, int rows, long maxOrderId) {
+        this.file = file;
+        this.buffer = buffer;
+        this.rows = rows;
+        this.maxOrderId = maxOrderId;
+        this.userIds = HEADER_SIZE + rows * Long.BYTES;
+        this.dates = userIds + rows * Long.BYTES;
+        this.totals = dates + rows * Long.BYTES;
+        this.subtotals = totals + rows * Double.BYTES;
+        this.userExists = subtotals + rows * Double.BYTES;
+    }
+
+    static String prefix(long storeId) {
+        return "store-" + storeId + "-";
+    }
+
+    static String fileName(long storeId, long maxOrderId) {
+        return prefix(storeId) + String.format("%019d", maxOrderId) + SUFFIX;
+    }
+
+    static boolean isSegment(Path file, long storeId) {
+        String name = file.getFileName().toString();
+        return name.startsWith(prefix(storeId)) && name.endsWith(SUFFIX);
+    }
+
+    /**
+     * ID_PEDIDO máximo del tramo, leído del nombre del fichero
+     */
+    static long maxOrderId(Path file, long storeId) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix(storeId).length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Mapea el tramo en modo lectura. El canal se cierra enseguida: el mapeo sigue siendo válido hasta que el
+     * buffer deja de estar referenciado
+     */
+    static OrderSegment map(Path file, long storeId) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) throw corrupt(file, "size " + size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) throw corrupt(file, "bad magic");
+            if (buffer.getInt(4) != VERSION) throw corrupt(file, "unsupported version " + buffer.getInt(4));
+            if (buffer.getLong(8) != storeId) throw corrupt(file, "store " + buffer.getLong(8));
+            long rows = buffer.getLong(16);
+            if (rows <= 0 || rows > MAX_ROWS || size != HEADER_SIZE + rows * ROW_BYTES) throw corrupt(file, rows + " rows");
+            long maxOrderId = buffer.getLong(32);
+            if (maxOrderId != maxOrderId(file, storeId)) throw corrupt(file, "max order id " + maxOrderId);
+            return new OrderSegment(file, buffer, (int) rows, maxOrderId);
+        }
+    }
+
+    /**
+     * Escribe las filas [0, rows) de las columnas en un temporal junto a target, lo vuelca a disco y lo renombra de
+     * forma atómica, de modo que un lector nunca ve un tramo a medias
+     */
+    static void write(Path target, long storeId, int rows, long[] orderIds, long[] userIds, long[] dates,
+                      double[] totals, double[] subtotals, boolean[] userExists) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(storeId).putLong(rows)
+                    .putLong(orderIds[0]).putLong(orderIds[rows - 1]);
+            while (buffer.position() < HEADER_SIZE) buffer.put((byte) 0);
+            for (long[] column : new long[][]{orderIds, userIds, dates}) {
+                for (int i = 0; i < rows; i++) {
+                    if (buffer.remaining() < Long.BYTES) drain(channel, buffer);
+                    buffer.putLong(column[i]);
+                }
+            }
+            for (double[] column : new double[][]{totals, subtotals}) {
+                for (int i = 0; i < rows; i++) {
+                    if (buffer.remaining() < Double.BYTES) drain(channel, buffer);
+                    buffer.putDouble(column[i]);
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                if (!buffer.hasRemaining()) drain(channel, buffer);
+                buffer.put(userExists[i] ? (byte) 1 : (byte) 0);
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static IOException corrupt(Path file, String detail) {
+        return new IOException("Corrupt order segment " + file + ": " + detail);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    long getMaxOrderId() {
+        return maxOrderId;
+    }
+
+    long orderId(int row) {
+        return buffer.getLong(HEADER_SIZE + row * Long.BYTES);
+    }
+
+    long userId(int row) {
+        return buffer.getLong(userIds + row * Long.BYTES);
+    }
+
+    long date(int row) {
+        return buffer.getLong(dates + row * Long.BYTES);
+    }
+
+    double total(int row) {
+        return buffer.getDouble(totals + row * Double.BYTES);
+    }
+
+    double subtotal(int row) {
+        return buffer.getDouble(subtotals + row * Double.BYTES);
+    }
+
+    boolean userExists(int row) {
+        return buffer.get(userExists + row) != 0;
+    }
+}
@@ -0,0 +1,164 @@
+package com.inditex.snapshot;
+
+import com.inditex.TestSqlDao.OrderRow;
+import com.inditex.collection.LongLongHashMap;
+import com.inditex.collection.LongLongMap;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lectura de la instantánea columnar de los pedidos de una tienda exportada con OrderSnapshotExporter
+ *  - open() mapea en memoria (FileChannel.map) todos los tramos de la tienda. Los datos se leen del page cache del
+ *    sistema operativo, fuera del heap, y solo ocupan memoria física las páginas que se recorren
+ *  - Las consultas recorren las columnas con accesos absolutos al mapeo, sin crear objetos por fila: solo se
+ *    asigna el resultado
+ *  - getMaxUserOrderIds responde lo mismo que getMaxUserOrderId del DAO sobre los pedidos exportados. getMaxOrder
+ *    elige el mismo pedido que getUserMaxOrder (con empates de TOTAL, el de menor ID_PEDIDO), pero lo devuelve como
+ *    OrderRow: el nombre y la dirección del usuario están en USUARIOS y no forman parte de la instantánea
+ *  - Es inmutable: los tramos exportados después de abrirla no se ven hasta volver a abrirla
+ * close() solo suelta las referencias; Java no permite liberar un mapeo de forma explícita y el sistema operativo lo
+ * libera cuando el recolector reclama los buffers
+ */
+public class OrderSnapshot implements AutoCloseable {
+
+    /**
+     * Recibe una fila de la instantánea como primitivos (date es epoch en milisegundos o Long.MIN_VALUE si es NULL)
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(long orderId, long userId, long date, double total, double subtotal, boolean userExists);
+    }
+
+    private final long storeId;
+
+    private volatile List<OrderSegment> segments;
+
+    private final int size;
+
+    private OrderSnapshot(long storeId, List<OrderSegment> segments) {
+        this.storeId = storeId;
+        this.segments = segments;
+        this.size = segments.stream().mapToInt(OrderSegment::getRows).sum();
+    }
+
+    /**
+     * Abre los tramos de la tienda en el directorio (sin tramos, una instantánea vacía)
+     */
+    public static OrderSnapshot open(Path directory, long storeId) throws IOException {
+        List<OrderSegment> segments = new ArrayList<>();
+        for (Path file : segmentFiles(directory, storeId)) segments.add(OrderSegment.map(file, storeId));
+        return new OrderSnapshot(storeId, List.copyOf(segments));
+    }
+
+    /**
+     * Ficheros de los tramos de la tienda, ordenados por ID_PEDIDO
+     */
+    static List<Path> segmentFiles(Path directory, long storeId) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return files;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, file -> OrderSegment.isSegment(file, storeId))) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(file -> file.getFileName().toString()));
+        return files;
+    }
+
+    public long getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Número de pedidos de la instantánea
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Mayor ID_PEDIDO exportado (0 si no hay tramos)
+     */
+    public long getWatermark() {
+        List<OrderSegment> current = segments();
+        return current.isEmpty() ? 0L : current.get(current.size() - 1).getMaxOrderId();
+    }
+
+    /**
+     * Último pedido de cada usuario (usuario -> ID_PEDIDO). Como las filas están ordenadas por ID_PEDIDO, basta con
+     * quedarse con la última de cada usuario. El mapa se dimensiona para el número de pedidos, cota superior del de
+     * usuarios, para no redimensionarlo mientras se recorre
+     */
+    public LongLongMap getMaxUserOrderIds() {
+        LongLongHashMap maxOrderIds = new LongLongHashMap(size);
+        for (OrderSegment segment : segments()) {
+            for (int row = 0, rows = segment.getRows(); row < rows; row++) {
+                maxOrderIds.put(segment.userId(row), segment.orderId(row));
+            }
+        }
+        return maxOrderIds.readOnly();
+    }
+
+    /**
+     * Pedido de mayor importe entre los de usuarios existentes en USUARIOS, como el INNER JOIN de getUserMaxOrder. La
+     * dirección no forma parte de la instantánea y se devuelve a null
+     */
+    public Optional<OrderRow> getMaxOrder() {
+        OrderSegment best = null;
+        int bestRow = -1;
+        double bestTotal = Double.NEGATIVE_INFINITY;
+        for (OrderSegment segment : segments()) {
+            for (int row = 0, rows = segment.getRows(); row < rows; row++) {
+                if (!segment.userExists(row)) continue;
+                double total = segment.total(row);
+                if (best == null || total > bestTotal) {
+                    best = segment;
+                    bestRow = row;
+                    bestTotal = total;
+                }
+            }
+        }
+        return best == null ? Optional.empty() : Optional.of(row(best, bestRow));
+    }
+
+    /**
+     * Recorre todas las filas en orden de ID_PEDIDO, para agregaciones que no cubren los métodos anteriores
+     */
+    public void forEach(RowVisitor visitor) {
+        for (OrderSegment segment : segments()) {
+            for (int row = 0, rows = segment.getRows(); row < rows; row++) {
+                visitor.visit(segment.orderId(row), segment.userId(row), segment.date(row), segment.total(row),
+                        segment.subtotal(row), segment.userExists(row));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        segments = null;
+    }
+
+    private List<OrderSegment> segments() {
+        List<OrderSegment> current = segments;
+        if (current == null) throw new IllegalStateException("Order snapshot is closed");
+        return current;
+    }
+
+    private OrderRow row(OrderSegment segment, int row) {
+        long date = segment.date(row);
+        return OrderRow.builder()
+                .orderId(segment.orderId(row))
+                .userId(segment.userId(row))
+                .storeId(storeId)
+                .date(date == OrderSegment.NULL_DATE ? null : new Timestamp(date))
+                .total(segment.total(row))
+                .subtotal(segment.subtotal(row))
+                .build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.inditex.snapshot;
+
+import com.inditex.concurrent.SqlSupplier;
+import com.inditex.metrics.QueryInstrumentation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exporta los pedidos de una tienda (ID_PEDIDO, ID_USUARIO, TOTAL, SUBTOTAL y FECHA) a ficheros columnares que lee
+ * OrderSnapshot, para que los informes no repitan los agregados sobre PEDIDOS
+ *  - Exportación incremental por marca de agua: export() solo lee los pedidos con ID_PEDIDO mayor que el último
+ *    exportado (el del último tramo) y los escribe en tramos nuevos, sin reescribir los existentes
+ *  - Los pedidos se leen en orden de ID_PEDIDO por el índice (ID_TIENDA, ID_PEDIDO) con un cursor (fetchSize) y se
+ *    acumulan en columnas de primitivos hasta maxSegmentRows filas, lo que acota la memoria de la exportación
+ *  - Junto a cada pedido se guarda si su usuario existe en USUARIOS (LEFT JOIN), para que el pedido de mayor importe
+ *    coincida con el INNER JOIN de getUserMaxOrder
+ *  - Las exportaciones del mismo exportador se serializan. No debe haber dos exportadores sobre el mismo directorio
+ * Limitaciones, como en MaxOrderView: solo se siguen inserciones. Los borrados y actualizaciones de pedidos, las altas
+ * y bajas de usuarios y los pedidos con un ID_PEDIDO menor que el de otro ya exportado pero confirmados después no se
+ * reflejan hasta rebuild()
+ */
+public class OrderSnapshotExporter {
+
+    private static final String NEW_ORDERS_QUERY =
+            "SELECT P.ID_PEDIDO, P.ID_USUARIO, P.FECHA, P.TOTAL, P.SUBTOTAL, U.ID_USUARIO AS USUARIO "
+                    .concat("FROM PEDIDOS AS P LEFT JOIN USUARIOS AS U ON P.ID_USUARIO = U.ID_USUARIO ")
+                    .concat("WHERE P.ID_TIENDA = ? AND P.ID_PEDIDO > ? ORDER BY P.ID_PEDIDO");
+
+    private static final String METRIC_EXPORT = "orderSnapshot.export";
+
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    public static final int DEFAULT_MAX_SEGMENT_ROWS = 1_000_000;
+
+    private static final int INITIAL_COLUMN_CAPACITY = 1_024;
+
+    private final SqlSupplier<Connection> connections;
+
+    private final QueryInstrumentation instrumentation;
+
+    private final Path directory;
+
+    private final int fetchSize;
+
+    private final int maxSegmentRows;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public OrderSnapshotExporter(SqlSupplier<Connection> connections, QueryInstrumentation instrumentation, Path directory) {
+        this(connections, instrumentation, directory, DEFAULT_FETCH_SIZE, DEFAULT_MAX_SEGMENT_ROWS);
+    }
+
+    /**
+     * @param connections    origen de las conexiones (normalmente el pool del DAO o sus réplicas)
+     * @param directory      directorio de los tramos, que se crea si no existe
+     * @param fetchSize      filas que se leen del servidor en cada viaje
+     * @param maxSegmentRows filas máximas por tramo (y por tanto en memoria durante la exportación)
+     */
+    public OrderSnapshotExporter(SqlSupplier<Connection> connections, QueryInstrumentation instrumentation, Path directory,
+                                 int fetchSize, int maxSegmentRows) {
+        if (fetchSize <= 0) throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+        if (maxSegmentRows <= 0 || maxSegmentRows > OrderSegment.MAX_ROWS)
+            throw new IllegalArgumentException("Invalid max segment rows: " + maxSegmentRows);
+        this.connections = connections;
+        this.instrumentation = instrumentation;
+        this.directory = directory;
+        this.fetchSize = fetchSize;
+        this.maxSegmentRows = maxSegmentRows;
+    }
+
+    /**
+     * Consultas que ejecuta el exportador (nombre -> SQL), para revisar sus planes de ejecución
+     */
+    public static Map<String, String> getQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put(METRIC_EXPORT, NEW_ORDERS_QUERY);
+        return queries;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Exporta los pedidos de la tienda posteriores a la marca de agua. Devuelve el número de pedidos exportados
+     */
+    public int export(long storeId) throws SQLException, IOException {
+        lock.lock();
+        try {
+            List<Path> files = OrderSnapshot.segmentFiles(directory, storeId);
+            long watermark = files.isEmpty() ? 0L : OrderSegment.maxOrderId(files.get(files.size() - 1), storeId);
+            return exportAfter(storeId, watermark);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Borra los tramos de la tienda y la exporta completa. Los lectores abiertos conservan su mapeo, pero los que se
+     * abran mientras tanto pueden ver la tienda incompleta
+     */
+    public int rebuild(long storeId) throws SQLException, IOException {
+        lock.lock();
+        try {
+            for (Path file : OrderSnapshot.segmentFiles(directory, storeId)) Files.delete(file);
+            return exportAfter(storeId, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int exportAfter(long storeId, long watermark) throws SQLException, IOException {
+        Files.createDirectories(directory);
+        long start = instrumentation.isEnabled() ? System.nanoTime() : 0L;
+        Columns columns = new Columns(Math.min(INITIAL_COLUMN_CAPACITY, maxSegmentRows), maxSegmentRows);
+        int exported = 0;
+        try (Connection connection = connections.get();
+             PreparedStatement stmt = connection.prepareStatement(NEW_ORDERS_QUERY)) {
+            stmt.setFetchSize(fetchSize);
+            stmt.setLong(1, storeId);
+            stmt.setLong(2, watermark);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    columns.add(rs);
+                    exported++;
+                    if (columns.rows == maxSegmentRows) columns.flush(directory, storeId);
+                }
+            }
+            columns.flush(directory, storeId);
+        } catch (SQLException e) {
+            // Los tramos ya escritos son correctos: el siguiente export continúa desde el último
+            if (start != 0L) instrumentation.failed(METRIC_EXPORT, System.nanoTime() - start, e);
+            throw e;
+        }
+        if (start != 0L) instrumentation.executed(METRIC_EXPORT, System.nanoTime() - start, exported, 0);
+        return exported;
+    }
+
+    /**
+     * Columnas del tramo en construcción. Crecen al doble hasta maxSegmentRows y se reutilizan entre tramos
+     */
+    private static final class Columns {
+
+        private long[] orderIds;
+        private long[] userIds;
+        private long[] dates;
+        private double[] totals;
+        private double[] subtotals;
+        private boolean[] userExists;
+        private int rows;
+        private final int maxRows;
+
+        private Columns(int capacity, int maxRows) {
+            this.maxRows = maxRows;
+            orderIds = new long[capacity];
+            userIds = new long[capacity];
+            dates = new long[capacity];
+            totals = new double[capacity];
+            subtotals = new double[capacity];
+            userExists = new boolean[capacity];
+        }
+
+        private void add(ResultSet rs) throws SQLException {
+            if (rows == orderIds.length) grow();
+            orderIds[rows] = rs.getLong("ID_PEDIDO");
+            userIds[rows] = rs.getLong("ID_USUARIO");
+            Timestamp date = rs.getTimestamp("FECHA");
+            dates[rows] = date == null ? OrderSegment.NULL_DATE : date.getTime();
+            totals[rows] = rs.getDouble("TOTAL");
+            subtotals[rows] = rs.getDouble("SUBTOTAL");
+            rs.getLong("USUARIO");
+            userExists[rows] = !rs.wasNull();
+            rows++;
+        }
+
+        private void grow() {
+            int capacity = (int) Math.min((long) orderIds.length * 2, maxRows);
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+            subtotals = Arrays.copyOf(subtotals, capacity);
+            userExists = Arrays.copyOf(userExists, capacity);
+        }
+
+        private void flush(Path directory, long storeId) throws IOException {
+            if (rows == 0) return;
+            Path target = directory.resolve(OrderSegment.fileName(storeId, orderIds[rows - 1]));
+            OrderSegment.write(target, storeId, rows, orderIds, userIds, dates, totals, subtotals, userExists);
+            rows = 0;
+        }
+    }
+}
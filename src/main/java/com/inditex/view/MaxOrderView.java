@@ -0,0 +1,451 @@
+package com.inditex.view;
+
+import com.inditex.TestSqlDao.Order;
+import com.inditex.collection.LongLongHashMap;
+import com.inditex.collection.LongLongMap;
+import com.inditex.concurrent.SqlSupplier;
+import com.inditex.metrics.QueryInstrumentation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Vista materializada en memoria, por tienda, del último pedido de cada usuario (getMaxUserOrderId) y del pedido de
+ * mayor importe (getUserMaxOrder)
+ *  - Cada tienda se carga la primera vez que se consulta, recorriendo una sola vez sus pedidos
+ *  - Después se mantiene de forma incremental leyendo los pedidos nuevos por marca de agua (ID_PEDIDO mayor que el
+ *    último aplicado) con catchUp(), que el DAO llama tras sus escrituras y, opcionalmente, de forma periódica
+ *  - Las lecturas no acceden a la base de datos: el estado de cada tienda es inmutable y se publica completo
+ *    (copy-on-write por lote aplicado), por lo que leer es una búsqueda en un mapa sin bloqueos
+ *  - Para no clonar el mapa usuario -> pedido de la tienda en cada catchUp, el estado tiene dos capas inmutables: la
+ *    base y los usuarios cambiados desde la última fusión. Cada catchUp copia solo la capa reciente, que se fusiona
+ *    con la base al superar la raíz cuadrada de su tamaño: O(√n) por catchUp en lugar de O(n)
+ *  - Las cargas y los catchUp se serializan con un único bloqueo para que ningún pedido se aplique dos veces ni se
+ *    pierda entre la carga de una tienda y el siguiente catchUp
+ * Limitaciones: solo se siguen inserciones en PEDIDOS. Los borrados y actualizaciones de pedidos, los cambios de
+ * NOMBRE/DIRECCION en USUARIOS y los pedidos cuyo ID_PEDIDO se asignó antes que el de otro ya aplicado pero cuya
+ * transacción confirmó después no se reflejan hasta invalidar la tienda. El modo de comprobación de consistencia del
+ * DAO detecta estas divergencias
+ */
+public class MaxOrderView {
+
+    private static final Logger LOGGER = Logger.getLogger(MaxOrderView.class.getName());
+
+    private static final String WATERMARK_QUERY = "SELECT COALESCE(MAX(ID_PEDIDO), 0) FROM PEDIDOS";
+
+    private static final String STORE_ORDERS_QUERY =
+            "SELECT P.ID_PEDIDO, P.ID_USUARIO, P.ID_TIENDA, P.TOTAL, U.ID_USUARIO AS USUARIO, U.NOMBRE, U.DIRECCION "
+                    .concat("FROM PEDIDOS AS P LEFT JOIN USUARIOS AS U ON P.ID_USUARIO = U.ID_USUARIO ")
+                    .concat("WHERE P.ID_TIENDA = ?");
+
+    private static final String NEW_ORDERS_QUERY =
+            "SELECT P.ID_PEDIDO, P.ID_USUARIO, P.ID_TIENDA, P.TOTAL, U.ID_USUARIO AS USUARIO, U.NOMBRE, U.DIRECCION "
+                    .concat("FROM PEDIDOS AS P LEFT JOIN USUARIOS AS U ON P.ID_USUARIO = U.ID_USUARIO ")
+                    .concat("WHERE P.ID_PEDIDO > ? ORDER BY P.ID_PEDIDO LIMIT ?");
+
+    private static final String METRIC_LOAD = "maxOrderView.load";
+
+    private static final String METRIC_CATCH_UP = "maxOrderView.catchUp";
+
+    /*
+     * Tamaño mínimo de la capa reciente antes de fusionarla con la base, para no fusionar en cada catchUp en tiendas
+     * pequeñas
+     */
+    private static final int MIN_MERGE_SIZE = 64;
+
+    private final SqlSupplier<Connection> connections;
+
+    private final QueryInstrumentation instrumentation;
+
+    private final int batchSize;
+
+    private final Map<Long, StoreState> stores = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final LongAdder mismatches = new LongAdder();
+
+    /*
+     * Último ID_PEDIDO aplicado a las tiendas cargadas. Long.MIN_VALUE hasta la primera carga
+     */
+    private volatile long watermark = Long.MIN_VALUE;
+
+    /**
+     * @param connections origen de las conexiones (normalmente el pool del DAO)
+     * @param batchSize   número máximo de pedidos nuevos que se leen en cada consulta de catchUp
+     */
+    public MaxOrderView(SqlSupplier<Connection> connections, QueryInstrumentation instrumentation, int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        this.connections = connections;
+        this.instrumentation = instrumentation;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Consultas que ejecuta la vista (nombre -> SQL), para revisar sus planes de ejecución
+     */
+    public static Map<String, String> getQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put(METRIC_LOAD, STORE_ORDERS_QUERY);
+        queries.put(METRIC_CATCH_UP, NEW_ORDERS_QUERY);
+        return queries;
+    }
+
+    /**
+     * Último pedido de cada usuario de la tienda (usuario -> ID_PEDIDO)
+     */
+    public LongLongMap getMaxUserOrderIds(long storeId) throws SQLException {
+        StoreState state = state(storeId);
+        return state.recent.isEmpty() ? state.base.readOnly() : new LayeredView(state);
+    }
+
+    /**
+     * Pedido de mayor importe de la tienda (entre los de usuarios existentes en USUARIOS)
+     */
+    public Optional<Order> getMaxOrder(long storeId) throws SQLException {
+        return Optional.ofNullable(state(storeId).maxOrder);
+    }
+
+    /**
+     * Importe del pedido devuelto por getMaxOrder (NaN si la tienda no tiene pedidos)
+     */
+    public double getMaxTotal(long storeId) throws SQLException {
+        return state(storeId).maxTotal;
+    }
+
+    /**
+     * Aplica a las tiendas cargadas los pedidos insertados desde la última llamada. Devuelve el número de pedidos
+     * leídos
+     */
+    public int catchUp() throws SQLException {
+        writeLock.lock();
+        try {
+            if (watermark == Long.MIN_VALUE) return 0;
+            long start = instrumentation.isEnabled() ? System.nanoTime() : 0L;
+            Map<Long, Mutable> changed = new HashMap<>();
+            int read = 0;
+            try (Connection connection = connections.get();
+                 PreparedStatement stmt = connection.prepareStatement(NEW_ORDERS_QUERY)) {
+                int page;
+                do {
+                    stmt.setLong(1, watermark);
+                    stmt.setInt(2, batchSize);
+                    page = 0;
+                    long last = watermark;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            page++;
+                            last = rs.getLong("ID_PEDIDO");
+                            long storeId = rs.getLong("ID_TIENDA");
+                            StoreState current = stores.get(storeId);
+                            if (Objects.isNull(current) || last <= current.watermark) continue;
+                            changed.computeIfAbsent(storeId, id -> new Mutable(current)).apply(rs);
+                        }
+                    }
+                    read += page;
+                    watermark = last;
+                } while (page == batchSize);
+            } catch (SQLException e) {
+                if (start != 0L) instrumentation.failed(METRIC_CATCH_UP, System.nanoTime() - start, e);
+                // Lo ya aplicado se publica igualmente; al releerlo en el siguiente catchUp se descarta por la marca de
+                // agua de cada tienda
+                throw e;
+            } finally {
+                changed.forEach((storeId, mutable) -> stores.put(storeId, mutable.publish(watermark)));
+            }
+            if (start != 0L) instrumentation.executed(METRIC_CATCH_UP, System.nanoTime() - start, read, 0);
+            return read;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Igual que catchUp, pero registra el error en el log en lugar de lanzarlo (para llamarlo tras una escritura ya
+     * confirmada o desde una tarea periódica)
+     */
+    public void catchUpQuietly() {
+        try {
+            catchUp();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Materialized view catch up failed", e);
+        }
+    }
+
+    /**
+     * Descarta la tienda, que se volverá a cargar completa en la siguiente lectura. Espera a que termine el catchUp en
+     * curso para que no vuelva a publicarla
+     */
+    public void invalidate(long storeId) {
+        writeLock.lock();
+        try {
+            stores.remove(storeId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        writeLock.lock();
+        try {
+            stores.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Notifica que la vista no coincide con el resultado de la consulta SQL: se registra y se descarta la tienda
+     */
+    public void mismatch(long storeId, String query) {
+        mismatches.increment();
+        LOGGER.warning("Materialized view mismatch for store " + storeId + " in " + query + ", reloading");
+        invalidate(storeId);
+    }
+
+    public long getMismatchCount() {
+        return mismatches.sum();
+    }
+
+    public int getLoadedStores() {
+        return stores.size();
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    private StoreState state(long storeId) throws SQLException {
+        StoreState state = stores.get(storeId);
+        return Objects.nonNull(state) ? state : load(storeId);
+    }
+
+    /**
+     * Carga la tienda recorriendo sus pedidos. Se fija antes la marca de agua global (si es la primera carga) para que
+     * los pedidos insertados durante la carga los aplique el siguiente catchUp si la carga no los ha visto
+     */
+    private StoreState load(long storeId) throws SQLException {
+        writeLock.lock();
+        try {
+            StoreState state = stores.get(storeId);
+            if (Objects.nonNull(state)) return state;
+            long start = instrumentation.isEnabled() ? System.nanoTime() : 0L;
+            try (Connection connection = connections.get()) {
+                if (watermark == Long.MIN_VALUE) watermark = readWatermark(connection);
+                Mutable mutable = new Mutable(StoreState.EMPTY);
+                int read = 0;
+                try (PreparedStatement stmt = connection.prepareStatement(STORE_ORDERS_QUERY)) {
+                    stmt.setLong(1, storeId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            mutable.apply(rs);
+                            read++;
+                        }
+                    }
+                }
+                state = mutable.publish(mutable.lastOrderId);
+                stores.put(storeId, state);
+                if (start != 0L) instrumentation.executed(METRIC_LOAD, System.nanoTime() - start, read, 0);
+                return state;
+            } catch (SQLException e) {
+                if (start != 0L) instrumentation.failed(METRIC_LOAD, System.nanoTime() - start, e);
+                throw e;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static long readWatermark(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(WATERMARK_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Estado publicado de una tienda. No se modifica una vez publicado. El último pedido de un usuario está en recent
+     * si ha cambiado desde la última fusión y si no en base; size cuenta los usuarios de ambas capas sin repetir
+     */
+    private static final class StoreState {
+
+        private static final LongLongHashMap NONE = new LongLongHashMap(0);
+
+        private static final StoreState EMPTY = new StoreState(Long.MIN_VALUE, NONE, NONE, 0, null, Double.NaN);
+
+        private final long watermark;
+        private final LongLongHashMap base;
+        private final LongLongHashMap recent;
+        private final int size;
+        private final Order maxOrder;
+        private final double maxTotal;
+
+        private StoreState(long watermark, LongLongHashMap base, LongLongHashMap recent, int size, Order maxOrder,
+                           double maxTotal) {
+            this.watermark = watermark;
+            this.base = base;
+            this.recent = recent;
+            this.size = size;
+            this.maxOrder = maxOrder;
+            this.maxTotal = maxTotal;
+        }
+    }
+
+    /**
+     * Copia modificable del estado de una tienda mientras se aplica un lote de pedidos. Solo se copia la capa reciente;
+     * la base se comparte con el estado publicado
+     */
+    private static final class Mutable {
+
+        private final LongLongHashMap base;
+        private final LongLongHashMap recent;
+        private Order maxOrder;
+        private double maxTotal;
+        private long lastOrderId;
+
+        private Mutable(StoreState state) {
+            this.base = state.base;
+            this.recent = state.recent.copy();
+            this.maxOrder = state.maxOrder;
+            this.maxTotal = state.maxTotal;
+            this.lastOrderId = state.watermark;
+        }
+
+        private void apply(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("ID_PEDIDO");
+            long userId = rs.getLong("ID_USUARIO");
+            double total = rs.getDouble("TOTAL");
+            if (recent.containsKey(userId) || !base.containsKey(userId) || base.get(userId, 0) < orderId) {
+                recent.putIfGreater(userId, orderId);
+            }
+            lastOrderId = Math.max(lastOrderId, orderId);
+            rs.getLong("USUARIO");
+            boolean userExists = !rs.wasNull();
+            if (userExists && (Objects.isNull(maxOrder) || total > maxTotal)) {
+                maxOrder = new Order(userId, orderId, rs.getString("NOMBRE"), rs.getString("DIRECCION"));
+                maxTotal = total;
+            }
+        }
+
+        /**
+         * Publica el estado; si la capa reciente ha crecido por encima de √(base) se fusiona en una base nueva, de modo
+         * que cada fusión O(n) se reparte entre al menos √n usuarios cambiados
+         */
+        private StoreState publish(long watermark) {
+            long newWatermark = Math.max(watermark, lastOrderId);
+            if (base.isEmpty()) {
+                return new StoreState(newWatermark, recent, StoreState.NONE, recent.size(), maxOrder, maxTotal);
+            }
+            if (recent.size() > Math.max(MIN_MERGE_SIZE, (int) Math.sqrt(base.size()))) {
+                LongLongHashMap merged = base.copy();
+                recent.forEach(merged::put);
+                return new StoreState(newWatermark, merged, StoreState.NONE, merged.size(), maxOrder, maxTotal);
+            }
+            int[] added = {0};
+            recent.forEach((userId, orderId) -> {
+                if (!base.containsKey(userId)) added[0]++;
+            });
+            return new StoreState(newWatermark, base, recent, base.size() + added[0], maxOrder, maxTotal);
+        }
+    }
+
+    /**
+     * Vista de solo lectura de las dos capas de un estado publicado
+     */
+    private static final class LayeredView implements LongLongMap {
+
+        private final StoreState state;
+
+        private LayeredView(StoreState state) {
+            this.state = state;
+        }
+
+        @Override
+        public int size() {
+            return state.size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return state.size == 0;
+        }
+
+        @Override
+        public boolean containsKey(long key) {
+            return state.recent.containsKey(key) || state.base.containsKey(key);
+        }
+
+        @Override
+        public long get(long key, long defaultValue) {
+            return state.recent.containsKey(key) ? state.recent.get(key, defaultValue) : state.base.get(key, defaultValue);
+        }
+
+        @Override
+        public void forEach(Consumer consumer) {
+            state.recent.forEach(consumer);
+            state.base.forEach((key, value) -> {
+                if (!state.recent.containsKey(key)) consumer.accept(key, value);
+            });
+        }
+
+        @Override
+        public Map<Long, Long> asMap() {
+            return new AbstractMap<>() {
+                @Override
+                public int size() {
+                    return state.size;
+                }
+
+                @Override
+                public boolean containsKey(Object key) {
+                    return key instanceof Long && LayeredView.this.containsKey((Long) key);
+                }
+
+                @Override
+                public Long get(Object key) {
+                    return containsKey(key) ? LayeredView.this.get((Long) key, 0) : null;
+                }
+
+                @Override
+                public Set<Entry<Long, Long>> entrySet() {
+                    return new AbstractSet<>() {
+                        @Override
+                        public int size() {
+                            return state.size;
+                        }
+
+                        @Override
+                        public Iterator<Entry<Long, Long>> iterator() {
+                            List<Entry<Long, Long>> entries = new ArrayList<>(state.size);
+                            LayeredView.this.forEach((key, value) -> entries.add(new SimpleImmutableEntry<>(key, value)));
+                            return entries.iterator();
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return asMap().toString();
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.inditex.writebehind;
+
+import com.inditex.RetryPolicy;
+import com.inditex.TestSqlDao.OrderRow;
+import com.inditex.bulk.CopyPair;
+import com.inditex.concurrent.SqlSupplier;
+import com.inditex.concurrent.WorkerExecutors;
+import com.inditex.metrics.Histogram;
+import com.inditex.metrics.QueryInstrumentation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Escritura diferida (write-behind) de pedidos en PEDIDOS: las inserciones de muchos hilos se agrupan en pocas
+ * transacciones grandes en lugar de una transacción pequeña por llamada
+ *  - submit encola las filas de una petición y devuelve un CompletableFuture que se completa con el número de filas
+ *    insertadas cuando su transacción se confirma (o con la excepción si falla)
+ *  - Un único hilo escritor agrupa las peticiones encoladas y las escribe en un lote (un batch multi-fila y un commit)
+ *    al reunir maxBatchRows filas o al pasar maxDelayMillis desde la primera petición del lote
+ *  - Backpressure: la cola admite como máximo capacity filas pendientes. Con la cola llena submit espera a que se
+ *    escriban lotes, como máximo offerTimeoutMillis
+ *  - Las filas de una petición nunca se reparten entre lotes. Si el lote falla se reintenta según la RetryPolicy y,
+ *    si sigue fallando, cada petición se escribe en su propia transacción para que una petición errónea no haga
+ *    fallar a las demás
+ *  - Con un CopyPair la petición registra el par en COPIAS_PEDIDOS en la misma transacción que sus filas; si el par
+ *    ya estaba copiado sus filas se descartan y se completa con 0
+ *  - Cancelar el future de una petición la descarta si el escritor aún no la ha escrito; una vez en una transacción
+ *    se escribe igualmente y el future queda cancelado
+ *  - close() deja de aceptar peticiones y espera a que se escriba todo lo encolado (hasta shutdownTimeoutMillis)
+ * Los futures se completan en el hilo escritor: las acciones encadenadas costosas deben usar las variantes *Async
+ */
+public class OrderWriteBehindQueue implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(OrderWriteBehindQueue.class.getName());
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String REGISTER_COPY =
+            "INSERT INTO COPIAS_PEDIDOS (ID_USUARIO_ORIGEN, ID_USUARIO_DESTINO) VALUES (?, ?)";
+
+    private static final String METRIC_FLUSH = "writeBehind.flush";
+
+    /*
+     * Espera del hilo escritor con la cola vacía antes de comprobar si se ha cerrado
+     */
+    private static final long IDLE_POLL_MILLIS = 100L;
+
+    private final SqlSupplier<Connection> connections;
+
+    private final QueryInstrumentation instrumentation;
+
+    private final WriteBehindConfig config;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    private final Semaphore permits;
+
+    /*
+     * submit encola bajo el bloqueo de lectura y close() cierra bajo el de escritura, de modo que tras cerrar no puede
+     * entrar ninguna petición que el escritor ya no vaya a ver
+     */
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    private final Thread writer;
+
+    private final AtomicInteger queuedRows = new AtomicInteger();
+
+    private final LongAdder rowsWritten = new LongAdder();
+
+    private final LongAdder requestsCompleted = new LongAdder();
+
+    private final LongAdder requestsFailed = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder offerTimeouts = new LongAdder();
+
+    private final Histogram flushLatency = new Histogram();
+
+    private final Histogram commitLatency = new Histogram();
+
+    private final long createdNanos = System.nanoTime();
+
+    private volatile boolean closed = false;
+
+    public OrderWriteBehindQueue(SqlSupplier<Connection> connections, QueryInstrumentation instrumentation, WriteBehindConfig config) {
+        if (config.getCapacity() <= 0 || config.getMaxBatchRows() <= 0 || config.getMaxDelayMillis() < 0)
+            throw new IllegalArgumentException("Invalid write-behind config: capacity " + config.getCapacity()
+                    + ", max batch rows " + config.getMaxBatchRows() + ", max delay " + config.getMaxDelayMillis());
+        this.connections = connections;
+        this.instrumentation = instrumentation;
+        this.config = config;
+        this.permits = new Semaphore(config.getCapacity(), true);
+        this.writer = WorkerExecutors.daemonThreadFactory("order-write-behind").newThread(this::run);
+        this.writer.start();
+    }
+
+    public WriteBehindConfig getConfig() {
+        return config;
+    }
+
+    public CompletableFuture<Integer> submit(List<OrderRow> rows) throws SQLException {
+        return submit(rows, null);
+    }
+
+    /**
+     * Encola las filas (que no deben modificarse después) para insertarlas en el siguiente lote, esperando si la cola
+     * está llena
+     *
+     * @param copy par a registrar en COPIAS_PEDIDOS en la misma transacción (null para no registrarlo)
+     */
+    public CompletableFuture<Integer> submit(List<OrderRow> rows, CopyPair copy) throws SQLException {
+        if (rows.size() > config.getCapacity())
+            throw new IllegalArgumentException("Request of " + rows.size() + " rows exceeds capacity " + config.getCapacity());
+        if (closed) throw new SQLException("Write-behind queue is closed");
+        acquire(rows.size());
+        Request request = new Request(rows, copy, false);
+        if (!enqueue(request)) {
+            permits.release(rows.size());
+            throw new SQLException("Write-behind queue is closed");
+        }
+        return request.future;
+    }
+
+    /**
+     * Fuerza la escritura inmediata de lo encolado. El future se completa cuando se han escrito (o han fallado) todas
+     * las peticiones encoladas antes de la llamada
+     */
+    public CompletableFuture<Void> flush() throws SQLException {
+        Request marker = new Request(List.of(), null, true);
+        if (!enqueue(marker)) throw new SQLException("Write-behind queue is closed");
+        return marker.future.thenApply(rows -> null);
+    }
+
+    public WriteBehindMetrics getMetrics() {
+        return new WriteBehindMetrics(
+                queuedRows.get(),
+                rowsWritten.sum(),
+                requestsCompleted.sum(),
+                requestsFailed.sum(),
+                batches.sum(),
+                offerTimeouts.sum(),
+                System.nanoTime() - createdNanos,
+                flushLatency.snapshot(),
+                commitLatency.snapshot()
+        );
+    }
+
+    /**
+     * Deja de aceptar peticiones y espera a que el escritor confirme todo lo encolado. Las peticiones que sigan en la
+     * cola al agotar shutdownTimeoutMillis se completan con error
+     */
+    @Override
+    public void close() {
+        stateLock.writeLock().lock();
+        try {
+            closed = true;
+            // Despierta al escritor si está esperando a completar un lote
+            queue.add(new Request(List.of(), null, true));
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        try {
+            writer.join(config.getShutdownTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Request> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        if (!abandoned.isEmpty()) {
+            LOGGER.warning("Write-behind queue closed with " + abandoned.size() + " unwritten requests");
+            SQLException cause = new SQLException("Write-behind queue closed before writing the request");
+            abandoned.forEach(request -> release(request, cause, 0));
+        }
+    }
+
+    private void acquire(int rows) throws SQLException {
+        if (rows == 0) return;
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(rows, config.getOfferTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for write-behind capacity", e);
+        }
+        if (!acquired) {
+            offerTimeouts.increment();
+            throw new SQLTimeoutException("Write-behind queue full after " + config.getOfferTimeoutMillis() + " ms");
+        }
+    }
+
+    private boolean enqueue(Request request) {
+        stateLock.readLock().lock();
+        try {
+            if (closed) return false;
+            queuedRows.addAndGet(request.rows.size());
+            queue.add(request);
+            return true;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: forma un lote con la primera petición y las que lleguen hasta reunir maxBatchRows filas
+     * o agotar maxDelayMillis (o hasta una marca de flush). Cerrada la cola, solo recoge lo ya encolado y termina
+     * cuando queda vacía
+     */
+    private void run() {
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxDelayMillis());
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            Request first = poll(closed ? 0L : TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS));
+            if (Objects.isNull(first)) {
+                if (closed && queue.isEmpty()) return;
+                continue;
+            }
+            batch.add(first);
+            int rows = first.rows.size();
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (rows < config.getMaxBatchRows() && !batch.get(batch.size() - 1).flush) {
+                Request next = poll(closed ? 0L : deadline - System.nanoTime());
+                if (Objects.isNull(next)) break;
+                batch.add(next);
+                rows += next.rows.size();
+            }
+            write(batch, rows);
+            batch.clear();
+        }
+    }
+
+    private Request poll(long nanos) {
+        try {
+            return nanos <= 0 ? queue.poll() : queue.poll(nanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            return queue.poll();
+        }
+    }
+
+    private void write(List<Request> batch, int rows) {
+        batch.removeIf(request -> {
+            if (!request.future.isCancelled()) return false;
+            releaseCapacity(request);
+            return true;
+        });
+        if (batch.isEmpty()) return;
+        try {
+            int[] written = writeWithRetry(batch);
+            for (int i = 0; i < batch.size(); i++) release(batch.get(i), null, written[i]);
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                release(batch.get(0), e, 0);
+                return;
+            }
+            LOGGER.log(Level.WARNING, "Write-behind batch of " + rows + " rows failed, writing requests one by one", e);
+            for (Request request : batch) {
+                try {
+                    release(request, null, writeWithRetry(List.of(request))[0]);
+                } catch (SQLException requestFailure) {
+                    release(request, requestFailure, 0);
+                }
+            }
+        } catch (RuntimeException e) {
+            SQLException cause = new SQLException("Write-behind batch failed", e);
+            batch.forEach(request -> release(request, cause, 0));
+        }
+    }
+
+    /**
+     * Devuelve la capacidad de la petición y completa su future (con error si failure no es null)
+     */
+    private void release(Request request, SQLException failure, int written) {
+        releaseCapacity(request);
+        if (Objects.nonNull(failure)) {
+            if (!request.flush) requestsFailed.increment();
+            request.future.completeExceptionally(failure);
+        } else {
+            if (!request.flush) {
+                requestsCompleted.increment();
+                commitLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - request.enqueuedNanos));
+            }
+            request.future.complete(written);
+        }
+    }
+
+    private void releaseCapacity(Request request) {
+        int size = request.rows.size();
+        if (size > 0) permits.release(size);
+        queuedRows.addAndGet(-size);
+    }
+
+    private int[] writeWithRetry(List<Request> requests) throws SQLException {
+        RetryPolicy retryPolicy = config.getRetryPolicy();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return writeTransaction(requests);
+            } catch (SQLException e) {
+                if (!retryPolicy.shouldRetry(e, attempt)) throw e;
+                if (instrumentation.isEnabled()) instrumentation.retried(METRIC_FLUSH, attempt + 1, e);
+                try {
+                    Thread.sleep(retryPolicy.backoffMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    e.addSuppressed(interrupted);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe las peticiones en una transacción y devuelve las filas insertadas de cada una. Las marcas de flush no
+     * necesitan conexión
+     */
+    private int[] writeTransaction(List<Request> requests) throws SQLException {
+        int[] written = new int[requests.size()];
+        if (requests.stream().allMatch(request -> request.rows.isEmpty() && Objects.isNull(request.copy))) return written;
+        long start = System.nanoTime();
+        int total = 0;
+        try (Connection connection = connections.get()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement register = connection.prepareStatement(REGISTER_COPY);
+                 PreparedStatement insert = connection.prepareStatement(INSERT_ORDER)) {
+                int pending = 0;
+                for (int i = 0; i < requests.size(); i++) {
+                    Request request = requests.get(i);
+                    if (Objects.nonNull(request.copy) && !registerCopy(register, request.copy)) continue;
+                    for (OrderRow row : request.rows) {
+                        insert.setLong(1, row.getUserId());
+                        insert.setLong(2, row.getStoreId());
+                        insert.setTimestamp(3, row.getDate());
+                        insert.setDouble(4, row.getTotal());
+                        insert.setDouble(5, row.getSubtotal());
+                        insert.setString(6, row.getAddress());
+                        insert.addBatch();
+                        if (++pending == config.getMaxBatchRows()) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    written[i] = request.rows.size();
+                    total += written[i];
+                }
+                if (pending > 0) insert.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            if (instrumentation.isEnabled()) instrumentation.failed(METRIC_FLUSH, System.nanoTime() - start, e);
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        batches.increment();
+        rowsWritten.add(total);
+        flushLatency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        if (instrumentation.isEnabled()) {
+            instrumentation.batchExecuted(METRIC_FLUSH, total);
+            instrumentation.executed(METRIC_FLUSH, nanos, 0, total);
+        }
+        return written;
+    }
+
+    /**
+     * Como en la copia del DAO: false si el par ya estaba registrado (violación de la clave primaria)
+     */
+    private static boolean registerCopy(PreparedStatement register, CopyPair copy) throws SQLException {
+        register.setLong(1, copy.getOriginUserId());
+        register.setLong(2, copy.getDestinationUserId());
+        try {
+            register.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (e instanceof SQLIntegrityConstraintViolationException
+                    || (Objects.nonNull(e.getSQLState()) && e.getSQLState().startsWith("23"))) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Request {
+
+        private final List<OrderRow> rows;
+        private final CopyPair copy;
+        private final boolean flush;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        private Request(List<OrderRow> rows, CopyPair copy, boolean flush) {
+            this.rows = rows;
+            this.copy = copy;
+            this.flush = flush;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.inditex.writebehind;
+
+import com.inditex.RetryPolicy;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Configuración de la escritura diferida de pedidos (OrderWriteBehindQueue)
+ *  - capacity: número máximo de filas encoladas pendientes de escribir. Al llenarse, submit espera (backpressure)
+ *  - maxBatchRows: al acumular este número de filas se escribe el lote sin esperar más
+ *  - maxDelayMillis: tiempo máximo que se espera a completar un lote desde que llega su primera petición
+ *  - offerTimeoutMillis: espera máxima de submit con la cola llena antes de lanzar SQLTimeoutException
+ *  - shutdownTimeoutMillis: tiempo que close() espera a que se escriba lo pendiente; lo que quede después falla
+ *  - retryPolicy: reintentos de la transacción de un lote ante interbloqueos y timeouts de bloqueo
+ */
+@Getter
+@Builder
+public class WriteBehindConfig {
+
+    private static final WriteBehindConfig DEFAULTS = WriteBehindConfig.builder().build();
+
+    @Builder.Default
+    private final int capacity = 50_000;
+
+    @Builder.Default
+    private final int maxBatchRows = 5_000;
+
+    @Builder.Default
+    private final long maxDelayMillis = 20L;
+
+    @Builder.Default
+    private final long offerTimeoutMillis = 30_000L;
+
+    @Builder.Default
+    private final long shutdownTimeoutMillis = 30_000L;
+
+    @Builder.Default
+    private final RetryPolicy retryPolicy = RetryPolicy.defaults();
+
+    public static WriteBehindConfig defaults() {
+        return DEFAULTS;
+    }
+}
@@ -0,0 +1,35 @@
+package com.inditex.writebehind;
+
+import com.inditex.metrics.HistogramSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Foto de las métricas de la escritura diferida en un instante dado
+ *  - flushLatency: duración de cada lote, desde obtener la conexión hasta el commit (microsegundos)
+ *  - commitLatency: tiempo de cada petición desde que se encola hasta que se confirma (microsegundos)
+ */
+@Getter
+@AllArgsConstructor
+public class WriteBehindMetrics {
+    private final int queuedRows;
+    private final long rowsWritten;
+    private final long requestsCompleted;
+    private final long requestsFailed;
+    private final long batches;
+    private final long offerTimeouts;
+    private final long elapsedNanos;
+    private final HistogramSnapshot flushLatency;
+    private final HistogramSnapshot commitLatency;
+
+    /**
+     * Filas confirmadas por segundo desde la creación de la cola
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsWritten * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getAverageBatchRows() {
+        return batches == 0 ? 0 : (double) rowsWritten / batches;
+    }
+}
@@ -0,0 +1,48 @@
+package com.inditex;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    @Test
+    void transientErrors() {
+        SQLException chained = new SQLException("batch failed", "HY000", 0);
+        chained.setNextException(new SQLException("Deadlock found", "40001", 1213));
+        assertAll(
+                () -> assertTrue(RetryPolicy.isTransient(new SQLException("Deadlock found", "40001", 1213))),
+                () -> assertTrue(RetryPolicy.isTransient(new SQLException("Lock wait timeout exceeded", "HY000", 1205))),
+                () -> assertTrue(RetryPolicy.isTransient(new SQLTransactionRollbackException("rollback"))),
+                () -> assertTrue(RetryPolicy.isTransient(chained)),
+                () -> assertFalse(RetryPolicy.isTransient(new SQLException("Duplicate entry", "23000", 1062))),
+                () -> assertFalse(RetryPolicy.isTransient(new SQLException("Query has been cancelled")))
+        );
+    }
+
+    @Test
+    void shouldRetry() {
+        RetryPolicy policy = RetryPolicy.builder().maxRetries(2).build();
+        SQLException deadlock = new SQLException("Deadlock found", "40001", 1213);
+        assertAll(
+                () -> assertTrue(policy.shouldRetry(deadlock, 0)),
+                () -> assertTrue(policy.shouldRetry(deadlock, 1)),
+                () -> assertFalse(policy.shouldRetry(deadlock, 2)),
+                () -> assertFalse(RetryPolicy.none().shouldRetry(deadlock, 0))
+        );
+    }
+
+    @Test
+    void backoff() {
+        RetryPolicy policy = RetryPolicy.builder().initialBackoffMillis(10).maxBackoffMillis(50).build();
+        for (int i = 0; i < 1_000; i++) {
+            long first = policy.backoffMillis(0);
+            long late = policy.backoffMillis(40);
+            assertTrue(first >= 0 && first <= 10, "first backoff " + first);
+            assertTrue(late >= 0 && late <= 50, "late backoff " + late);
+        }
+    }
+}
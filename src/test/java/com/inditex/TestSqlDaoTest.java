@@ -0,0 +1,492 @@
+package com.inditex;
+
+import com.inditex.TestSqlDao.Order;
+import com.inditex.TestSqlDao.OrderRow;
+import com.inditex.bulk.BulkCopyReport;
+import com.inditex.bulk.CopyPair;
+import com.inditex.bulk.CopyResult;
+import com.inditex.metrics.QueryMetrics;
+import com.inditex.metrics.QuerySnapshot;
+import com.inditex.pool.ConnectionPool;
+import com.inditex.support.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.*;
+
+class TestSqlDaoTest {
+
+    private static final int ORDERS_PER_USER = 5;
+
+    private EmbeddedDatabase database;
+
+    private QueryMetrics metrics;
+
+    private TestSqlDao dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabase(2);
+        database.seed(2, 3, ORDERS_PER_USER);
+        metrics = new QueryMetrics(Long.MAX_VALUE);
+        dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder().instrumentation(metrics).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection connection = database.getPool().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Pedidos del usuario sin su ID ni el del pedido, ordenados, para comparar las copias de los dos caminos
+     */
+    private List<String> copiedOrders(long user) throws SQLException {
+        List<String> orders = new ArrayList<>();
+        try (Connection connection = database.getPool().getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     "SELECT ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION FROM PEDIDOS WHERE ID_USUARIO = ?")) {
+            stmt.setLong(1, user);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(rs.getLong(1) + "|" + rs.getTimestamp(2) + "|" + rs.getDouble(3) + "|" + rs.getDouble(4)
+                            + "|" + rs.getString(5));
+                }
+            }
+        }
+        Collections.sort(orders);
+        return orders;
+    }
+
+    /**
+     * Conexión que delega en la del pool y guarda, para verificarlos, los statements que prepara con la SQL dada
+     */
+    private static Connection recordingStatements(Connection connection, String sql, List<PreparedStatement> statements)
+            throws SQLException {
+        Connection recording = mock(Connection.class, delegatesTo(connection));
+        doAnswer(invocation -> {
+            PreparedStatement statement = mock(PreparedStatement.class, delegatesTo(connection.prepareStatement(sql)));
+            statements.add(statement);
+            return statement;
+        }).when(recording).prepareStatement(sql);
+        return recording;
+    }
+
+    @Test
+    void streamingCopyBatchesLargeResultSets() throws SQLException {
+        int orders = 2_500;
+        database.execute("INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION) "
+                + "SELECT 7, 1 + MOD(X, 2), TIMESTAMP '2023-01-01 00:00:00', X, X / 2, 'Calle 7' FROM SYSTEM_RANGE(1, " + orders + ")");
+        String select = TestSqlDao.getQueries().get("copyUserOrders.streaming");
+        List<PreparedStatement> selects = new CopyOnWriteArrayList<>();
+        ConnectionPool pool = spy(database.getPool());
+        doAnswer(invocation -> recordingStatements((Connection) invocation.callRealMethod(), select, selects)).when(pool).getConnection();
+        TestSqlDao dao = TestSqlDao.newInstance(pool, DaoConfig.builder().instrumentation(metrics).build());
+        int streamed = dao.copyUserOrders(7, 100, CopyOptions.builder().fetchSize(100).batchSize(1_000).transformer(row -> row).build());
+        int inDatabase = dao.copyUserOrders(7, 200);
+        QuerySnapshot streaming = metrics.snapshot().get("copyUserOrders.streaming");
+        assertAll(
+                () -> assertEquals(1, selects.size()),
+                () -> verify(selects.get(0)).setFetchSize(100),
+                () -> assertEquals(orders, streamed),
+                () -> assertEquals(orders, inDatabase),
+                () -> assertEquals(copiedOrders(200), copiedOrders(100)),
+                () -> assertEquals(orders, streaming.getRowsRead()),
+                () -> assertEquals(orders, streaming.getRowsWritten()),
+                () -> assertEquals(3, streaming.getBatchSizes().getCount()),
+                () -> assertEquals(1_000, streaming.getBatchSizes().getMax())
+        );
+    }
+
+    /**
+     * Sin transformer la copia es un único INSERT ... SELECT y devuelve su número de filas; con transformer (aunque
+     * sea la identidad) pasa por el camino de streaming y deja los mismos pedidos
+     */
+    @Test
+    void inDatabaseCopyCountsRowsAndTransformerStreams() throws SQLException {
+        int inDatabase = dao.copyUserOrders(1, 100);
+        int streamed = dao.copyUserOrders(1, 200, CopyOptions.builder().transformer(row -> row).build());
+        int empty = dao.copyUserOrders(999, 300);
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, inDatabase),
+                () -> assertEquals(ORDERS_PER_USER, streamed),
+                () -> assertEquals(0, empty),
+                () -> assertEquals(ORDERS_PER_USER, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 100")),
+                () -> assertEquals(copiedOrders(1), copiedOrders(100)),
+                () -> assertEquals(copiedOrders(100), copiedOrders(200)),
+                () -> assertEquals(2, metrics.getExecutions("copyUserOrders.insertSelect")),
+                () -> assertEquals(ORDERS_PER_USER, metrics.getRowsWritten("copyUserOrders.insertSelect")),
+                () -> assertEquals(0, metrics.getRowsRead("copyUserOrders.insertSelect")),
+                () -> assertEquals(1, metrics.getExecutions("copyUserOrders.streaming")),
+                () -> assertEquals(ORDERS_PER_USER, metrics.getRowsRead("copyUserOrders.streaming"))
+        );
+    }
+
+    /**
+     * Los pedidos insertados directamente en la base de datos solo se ven si se invalida la entrada de su tienda: la
+     * copia del usuario 1 (tienda 1) invalida la tienda 1, por los dos caminos de copia, y deja cacheada la 2
+     */
+    @Test
+    void copyInvalidatesCachedMaxUserOrderIdOfItsStores() throws SQLException {
+        long otherStoreUser = EmbeddedDatabase.userId(2, 0, 3);
+        dao.getMaxUserOrderId(1);
+        Map<Long, Long> cachedOtherStore = dao.getMaxUserOrderId(2);
+        database.execute("INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, TOTAL, SUBTOTAL) VALUES (" + otherStoreUser + ", 2, 10, 10)");
+        dao.copyUserOrders(1, 100);
+        Map<Long, Long> afterInDatabase = dao.getMaxUserOrderId(1);
+        dao.copyUserOrders(1, 200, CopyOptions.builder().transformer(row -> row).build());
+        Map<Long, Long> afterStreaming = dao.getMaxUserOrderId(1);
+        assertAll(
+                () -> assertTrue(afterInDatabase.containsKey(100L)),
+                () -> assertFalse(afterInDatabase.containsKey(200L)),
+                () -> assertTrue(afterStreaming.containsKey(200L)),
+                () -> assertEquals(cachedOtherStore, dao.getMaxUserOrderId(2))
+        );
+    }
+
+    @Test
+    void copyIsIdempotent() throws SQLException {
+        CopyOptions options = CopyOptions.builder().idempotent(true).build();
+        int first = dao.copyUserOrders(1, 100, options);
+        int second = dao.copyUserOrders(1, 100, options);
+        database.execute("INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, TOTAL, SUBTOTAL) VALUES (1, 1, 10, 10)");
+        int afterNewOrder = dao.copyUserOrders(1, 100, options);
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, first),
+                () -> assertEquals(0, second),
+                () -> assertEquals(0, afterNewOrder),
+                () -> assertEquals(ORDERS_PER_USER, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 100")),
+                () -> assertEquals(1, count("SELECT COUNT(*) FROM COPIAS_PEDIDOS"))
+        );
+    }
+
+    @Test
+    void streamingCopyIsIdempotent() throws SQLException {
+        CopyOptions options = CopyOptions.builder().batchSize(2).transformer(row -> row).idempotent(true).build();
+        int first = dao.copyUserOrders(2, 200, options);
+        int second = dao.copyUserOrders(2, 200, options);
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, first),
+                () -> assertEquals(0, second),
+                () -> assertEquals(ORDERS_PER_USER, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 200"))
+        );
+    }
+
+    @Test
+    void nonIdempotentCopy() throws SQLException {
+        dao.copyUserOrders(1, 100);
+        dao.copyUserOrders(1, 100);
+        assertAll(
+                () -> assertEquals(2 * ORDERS_PER_USER, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 100")),
+                () -> assertEquals(0, count("SELECT COUNT(*) FROM COPIAS_PEDIDOS"))
+        );
+    }
+
+    @Test
+    void failedCopyIsRolledBack() throws SQLException {
+        int[] seen = {0};
+        CopyOptions options = CopyOptions.builder().batchSize(1).transformer(row -> {
+            if (++seen[0] == 3) throw new IllegalStateException("boom");
+            return row;
+        }).build();
+        assertThrows(IllegalStateException.class, () -> dao.copyUserOrders(1, 100, options));
+        assertAll(
+                () -> assertEquals(0, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 100")),
+                () -> assertEquals(0, count("SELECT COUNT(*) FROM COPIAS_PEDIDOS")),
+                () -> assertEquals(ORDERS_PER_USER, dao.copyUserOrders(1, 100))
+        );
+    }
+
+    @Test
+    void isolationIsRestored() throws SQLException {
+        int isolation;
+        try (Connection connection = database.getPool().getConnection()) {
+            isolation = connection.getTransactionIsolation();
+        }
+        dao.copyUserOrders(1, 100, CopyOptions.builder().isolation(Connection.TRANSACTION_SERIALIZABLE).build());
+        try (Connection connection = database.getPool().getConnection()) {
+            assertAll(
+                    () -> assertEquals(isolation, connection.getTransactionIsolation()),
+                    () -> assertTrue(connection.getAutoCommit())
+            );
+        }
+    }
+
+    @Test
+    void bulkCopyReportsFailuresInInputOrder() throws InterruptedException {
+        List<CopyPair> pairs = List.of(CopyPair.of(1, 100), CopyPair.of(2, 666), CopyPair.of(3, 300), CopyPair.of(4, 400));
+        CopyOptions options = CopyOptions.builder().transformer(row -> {
+            if (row.getUserId() == 666) throw new IllegalStateException("boom");
+            return row;
+        }).build();
+        BulkCopyReport report = dao.copyUserOrders(pairs, 2, options);
+        assertAll(
+                () -> assertEquals(pairs, report.getResults().stream().map(CopyResult::getPair).collect(Collectors.toList())),
+                () -> assertEquals(List.of(CopyPair.of(2, 666)), report.getFailures().stream().map(CopyResult::getPair).collect(Collectors.toList())),
+                () -> assertInstanceOf(IllegalStateException.class, report.getFailures().get(0).getFailure()),
+                () -> assertEquals(3, report.getSucceededCount()),
+                () -> assertEquals(3 * ORDERS_PER_USER, report.getCopiedOrders()),
+                () -> assertEquals(ORDERS_PER_USER, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 400")),
+                () -> assertEquals(0, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 666"))
+        );
+    }
+
+    /**
+     * Con un pool de 8 conexiones el límite lo marca parallelism: el transformer cuenta las copias que están dentro a
+     * la vez
+     */
+    @Test
+    void bulkCopyNeverExceedsParallelism() throws SQLException, InterruptedException {
+        int parallelism = 3;
+        try (EmbeddedDatabase database = new EmbeddedDatabase(8)) {
+            database.seed(4, 4, 2);
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxInFlight = new AtomicInteger();
+            CopyOptions options = CopyOptions.builder().transformer(row -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return row;
+            }).build();
+            List<CopyPair> pairs = LongStream.rangeClosed(1, 16)
+                    .mapToObj(user -> CopyPair.of(user, 1_000 + user))
+                    .collect(Collectors.toList());
+            BulkCopyReport report = TestSqlDao.newInstance(database.getPool()).copyUserOrders(pairs, parallelism, options);
+            assertAll(
+                    () -> assertTrue(report.getFailures().isEmpty()),
+                    () -> assertEquals(32, report.getCopiedOrders()),
+                    () -> assertTrue(maxInFlight.get() <= parallelism, "max in flight " + maxInFlight.get()),
+                    () -> assertTrue(maxInFlight.get() > 1, "copies did not run concurrently")
+            );
+        }
+    }
+
+    /**
+     * Deja sin confirmar, en otra transacción, el registro del par en COPIAS_PEDIDOS: la copia idempotente del mismo
+     * par espera al bloqueo en su INSERT hasta que se cancela, vence su timeout o se deshace esta transacción
+     */
+    private Connection lockCopy(long idUserOri, long idUserDes) throws SQLException {
+        Connection blocker = database.getPool().getConnection();
+        blocker.setAutoCommit(false);
+        try (Statement statement = blocker.createStatement()) {
+            statement.execute("INSERT INTO COPIAS_PEDIDOS (ID_USUARIO_ORIGEN, ID_USUARIO_DESTINO) VALUES ("
+                    + idUserOri + ", " + idUserDes + ")");
+        }
+        return blocker;
+    }
+
+    @Test
+    void cancelAsyncCancelsRunningStatement() throws Exception {
+        CopyOptions options = CopyOptions.builder().idempotent(true).build();
+        try (Connection blocker = lockCopy(1, 100)) {
+            CompletableFuture<Integer> copy = dao.copyUserOrdersAsync(1, 100, options, 0);
+            Thread.sleep(200);
+            boolean waitingForLock = !copy.isDone();
+            long start = System.nanoTime();
+            copy.cancel(true);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (metrics.getFailures("copyUserOrders.insertSelect") == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            long cancelMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            blocker.rollback();
+            assertAll(
+                    () -> assertTrue(waitingForLock),
+                    () -> assertTrue(copy.isCancelled()),
+                    () -> assertEquals(1, metrics.getFailures("copyUserOrders.insertSelect")),
+                    () -> assertTrue(cancelMillis < 5_000, "statement not cancelled after " + cancelMillis + " ms"),
+                    () -> assertEquals(0, count("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = 100"))
+            );
+        }
+    }
+
+    @Test
+    void asyncTimeoutReachesStatement() throws Exception {
+        CopyOptions options = CopyOptions.builder().idempotent(true).retryPolicy(RetryPolicy.none()).build();
+        try (Connection blocker = lockCopy(1, 100)) {
+            CompletableFuture<Integer> copy = dao.copyUserOrdersAsync(1, 100, options, 1);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> copy.get(5, TimeUnit.SECONDS));
+            blocker.rollback();
+            assertInstanceOf(SQLTimeoutException.class, failure.getCause());
+        }
+    }
+
+    /**
+     * La segunda llamada a getMaxUserOrderId sale de la caché y no cuenta como ejecución. Con umbral 0 toda consulta
+     * se registra como lenta; la copia fallida cuenta en failures y no en executions
+     */
+    @Test
+    void instrumentationRecordsExecutionsFailuresAndSlowQueries() throws SQLException {
+        List<LogRecord> records = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(QueryMetrics.class.getName());
+        logger.addHandler(handler);
+        try {
+            dao.getMaxUserOrderId(1);
+            boolean loggedAboveThreshold = !records.isEmpty();
+            metrics.setSlowQueryThresholdMillis(0);
+            dao.getMaxUserOrderId(1);
+            dao.getMaxUserOrderId(2);
+            database.close();
+            assertThrows(SQLException.class, () -> dao.copyUserOrders(1, 100));
+            assertAll(
+                    () -> assertFalse(loggedAboveThreshold),
+                    () -> assertEquals(1, records.size()),
+                    () -> assertEquals(Level.WARNING, records.get(0).getLevel()),
+                    () -> assertTrue(records.get(0).getMessage().startsWith("Slow query getMaxUserOrderId")),
+                    () -> assertEquals(2, metrics.getExecutions("getMaxUserOrderId")),
+                    () -> assertEquals(0, metrics.getFailures("getMaxUserOrderId")),
+                    () -> assertEquals(6, metrics.getRowsRead("getMaxUserOrderId")),
+                    () -> assertTrue(metrics.getLatencyPercentileMillis("getMaxUserOrderId", 50) > 0),
+                    () -> assertEquals(0, metrics.getExecutions("copyUserOrders.insertSelect")),
+                    () -> assertEquals(1, metrics.getFailures("copyUserOrders.insertSelect")),
+                    () -> assertTrue(metrics.getConnectionAcquisitions() >= 2)
+            );
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    private List<Long> orderIds(String where) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = database.getPool().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT ID_PEDIDO FROM PEDIDOS WHERE " + where + " ORDER BY ID_PEDIDO")) {
+            while (rs.next()) ids.add(rs.getLong(1));
+        }
+        return ids;
+    }
+
+    /**
+     * La tienda 1 tiene 15 pedidos: con páginas de 4 se leen 3 páginas completas y una de 3. Los pedidos del usuario
+     * (5) con páginas de 5 necesitan una última página vacía para saber que no hay más
+     */
+    @Test
+    void streamsReturnEveryOrderOnceInKeyOrder() throws SQLException {
+        List<Long> storeOrders;
+        try (Stream<OrderRow> orders = dao.streamStoreOrders(1, 4)) {
+            storeOrders = orders.map(OrderRow::getOrderId).collect(Collectors.toList());
+        }
+        List<Long> userOrders;
+        try (Stream<OrderRow> orders = dao.streamUserOrders(2, ORDERS_PER_USER)) {
+            userOrders = orders.map(OrderRow::getOrderId).collect(Collectors.toList());
+        }
+        assertAll(
+                () -> assertEquals(orderIds("ID_TIENDA = 1"), storeOrders),
+                () -> assertEquals(3 * ORDERS_PER_USER, storeOrders.size()),
+                () -> assertEquals(4, metrics.getExecutions("streamStoreOrders.page")),
+                () -> assertEquals(orderIds("ID_USUARIO = 2"), userOrders),
+                () -> assertEquals(2, metrics.getExecutions("streamUserOrders.page")),
+                () -> assertEquals(0, database.getPool().getMetrics().getActive())
+        );
+    }
+
+    /**
+     * Al cerrar el Stream tras el primer pedido se cancela la página que se estaba pidiendo: no se leen más páginas y
+     * todas las conexiones vuelven al pool
+     */
+    @Test
+    void closingStreamEarlyReleasesConnections() throws Exception {
+        OrderRow first;
+        try (Stream<OrderRow> orders = dao.streamStoreOrders(1, 2)) {
+            first = orders.iterator().next();
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (database.getPool().getMetrics().getActive() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        Thread.sleep(100);
+        long pages = metrics.getExecutions("streamStoreOrders.page") + metrics.getFailures("streamStoreOrders.page");
+        assertAll(
+                () -> assertEquals(orderIds("ID_TIENDA = 1").get(0), first.getOrderId()),
+                () -> assertTrue(pages <= 2, "pages read after close: " + pages),
+                () -> assertEquals(0, database.getPool().getMetrics().getActive())
+        );
+    }
+
+    @Test
+    void nonTransientErrorsAreNotRetried() {
+        database.close();
+        assertThrows(SQLException.class, () -> dao.copyUserOrders(1, 100));
+        assertEquals(0, metrics.getRetries("copyUserOrders.insertSelect"));
+    }
+
+    /**
+     * 1, 3 y 4 tiendas ejercitan el relleno de la lista IN hasta la siguiente potencia de dos y 513 el corte en
+     * bloques de 512. La última tienda tiene un usuario cuyo ID no cabe en un int
+     */
+    @Test
+    void userMaxOrdersMatchesUserMaxOrder() throws SQLException {
+        int stores = 513;
+        try (EmbeddedDatabase database = new EmbeddedDatabase(2)) {
+            database.seed(stores - 1, 2, 3);
+            long largeUserId = Integer.MAX_VALUE + 1L;
+            database.execute("INSERT INTO USUARIOS (ID_USUARIO, NOMBRE, DIRECCION) VALUES (" + largeUserId + ", 'Grande', 'Calle')");
+            database.execute("INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, TOTAL, SUBTOTAL) VALUES (" + largeUserId + ", " + stores + ", 10, 10)");
+            TestSqlDao dao = TestSqlDao.newInstance(database.getPool());
+            for (int size : new int[]{1, 3, 4, stores}) {
+                List<Long> storeIds = LongStream.rangeClosed(stores - size + 1, stores).boxed().collect(Collectors.toList());
+                Map<Long, Order> orders = dao.getUserMaxOrders(storeIds);
+                assertEquals(size, orders.size(), "stores: " + size);
+                for (long store : storeIds) {
+                    Optional<Order> expected = dao.getUserMaxOrder(store);
+                    Order actual = orders.get(store);
+                    assertAll("store " + store + " of " + size,
+                            () -> assertTrue(expected.isPresent()),
+                            () -> assertEquals(expected.get().getUserId(), actual.getUserId()),
+                            () -> assertEquals(expected.get().getOrderId(), actual.getOrderId()),
+                            () -> assertEquals(expected.get().getName(), actual.getName()),
+                            () -> assertEquals(expected.get().getAddress(), actual.getAddress())
+                    );
+                }
+            }
+            assertEquals(largeUserId, dao.getUserMaxOrder(stores).orElseThrow().getUserId());
+        }
+    }
+}
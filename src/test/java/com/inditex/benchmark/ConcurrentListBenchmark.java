@@ -0,0 +1,74 @@
+package com.inditex.benchmark;
+
+import com.inditex.linkedlist.ConcurrentLinkedList;
+import com.inditex.linkedlist.LinkedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de productores y consumidores compartiendo una lista de ids pendientes
+ *  - ConcurrentLinkedList: sin bloqueos
+ *  - synchronized: LinkedList protegida por un único monitor, como se hacía hasta ahora
+ * Cada uno de los 4 hilos añade un id al final y extrae otro del principio, con lo que la lista no crece sin límite
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="ConcurrentListBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ConcurrentListBenchmark {
+
+    private static final Long ID = 42L;
+
+    @Param({"ConcurrentLinkedList", "synchronized"})
+    private String implementation;
+
+    private SharedList list;
+
+    private interface SharedList {
+        void append(Long element);
+
+        Long poll();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if ("ConcurrentLinkedList".equals(implementation)) {
+            ConcurrentLinkedList<Long> concurrent = ConcurrentLinkedList.getInstance();
+            list = new SharedList() {
+                @Override
+                public void append(Long element) {
+                    concurrent.addLast(element);
+                }
+
+                @Override
+                public Long poll() {
+                    return concurrent.pollFirst();
+                }
+            };
+        } else {
+            LinkedList<Long> linked = LinkedList.getInstance();
+            list = new SharedList() {
+                @Override
+                public synchronized void append(Long element) {
+                    linked.add(element);
+                }
+
+                @Override
+                public synchronized Long poll() {
+                    return linked.isEmpty() ? null : linked.remove(0);
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    public Long appendAndPoll() {
+        list.append(ID);
+        return list.poll();
+    }
+}
@@ -0,0 +1,24 @@
+package com.inditex.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Contador auxiliar de JMH con el coste en bytes por elemento de una estructura sin contar los propios elementos,
+ * medido con JOL. JMH lo publica como resultado secundario (footprint:bytesPerElement) de la prueba que lo recibe
+ * Los contadores EVENTS se suman entre iteraciones, por lo que esa prueba se mide con una única iteración
+ * (SingleShotTime) y su tiempo no es significativo. Sin medir vale NaN
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class Footprint {
+
+    public double bytesPerElement = Double.NaN;
+
+    void measure(Object structure, Object[] elements) {
+        long overhead = GraphLayout.parseInstance(structure).totalSize() - GraphLayout.parseInstance(elements).totalSize();
+        bytesPerElement = (double) overhead / elements.length;
+    }
+}
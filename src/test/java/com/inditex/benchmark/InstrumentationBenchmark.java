@@ -0,0 +1,68 @@
+package com.inditex.benchmark;
+
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.metrics.QueryInstrumentation;
+import com.inditex.metrics.QueryMetrics;
+import com.inditex.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de la instrumentación en el camino caliente
+ *  - instrumentation: none (NOOP), disabled (QueryMetrics desactivado) o enabled
+ *  - record: coste de registrar una ejecución. Con -prof gc debe dar 0 B/op en los tres casos
+ *  - getUserMaxOrder: consulta completa contra H2, para ver la sobrecarga relativa
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="InstrumentationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({"none", "disabled", "enabled"})
+    private String instrumentation;
+
+    private QueryInstrumentation recorder;
+
+    private EmbeddedDatabase database;
+
+    private TestSqlDao dao;
+
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        if ("none".equals(instrumentation)) {
+            recorder = QueryInstrumentation.NOOP;
+        } else {
+            QueryMetrics metrics = new QueryMetrics(Long.MAX_VALUE / 1_000_000);
+            metrics.setEnabled("enabled".equals(instrumentation));
+            recorder = metrics;
+        }
+        database = new EmbeddedDatabase(2);
+        database.seed(10, 50, 5);
+        dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder().instrumentation(recorder).build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void record() {
+        if (recorder.isEnabled()) recorder.executed("benchmark", 1_000 + (counter++ & 1023), 1, 0);
+    }
+
+    @Benchmark
+    public Optional<TestSqlDao.Order> getUserMaxOrder() throws SQLException {
+        return dao.getUserMaxOrder(1 + (counter++ % 10));
+    }
+}
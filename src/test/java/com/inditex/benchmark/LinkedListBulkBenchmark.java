@@ -0,0 +1,89 @@
+package com.inditex.benchmark;
+
+import com.inditex.linkedlist.LinkedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones masivas sobre listas de 1M de elementos, frente a java.util.LinkedList como referencia
+ *  - addAll: empalme de una cadena ya enlazada
+ *  - removeAll / retainAll / containsAll: argumento de ARGUMENT_SIZE elementos en un ArrayList, sin índice hash propio
+ *  - removeIf: elimina la mitad de los elementos en una pasada
+ *  - toArray: copia a un Integer[]
+ * Las operaciones que modifican la lista la reconstruyen antes de cada invocación (fuera de la medida)
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="LinkedListBulkBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class LinkedListBulkBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    private static final int ARGUMENT_SIZE = 1_000;
+
+    @Param({"LinkedList", "java.util.LinkedList"})
+    private String implementation;
+
+    private List<Integer> values;
+
+    private List<Integer> argument;
+
+    private List<Integer> list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) values.add(i);
+        argument = new ArrayList<>(ARGUMENT_SIZE);
+        for (int i = 0; i < ARGUMENT_SIZE; i++) argument.add(i * (SIZE / ARGUMENT_SIZE));
+    }
+
+    @Setup(Level.Invocation)
+    public void fill() {
+        list = newList();
+        list.addAll(values);
+    }
+
+    private List<Integer> newList() {
+        return "LinkedList".equals(implementation) ? LinkedList.getInstance() : new java.util.LinkedList<>();
+    }
+
+    @Benchmark
+    public List<Integer> addAll() {
+        List<Integer> target = newList();
+        target.addAll(values);
+        return target;
+    }
+
+    @Benchmark
+    public boolean removeAll() {
+        return list.removeAll(argument);
+    }
+
+    @Benchmark
+    public boolean retainAll() {
+        return list.retainAll(argument);
+    }
+
+    @Benchmark
+    public boolean containsAll() {
+        return list.containsAll(argument);
+    }
+
+    @Benchmark
+    public boolean removeIf() {
+        return list.removeIf(element -> (element & 1) == 0);
+    }
+
+    @Benchmark
+    public Integer[] toArray() {
+        return list.toArray(new Integer[0]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.inditex.benchmark;
+
+import com.inditex.linkedlist.LinkedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LinkedList con y sin índice hash usada como cola ordenada de ids sin duplicados
+ *  - containsMissing: contains de un id que no está
+ *  - removeAndAppend: elimina un id presente en posición pseudoaleatoria y lo vuelve a añadir al final
+ *  - footprint: coste en bytes por elemento de la lista sin contar los propios elementos (Footprint), de modo que la
+ *    diferencia entre indexed=true y false es el coste del índice. Con más de FOOTPRINT_LIMIT elementos no se mide
+ * Los 10M elementos con índice necesitan del orden de 1 GB de heap, de ahí el -Xmx del fork
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="LinkedListIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LinkedListIndexBenchmark {
+
+    private static final int FOOTPRINT_LIMIT = 1_000_000;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    @Param({"100000", "1000000", "10000000"})
+    private int size;
+
+    private LinkedList<Long> list;
+
+    private Long[] values;
+
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = indexed ? LinkedList.getIndexedInstance() : LinkedList.getInstance();
+        values = new Long[size];
+        for (int i = 0; i < size; i++) values[i] = (long) i;
+        for (Long value : values) list.add(value);
+    }
+
+    @Benchmark
+    public boolean containsMissing() {
+        return list.contains(-1L);
+    }
+
+    @Benchmark
+    public boolean removeAndAppend() {
+        counter = counter * 1_103_515_245 + 12_345;
+        Long id = (long) ((counter >>> 1) % size);
+        boolean removed = list.remove(id);
+        list.add(id);
+        return removed;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void footprint(Footprint footprint) {
+        if (size <= FOOTPRINT_LIMIT) footprint.measure(list, values);
+    }
+}
@@ -0,0 +1,73 @@
+package com.inditex.benchmark;
+
+import com.inditex.linkedlist.LinkedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+
+/**
+ * Escalado de parallelStream() sobre LinkedList de 1M de elementos según el número de hilos del ForkJoinPool
+ *  - spliterator=LinkedList: el Spliterator propio (SIZED/SUBSIZED, lotes en arrays crecientes)
+ *  - spliterator=Iterator: Spliterators.spliterator(iterator, ...) como referencia de un Spliterator genérico
+ * Cada elemento pasa por una función de mezcla para que el trabajo por elemento no sea despreciable frente al recorrido
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="LinkedListStreamBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkedListStreamBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    @Param({"LinkedList", "Iterator"})
+    private String spliterator;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private LinkedList<Integer> list;
+
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = LinkedList.getInstance();
+        for (int i = 0; i < SIZE; i++) list.add(i);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long parallelSum() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> StreamSupport.stream(newSpliterator(), true)
+                .mapToLong(LinkedListStreamBenchmark::mix)
+                .sum()).get();
+    }
+
+    private Spliterator<Integer> newSpliterator() {
+        if ("LinkedList".equals(spliterator)) return list.spliterator();
+        return Spliterators.spliterator(list.iterator(), list.size(), Spliterator.ORDERED);
+    }
+
+    private static long mix(int value) {
+        long x = value;
+        for (int i = 0; i < 16; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        return x;
+    }
+}
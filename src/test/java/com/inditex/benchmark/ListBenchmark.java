@@ -0,0 +1,128 @@
+package com.inditex.benchmark;
+
+import com.inditex.linkedlist.CircularArrayList;
+import com.inditex.linkedlist.LinkedList;
+import com.inditex.linkedlist.UnrolledLinkedList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Comparativa de las implementaciones de com.inditex.linkedlist
+ *  - iterate: recorrido completo con el iterador
+ *  - containsMissing: contains de un elemento que no está (recorrido completo comparando)
+ *  - indexedGet: get(i) en posiciones pseudoaleatorias
+ *  - append / prepend: construcción de una lista de size elementos añadiendo siempre al final / al principio
+ *  - insertMiddle: construcción insertando siempre en la mitad (O(n^2) en las dos, limitada a MIDDLE_LIMIT elementos)
+ *  - footprint: coste en bytes por elemento de la estructura sin contar los propios elementos (Footprint)
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="ListBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListBenchmark {
+
+    private static final int MIDDLE_LIMIT = 10_000;
+
+    @Param({"LinkedList", "CircularArrayList", "UnrolledLinkedList"})
+    private String implementation;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private Collection<Integer> list;
+
+    private IntFunction<Integer> get;
+
+    private int counter;
+
+    /*
+     * Elementos ya creados para no medir el boxing
+     */
+    private Integer[] values;
+
+    @FunctionalInterface
+    private interface IndexedList {
+        void add(int index, Integer element);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new Integer[size];
+        for (int i = 0; i < size; i++) values[i] = i;
+        if ("LinkedList".equals(implementation)) {
+            LinkedList<Integer> linked = LinkedList.getInstance();
+            list = linked;
+            get = linked::get;
+        } else if ("CircularArrayList".equals(implementation)) {
+            CircularArrayList<Integer> circular = CircularArrayList.getInstance();
+            list = circular;
+            get = circular::get;
+        } else {
+            UnrolledLinkedList<Integer> unrolled = UnrolledLinkedList.getInstance();
+            list = unrolled;
+            get = unrolled::get;
+        }
+        Collections.addAll(list, values);
+    }
+
+    private IndexedList newList() {
+        if ("LinkedList".equals(implementation)) return LinkedList.<Integer>getInstance()::add;
+        if ("CircularArrayList".equals(implementation)) return CircularArrayList.<Integer>getInstance()::add;
+        return UnrolledLinkedList.<Integer>getInstance()::add;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Integer element : list) blackhole.consume(element);
+    }
+
+    @Benchmark
+    public boolean containsMissing() {
+        return list.contains(-1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Integer indexedGet() {
+        counter = counter * 1_103_515_245 + 12_345;
+        return get.apply((counter >>> 1) % size);
+    }
+
+    @Benchmark
+    public IndexedList append() {
+        IndexedList target = newList();
+        for (int i = 0; i < size; i++) target.add(i, values[i]);
+        return target;
+    }
+
+    @Benchmark
+    public IndexedList prepend() {
+        IndexedList target = newList();
+        for (int i = 0; i < size; i++) target.add(0, values[i]);
+        return target;
+    }
+
+    @Benchmark
+    public IndexedList insertMiddle() {
+        IndexedList target = newList();
+        int elements = Math.min(size, MIDDLE_LIMIT);
+        for (int i = 0; i < elements; i++) target.add(i / 2, values[i]);
+        return target;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void footprint(Footprint footprint) {
+        footprint.measure(list, values);
+    }
+}
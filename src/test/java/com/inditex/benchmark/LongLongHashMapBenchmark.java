@@ -0,0 +1,40 @@
+package com.inditex.benchmark;
+
+import com.inditex.collection.LongLongHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción del resultado de getMaxUserOrderId (usuario -> máximo ID de pedido) para users usuarios con el
+ * Hashtable anterior y con el mapa primitivo dimensionado de antemano
+ * La memoria asignada por construcción es la métrica gc.alloc.rate.norm del profiler gc (bytes por operación)
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="LongLongHashMapBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongLongHashMapBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int users;
+
+    @Benchmark
+    public Map<Long, Long> hashtable() {
+        Hashtable<Long, Long> map = new Hashtable<>();
+        for (long user = 1; user <= users; user++) map.put(user * 31, user * 1_000);
+        return map;
+    }
+
+    @Benchmark
+    public LongLongHashMap longLongHashMap() {
+        LongLongHashMap map = new LongLongHashMap(users);
+        for (long user = 1; user <= users; user++) map.put(user * 31, user * 1_000);
+        return map;
+    }
+}
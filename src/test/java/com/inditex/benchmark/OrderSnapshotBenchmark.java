@@ -0,0 +1,89 @@
+package com.inditex.benchmark;
+
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.TestSqlDao.Order;
+import com.inditex.TestSqlDao.OrderRow;
+import com.inditex.collection.LongLongMap;
+import com.inditex.snapshot.OrderSnapshot;
+import com.inditex.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Último pedido por usuario y pedido de mayor importe de una tienda resueltos con SQL (H2 embebida, sin caché) y
+ * desde la instantánea columnar mapeada en memoria
+ *  - Con -prof gc se comprueba que las consultas a la instantánea solo asignan el resultado
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="OrderSnapshotBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSnapshotBenchmark {
+
+    private static final long STORE = 1;
+
+    @Param("1000")
+    private int usersPerStore;
+
+    @Param("100")
+    private int ordersPerUser;
+
+    private EmbeddedDatabase database;
+
+    private TestSqlDao dao;
+
+    private Path directory;
+
+    private OrderSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        database = new EmbeddedDatabase(2);
+        database.seed(1, usersPerStore, ordersPerUser);
+        dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder().maxUserOrderIdCacheTtlMillis(0).build());
+        directory = Files.createTempDirectory("order-snapshot");
+        dao.newSnapshotExporter(directory).export(STORE);
+        snapshot = OrderSnapshot.open(directory, STORE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        snapshot.close();
+        database.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public LongLongMap maxUserOrderIdsSql() throws SQLException {
+        return dao.getMaxUserOrderIdMap(STORE);
+    }
+
+    @Benchmark
+    public LongLongMap maxUserOrderIdsSnapshot() {
+        return snapshot.getMaxUserOrderIds();
+    }
+
+    @Benchmark
+    public Optional<Order> maxOrderSql() throws SQLException {
+        return dao.getUserMaxOrder(STORE);
+    }
+
+    @Benchmark
+    public Optional<OrderRow> maxOrderSnapshot() {
+        return snapshot.getMaxOrder();
+    }
+}
@@ -0,0 +1,101 @@
+package com.inditex.benchmark;
+
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks de TestSqlDao contra una base de datos H2 embebida en modo MySQL, sin necesidad de red
+ *  - Throughput y SampleTime (percentiles de latencia); con -prof gc se obtiene la tasa de asignación
+ *  - El volumen de datos se configura con los @Param stores, usersPerStore y ordersPerUser
+ *  - La caché de getMaxUserOrderId se desactiva para medir la consulta (cacheTtlMillis > 0 la activa)
+ *  - materializedView=true sirve getMaxUserOrderId y getUserMaxOrder desde la vista materializada
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="TestSqlDaoBenchmark -prof gc -p ordersPerUser=50"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestSqlDaoBenchmark {
+
+    @Param("20")
+    private int stores;
+
+    @Param("100")
+    private int usersPerStore;
+
+    @Param("10")
+    private int ordersPerUser;
+
+    @Param("0")
+    private long cacheTtlMillis;
+
+    @Param("false")
+    private boolean materializedView;
+
+    private EmbeddedDatabase database;
+
+    private TestSqlDao dao;
+
+    private long copyTarget;
+
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new EmbeddedDatabase(4);
+        database.seed(stores, usersPerStore, ordersPerUser);
+        dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .maxUserOrderIdCacheTtlMillis(cacheTtlMillis)
+                .materializedView(materializedView)
+                .build());
+    }
+
+    /**
+     * Elimina los pedidos copiados en la iteración anterior (y su registro de idempotencia) para que el volumen de
+     * datos no crezca y los pares (origen, destino) se vuelvan a copiar
+     */
+    @Setup(Level.Iteration)
+    public void resetCopies() throws SQLException {
+        long lastSeededUser = (long) stores * usersPerStore;
+        database.execute("DELETE FROM PEDIDOS WHERE ID_USUARIO > " + lastSeededUser);
+        database.execute("DELETE FROM COPIAS_PEDIDOS");
+        copyTarget = lastSeededUser;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Map<Long, Long> getMaxUserOrderId() throws SQLException {
+        return dao.getMaxUserOrderId(1 + (counter++ % stores));
+    }
+
+    @Benchmark
+    public int copyUserOrders() throws SQLException {
+        return dao.copyUserOrders(1 + (counter++ % ((long) stores * usersPerStore)), ++copyTarget);
+    }
+
+    @Benchmark
+    public long streamStoreOrders() {
+        try (Stream<TestSqlDao.OrderRow> orders = dao.streamStoreOrders(1 + (counter++ % stores), 500)) {
+            return orders.mapToLong(TestSqlDao.OrderRow::getOrderId).sum();
+        }
+    }
+
+    @Benchmark
+    public Optional<TestSqlDao.Order> getUserMaxOrder() throws SQLException {
+        return dao.getUserMaxOrder(1 + (counter++ % stores));
+    }
+}
@@ -0,0 +1,91 @@
+package com.inditex.benchmark;
+
+import com.inditex.CopyOptions;
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.support.EmbeddedDatabase;
+import com.inditex.writebehind.WriteBehindConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copias concurrentes de pedidos en streaming (con transformer, de modo que las filas pasan por el cliente) desde 16
+ * hilos, cada una en su propia transacción o agrupadas por la escritura diferida (writeBehind=true)
+ * Además de las copias, JMH publica como contadores auxiliares (Copies) las filas copiadas y las copias fallidas por
+ * unidad de tiempo; el tamaño de lote y la latencia de escritura de la cola se consultan en WriteBehindMetrics
+ * En H2 en memoria el coste de cada commit es mínimo; la diferencia relevante se mide contra MySQL, donde cada commit
+ * es un fsync del redo log
+ * H2 2.2 asigna a veces el mismo AUTO_INCREMENT a inserts concurrentes de transacciones distintas, lo que hace fallar
+ * algunas copias con writeBehind=false (con la escritura diferida solo inserta un hilo). Las copias fallidas se
+ * cuentan en lugar de abortar la medición
+ * Ejecución: mvn -Pbenchmark test -Djmh.args="WriteBehindBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class WriteBehindBenchmark {
+
+    private static final CopyOptions STREAMING = CopyOptions.builder().transformer(row -> row).build();
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    @Param("200")
+    private int usersPerStore;
+
+    @Param("10")
+    private int ordersPerUser;
+
+    private EmbeddedDatabase database;
+
+    private TestSqlDao dao;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final AtomicLong copyTarget = new AtomicLong();
+
+    /**
+     * Contadores de cada hilo, que JMH suma y divide por el tiempo de la iteración
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Copies {
+        public long rows;
+        public long failedCopies;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new EmbeddedDatabase(16);
+        database.seed(1, usersPerStore, ordersPerUser);
+        dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .writeBehind(writeBehind ? WriteBehindConfig.defaults() : null)
+                .build());
+        copyTarget.set(usersPerStore);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dao.getWriteBehindQueue().ifPresent(queue -> queue.close());
+        database.close();
+    }
+
+    @Benchmark
+    public int copyUserOrders(Copies copies) {
+        try {
+            int rows = dao.copyUserOrders(1 + counter.getAndIncrement() % usersPerStore, copyTarget.incrementAndGet(), STREAMING);
+            copies.rows += rows;
+            return rows;
+        } catch (SQLException e) {
+            copies.failedCopies++;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.inditex.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadingCacheTest {
+
+    private LoadingCache<Long, String> cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LoadingCache<>(2, 1, TimeUnit.HOURS);
+        loads = new AtomicInteger();
+    }
+
+    private String load(Long key) {
+        loads.incrementAndGet();
+        return "value-" + key;
+    }
+
+    @Test
+    void get() throws SQLException {
+        assertEquals("value-1", cache.get(1L, this::load));
+        assertEquals("value-1", cache.get(1L, this::load));
+        assertAll(
+                () -> assertEquals(1, loads.get()),
+                () -> assertEquals(1, cache.getHitCount()),
+                () -> assertEquals(1, cache.getMissCount())
+        );
+    }
+
+    @Test
+    void expiration() throws SQLException {
+        LoadingCache<Long, String> expiring = new LoadingCache<>(2, 0, TimeUnit.MILLISECONDS);
+        expiring.get(1L, this::load);
+        expiring.get(1L, this::load);
+        assertAll(
+                () -> assertEquals(2, loads.get()),
+                () -> assertNull(expiring.getIfPresent(1L))
+        );
+    }
+
+    @Test
+    void eviction() throws SQLException {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(1L, this::load);
+        cache.get(3L, this::load);
+        assertAll(
+                () -> assertEquals(2, cache.size()),
+                () -> assertEquals(1, cache.getEvictionCount()),
+                () -> assertNotNull(cache.getIfPresent(1L)),
+                () -> assertNull(cache.getIfPresent(2L)),
+                () -> assertNotNull(cache.getIfPresent(3L))
+        );
+    }
+
+    @Test
+    void invalidate() throws SQLException {
+        cache.get(1L, this::load);
+        cache.invalidate(1L);
+        assertNull(cache.getIfPresent(1L));
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadFailure() {
+        assertThrows(SQLException.class, () -> cache.get(1L, key -> {
+            throw new SQLException("boom");
+        }));
+        assertNull(cache.getIfPresent(1L));
+    }
+
+    @Test
+    void singleFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> cache.get(1L, key -> {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return load(key);
+            })));
+            loading.await();
+            for (int i = 0; i < 3; i++) futures.add(executor.submit(() -> cache.get(1L, this::load)));
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<String> future : futures) assertEquals("value-1", future.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.inditex.collection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    private LongLongHashMap map;
+
+    @BeforeEach
+    void setUp() {
+        map = new LongLongHashMap();
+    }
+
+    @Test
+    void put() {
+        map.put(3, 30);
+        map.put(0, 1);
+        long previous = map.put(3, 31);
+        assertAll(
+                () -> assertEquals(30, previous),
+                () -> assertEquals(2, map.size()),
+                () -> assertEquals(31, map.get(3, -1)),
+                () -> assertEquals(1, map.get(0, -1)),
+                () -> assertEquals(-1, map.get(7, -1)),
+                () -> assertTrue(map.containsKey(0)),
+                () -> assertFalse(map.containsKey(7))
+        );
+    }
+
+    @Test
+    void putIfGreater() {
+        map.put(1, 10);
+        assertAll(
+                () -> assertFalse(map.putIfGreater(1, 5)),
+                () -> assertTrue(map.putIfGreater(1, 15)),
+                () -> assertTrue(map.putIfGreater(2, -5)),
+                () -> assertEquals(15, map.get(1, 0)),
+                () -> assertEquals(-5, map.get(2, 0))
+        );
+    }
+
+    @Test
+    void rehash() {
+        for (long i = -5_000; i < 5_000; i++) map.put(i, i * 2);
+        assertEquals(10_000, map.size());
+        for (long i = -5_000; i < 5_000; i++) assertEquals(i * 2, map.get(i, Long.MIN_VALUE));
+    }
+
+    @Test
+    void copy() {
+        map.put(0, 1);
+        map.put(5, 50);
+        LongLongHashMap copy = map.copy();
+        copy.put(5, 51);
+        for (long i = 100; i < 200; i++) copy.put(i, i);
+        assertAll(
+                () -> assertEquals(2, map.size()),
+                () -> assertEquals(50, map.get(5, -1)),
+                () -> assertEquals(102, copy.size()),
+                () -> assertEquals(51, copy.get(5, -1)),
+                () -> assertEquals(1, copy.get(0, -1)),
+                () -> assertEquals(150, copy.get(150, -1))
+        );
+    }
+
+    @Test
+    void asMap() {
+        Map<Long, Long> expected = new HashMap<>();
+        for (long i = 0; i < 100; i++) {
+            map.put(i, i + 1);
+            expected.put(i, i + 1);
+        }
+        Map<Long, Long> adapter = map.readOnly().asMap();
+        assertAll(
+                () -> assertEquals(expected, adapter),
+                () -> assertEquals(expected.hashCode(), adapter.hashCode()),
+                () -> assertEquals(1L, adapter.get(0L)),
+                () -> assertNull(adapter.get(1_000L)),
+                () -> assertNull(adapter.get("0")),
+                () -> assertThrows(UnsupportedOperationException.class, () -> adapter.put(1L, 1L))
+        );
+    }
+
+    @Test
+    void forEach() {
+        map.put(0, 1);
+        map.put(5, 6);
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(Map.of(0L, 1L, 5L, 6L), visited);
+    }
+}
@@ -0,0 +1,84 @@
+package com.inditex.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class QueryContextTest {
+
+    @Test
+    void applyWithoutContext() throws SQLException {
+        Statement statement = mock(Statement.class);
+        QueryContext.apply(statement);
+        verify(statement).setQueryTimeout(0);
+    }
+
+    @Test
+    void applyWithContext() throws SQLException {
+        Statement statement = mock(Statement.class);
+        QueryContext context = new QueryContext(5);
+        context.run(() -> {
+            QueryContext.apply(statement);
+            return null;
+        });
+        assertNull(QueryContext.current());
+        verify(statement).setQueryTimeout(5);
+    }
+
+    @Test
+    void cancel() throws SQLException {
+        Statement running = mock(Statement.class);
+        Statement next = mock(Statement.class);
+        QueryContext context = new QueryContext(0);
+        assertThrows(SQLException.class, () -> context.run(() -> {
+            QueryContext.apply(running);
+            context.cancel();
+            QueryContext.apply(next);
+            return null;
+        }));
+        verify(running).cancel();
+        verify(next, never()).cancel();
+    }
+
+    @Test
+    void cancelTrackedFutures() throws SQLException {
+        QueryContext context = new QueryContext(0);
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<Integer> late = new CompletableFuture<>();
+        CompletableFuture<Integer> outside = new CompletableFuture<>();
+        QueryContext.track(outside);
+        context.run(() -> {
+            QueryContext.track(pending);
+            context.cancel();
+            QueryContext.track(late);
+            return null;
+        });
+        assertAll(
+                () -> assertTrue(pending.isCancelled()),
+                () -> assertTrue(late.isCancelled()),
+                () -> assertFalse(outside.isDone())
+        );
+    }
+
+    @Test
+    void cancellableFuture() throws SQLException {
+        Statement running = mock(Statement.class);
+        QueryContext context = new QueryContext(0);
+        CancellableFuture<Void> future = new CancellableFuture<>(context);
+        context.run(() -> {
+            QueryContext.apply(running);
+            assertTrue(future.cancel(true));
+            return null;
+        });
+        assertAll(
+                () -> assertTrue(future.isCancelled()),
+                () -> assertTrue(future.cancel(true))
+        );
+        verify(running, times(1)).cancel();
+    }
+}
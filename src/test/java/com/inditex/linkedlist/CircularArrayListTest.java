@@ -0,0 +1,160 @@
+package com.inditex.linkedlist;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircularArrayListTest {
+
+    private CircularArrayList<Integer> list;
+
+    @BeforeEach
+    void setUp() {
+        list = CircularArrayList.getInstance();
+    }
+
+    private static List<Integer> elements(Collection<Integer> collection) {
+        List<Integer> elements = new ArrayList<>();
+        collection.forEach(elements::add);
+        return elements;
+    }
+
+    @Test
+    void getInstance() {
+        assertAll(
+                () -> assertNotNull(list),
+                () -> assertEquals(0, list.size()),
+                () -> assertEquals(0, CircularArrayList.getInstance(1_000).size()),
+                () -> assertThrows(IllegalArgumentException.class, () -> CircularArrayList.getInstance(-1)),
+                () -> assertThrows(IllegalArgumentException.class, () -> CircularArrayList.getInstance((1 << 30) + 1))
+        );
+    }
+
+    @Test
+    void get() {
+        list.add(3);
+        assertAll(
+                () -> assertEquals(3, list.get(0)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(1)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1))
+        );
+    }
+
+    @Test
+    void addWithIndex() {
+        list.add(5);
+        list.add(0, 3);
+        list.add(1, 1);
+        assertAll(
+                () -> assertEquals(List.of(3, 1, 5), elements(list)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.add(4, 7))
+        );
+    }
+
+    @Test
+    void addMatchesArrayList() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int index = random.nextInt(expected.size() + 1);
+            expected.add(index, i);
+            list.add(index, i);
+        }
+        assertEquals(expected, elements(list));
+        for (int i = 0; i < expected.size(); i++) assertEquals(expected.get(i), list.get(i));
+    }
+
+    @Test
+    void removeMatchesArrayList() {
+        Random random = new Random(7);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add(0, i);
+            list.add(0, i);
+        }
+        while (!expected.isEmpty()) {
+            Integer element = expected.get(random.nextInt(expected.size()));
+            assertEquals(expected.remove(element), list.remove(element));
+            assertEquals(expected, elements(list));
+        }
+        assertFalse(list.remove(1));
+    }
+
+    @Test
+    void contains() {
+        list.add(3);
+        list.add(null);
+        assertAll(
+                () -> assertTrue(list.contains(3)),
+                () -> assertTrue(list.contains(null)),
+                () -> assertFalse(list.contains(7)),
+                () -> assertTrue(list.containsAll(Arrays.asList(3, null))),
+                () -> assertFalse(list.containsAll(List.of(3, 7)))
+        );
+    }
+
+    @Test
+    void iterator() {
+        for (int i = 0; i < 20; i++) list.add(0, i);
+        Iterator<Integer> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) iterator.remove();
+        }
+        assertAll(
+                () -> assertEquals(List.of(19, 17, 15, 13, 11, 9, 7, 5, 3, 1), elements(list)),
+                () -> assertThrows(NoSuchElementException.class, () -> CircularArrayList.getInstance().iterator().next()),
+                () -> assertThrows(IllegalStateException.class, () -> list.iterator().remove()),
+                () -> assertThrows(ConcurrentModificationException.class, () -> {
+                    Iterator<Integer> modified = list.iterator();
+                    list.add(0);
+                    modified.next();
+                })
+        );
+    }
+
+    @Test
+    void toArray() {
+        for (int i = 0; i < 20; i++) list.add(0, i);
+        Integer[] expected = new Integer[20];
+        for (int i = 0; i < 20; i++) expected[i] = 19 - i;
+        Integer[] larger = new Integer[22];
+        Arrays.fill(larger, -1);
+        assertAll(
+                () -> assertArrayEquals(expected, list.toArray()),
+                () -> assertArrayEquals(expected, list.toArray(new Integer[]{})),
+                () -> assertSame(larger, list.toArray(larger)),
+                () -> assertNull(larger[20])
+        );
+    }
+
+    @Test
+    void bulkOperations() {
+        boolean added = list.addAll(List.of(3, 1, 5, 1, 7));
+        assertAll(
+                () -> assertTrue(added),
+                () -> assertFalse(list.addAll(List.of())),
+                () -> assertEquals(List.of(3, 1, 5, 1, 7), elements(list))
+        );
+        assertTrue(list.removeAll(List.of(1)));
+        assertEquals(List.of(3, 5, 7), elements(list));
+        assertTrue(list.retainAll(List.of(5, 7, 9)));
+        assertAll(
+                () -> assertEquals(List.of(5, 7), elements(list)),
+                () -> assertFalse(list.retainAll(List.of(5, 7)))
+        );
+    }
+
+    @Test
+    void clear() {
+        for (int i = 0; i < 40; i++) list.add(0, i);
+        list.clear();
+        list.add(1);
+        assertAll(
+                () -> assertEquals(1, list.size()),
+                () -> assertEquals(1, list.get(0))
+        );
+    }
+}
@@ -0,0 +1,164 @@
+package com.inditex.linkedlist;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLinkedListTest {
+
+    private static final int THREADS = 4;
+
+    private static final int PER_THREAD = 50_000;
+
+    private ConcurrentLinkedList<Integer> list;
+
+    @BeforeEach
+    void setUp() {
+        list = ConcurrentLinkedList.getInstance();
+    }
+
+    @Test
+    void bothEnds() {
+        list.addLast(2);
+        list.addFirst(1);
+        list.add(3);
+        assertAll(
+                () -> assertEquals(3, list.size()),
+                () -> assertEquals(1, list.peekFirst()),
+                () -> assertEquals(3, list.peekLast()),
+                () -> assertArrayEquals(new Integer[]{1, 2, 3}, list.toArray(new Integer[0])),
+                () -> assertEquals(1, list.pollFirst()),
+                () -> assertEquals(3, list.pollLast()),
+                () -> assertEquals(2, list.pollFirst()),
+                () -> assertNull(list.pollLast()),
+                () -> assertTrue(list.isEmpty()),
+                () -> assertThrows(NullPointerException.class, () -> list.add(null)),
+                () -> assertThrows(IllegalArgumentException.class, () -> list.addAll(list))
+        );
+    }
+
+    @Test
+    void iteratorIsWeaklyConsistent() {
+        list.addAll(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.remove(2);
+        list.add(4);
+        List<Integer> seen = new ArrayList<>();
+        iterator.forEachRemaining(seen::add);
+        assertAll(
+                () -> assertEquals(Arrays.asList(3, 4), seen.subList(seen.size() - 2, seen.size())),
+                () -> assertTrue(seen.size() <= 3),
+                () -> assertEquals(Arrays.asList(1, 3, 4), new ArrayList<>(list))
+        );
+    }
+
+    /**
+     * Productores en los dos extremos y consumidores en los dos extremos a la vez: cada elemento se extrae exactamente
+     * una vez y no se pierde ninguno
+     */
+    @Test
+    void everyElementIsPolledExactlyOnce() throws Exception {
+        int total = THREADS * PER_THREAD;
+        AtomicIntegerArray polled = new AtomicIntegerArray(total);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int producer = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = producer * PER_THREAD; i < (producer + 1) * PER_THREAD; i++) {
+                        if ((i & 1) == 0) list.addLast(i);
+                        else list.addFirst(i);
+                    }
+                    return null;
+                }));
+            }
+            AtomicInteger consumed = new AtomicInteger();
+            for (int t = 0; t < THREADS; t++) {
+                boolean fromHead = (t & 1) == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (consumed.get() < total) {
+                        Integer element = fromHead ? list.pollFirst() : list.pollLast();
+                        if (Objects.isNull(element)) Thread.onSpinWait();
+                        else {
+                            polled.incrementAndGet(element);
+                            consumed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        List<Integer> wrong = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (polled.get(i) != 1) wrong.add(i);
+        }
+        assertAll(
+                () -> assertEquals(Collections.emptyList(), wrong),
+                () -> assertTrue(list.isEmpty()),
+                () -> assertEquals(0, list.size())
+        );
+    }
+
+    /**
+     * Cada hilo añade y elimina sus propios elementos mientras otro observa size(): el tamaño observado nunca supera los
+     * elementos añadidos (size() es una estimación, no un valor instantáneo) y, al terminar, refleja exactamente los que
+     * quedan
+     */
+    @Test
+    void addRemoveAndSizeUnderContention() throws Exception {
+        int kept = 1_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            Future<Integer> observer = executor.submit(() -> {
+                start.await();
+                int maxSeen = 0;
+                while (running.get()) maxSeen = Math.max(maxSeen, list.size());
+                return maxSeen;
+            });
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int worker = t;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD / 10; i++) {
+                        Integer element = worker * PER_THREAD + i;
+                        list.add(element);
+                        if (i >= kept && !list.remove(element)) throw new IllegalStateException("Lost " + element);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : workers) future.get(60, TimeUnit.SECONDS);
+            running.set(false);
+            int maxSeen = observer.get(60, TimeUnit.SECONDS);
+            Set<Integer> remaining = new HashSet<>(list);
+            assertAll(
+                    () -> assertTrue(maxSeen <= THREADS * (PER_THREAD / 10)),
+                    () -> assertEquals(THREADS * kept, list.size()),
+                    () -> assertEquals(THREADS * kept, remaining.size()),
+                    () -> assertTrue(remaining.stream().allMatch(element -> element % PER_THREAD < kept))
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
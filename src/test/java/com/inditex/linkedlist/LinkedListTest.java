@@ -3,7 +3,9 @@ package com.inditex.linkedlist;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -49,14 +51,14 @@ class LinkedListTest {
     @Test
     void addWithIndex() {
         list.add(5);
-        list.add(3, 0);
+        list.add(0, 3);
         list.add(1, 1);
         assertAll(
                 () -> assertEquals(3, list.size()),
                 () -> assertEquals(3, list.get(0)),
                 () -> assertEquals(1, list.get(1)),
                 () -> assertEquals(5, list.get(2)),
-                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.add(7, 4))
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.add(4, 7))
         );
     }
 
@@ -145,7 +147,7 @@ class LinkedListTest {
 
     @Test
     void remove() {
-        assertFalse(list.remove(1));
+        assertFalse(list.remove(Integer.valueOf(1)));
         list.add(3);
         list.add(2);
         list.add(1);
@@ -156,27 +158,27 @@ class LinkedListTest {
                 () -> assertEquals(2, list.get(1)),
                 () -> assertEquals(1, list.get(2)),
                 () -> assertEquals(5, list.get(3)),
-                () -> assertFalse(list.remove(7))
+                () -> assertFalse(list.remove(Integer.valueOf(7)))
         );
-        list.remove(1);
+        list.remove(Integer.valueOf(1));
         assertAll(
                 () -> assertEquals(3, list.size()),
                 () -> assertEquals(3, list.get(0)),
                 () -> assertEquals(2, list.get(1)),
                 () -> assertEquals(5, list.get(2))
         );
-        list.remove(5);
+        list.remove(Integer.valueOf(5));
         assertAll(
                 () -> assertEquals(2, list.size()),
                 () -> assertEquals(3, list.get(0)),
                 () -> assertEquals(2, list.get(1))
         );
-        list.remove(2);
+        list.remove(Integer.valueOf(2));
         assertAll(
                 () -> assertEquals(1, list.size()),
                 () -> assertEquals(3, list.get(0))
         );
-        list.remove(3);
+        list.remove(Integer.valueOf(3));
         assertAll(
                 () -> assertEquals(0, list.size()),
                 () -> assertTrue(list.isEmpty())
@@ -233,6 +235,286 @@ class LinkedListTest {
         );
     }
 
+    @Test
+    void indexedAccessFromBothEnds() {
+        for (int i = 0; i < 10; i++) list.add(i);
+        list.set(8, 80);
+        list.add(9, 85);
+        Integer removed = list.remove(1);
+        assertAll(
+                () -> assertEquals(1, removed),
+                () -> assertEquals(10, list.size()),
+                () -> assertEquals(0, list.get(0)),
+                () -> assertEquals(2, list.get(1)),
+                () -> assertEquals(80, list.get(7)),
+                () -> assertEquals(85, list.get(8)),
+                () -> assertEquals(9, list.get(9)),
+                () -> assertEquals(7, list.indexOf(80)),
+                () -> assertEquals(-1, list.indexOf(1)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.set(10, 0)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.remove(-1))
+        );
+    }
+
+    @Test
+    void listIterator() {
+        list.addAll(Arrays.asList(1, 2, 3, 4));
+        ListIterator<Integer> iterator = list.listIterator();
+        while (iterator.hasNext()) {
+            int element = iterator.next();
+            if (element == 2) iterator.remove();
+            else if (element == 3) iterator.add(35);
+            else iterator.set(element * 10);
+        }
+        iterator.previous();
+        iterator.previous();
+        iterator.add(30);
+        assertAll(
+                () -> assertEquals(Arrays.asList(10, 3, 30, 35, 40), list),
+                () -> assertEquals(3, iterator.nextIndex()),
+                () -> assertEquals(35, iterator.next()),
+                () -> assertEquals(Arrays.asList(40, 35, 30, 3, 10), reversed(list.listIterator(list.size()))),
+                () -> assertThrows(IllegalStateException.class, () -> list.listIterator().remove()),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.listIterator(6))
+        );
+    }
+
+    @Test
+    void iteratorFailsFast() {
+        list.addAll(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.add(4);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    void nullElementsAndEquality() {
+        list.add(null);
+        list.add(2);
+        List<Integer> expected = new ArrayList<>(Arrays.asList(null, 2));
+        assertAll(
+                () -> assertTrue(list.contains(null)),
+                () -> assertEquals(expected, list),
+                () -> assertEquals(expected.hashCode(), list.hashCode()),
+                () -> assertTrue(list.remove(null)),
+                () -> assertEquals(List.of(2), list)
+        );
+    }
+
+    @Test
+    void addAllSplicesAtIndex() {
+        list.addAll(Arrays.asList(1, 5));
+        boolean added = list.addAll(1, Arrays.asList(2, 3, 4));
+        boolean addedAtHead = list.addAll(0, List.of(0));
+        assertAll(
+                () -> assertTrue(added),
+                () -> assertTrue(addedAtHead),
+                () -> assertFalse(list.addAll(Collections.emptyList())),
+                () -> assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), list),
+                () -> assertEquals(Arrays.asList(5, 4, 3, 2, 1, 0), reversed(list.listIterator(list.size()))),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(7, List.of(6)))
+        );
+    }
+
+    @Test
+    void bulkRemovalWithLargeArguments() {
+        List<Integer> removed = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i % 50);
+            if (i % 2 == 0) removed.add(i);
+        }
+        LinkedList<Integer> retained = LinkedList.getInstance();
+        retained.addAll(list);
+        assertAll(
+                () -> assertTrue(list.removeAll(removed)),
+                () -> assertEquals(50, list.size()),
+                () -> assertTrue(list.stream().allMatch(element -> element % 2 == 1)),
+                () -> assertFalse(list.removeAll(removed)),
+                () -> assertTrue(retained.retainAll(removed)),
+                () -> assertEquals(50, retained.size()),
+                () -> assertTrue(retained.containsAll(removed.subList(0, 25))),
+                () -> assertFalse(retained.containsAll(removed))
+        );
+    }
+
+    @Test
+    void removeIf() {
+        list.addAll(Arrays.asList(1, 2, 3, 4, 5));
+        assertAll(
+                () -> assertTrue(list.removeIf(element -> element % 2 == 1)),
+                () -> assertEquals(Arrays.asList(2, 4), list),
+                () -> assertEquals(4, list.get(1)),
+                () -> assertFalse(list.removeIf(element -> element > 10)),
+                () -> assertTrue(list.removeIf(element -> true)),
+                () -> assertTrue(list.isEmpty())
+        );
+    }
+
+    @Test
+    void toArrayFillsGivenArray() {
+        list.addAll(Arrays.asList(3, 1));
+        Integer[] array = {7, 7, 7, 7};
+        assertAll(
+                () -> assertSame(array, list.toArray(array)),
+                () -> assertArrayEquals(new Integer[]{3, 1, null, 7}, array),
+                () -> assertArrayEquals(new Integer[]{3, 1}, list.toArray(new Integer[0]))
+        );
+    }
+
+    @Test
+    void spliterator() {
+        for (int i = 0; i < 5_000; i++) list.add(i);
+        Spliterator<Integer> spliterator = list.spliterator();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        List<Integer> prefixElements = new ArrayList<>();
+        prefix.forEachRemaining(prefixElements::add);
+        assertAll(
+                () -> assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED)),
+                () -> assertEquals(1_024, prefixElements.size()),
+                () -> assertEquals(list.subList(0, 1_024), prefixElements),
+                () -> assertEquals(5_000 - 1_024, spliterator.estimateSize()),
+                () -> assertEquals(2_048, spliterator.trySplit().estimateSize()),
+                () -> assertEquals(12_497_500L, list.parallelStream().mapToLong(Integer::longValue).sum()),
+                () -> assertEquals(list, list.parallelStream().collect(Collectors.toList()))
+        );
+    }
+
+    @Test
+    void spliteratorFailsFast() {
+        list.addAll(Arrays.asList(1, 2, 3));
+        Spliterator<Integer> spliterator = list.spliterator();
+        spliterator.tryAdvance(element -> {});
+        list.add(4);
+        assertAll(
+                () -> assertThrows(ConcurrentModificationException.class, () -> spliterator.tryAdvance(element -> {})),
+                () -> assertThrows(ConcurrentModificationException.class,
+                        () -> list.stream().forEach(element -> list.remove(element)))
+        );
+    }
+
+    @Test
+    void indexedKeepsOrderAndDuplicates() {
+        LinkedList<Integer> indexed = LinkedList.getIndexedInstance();
+        indexed.addAll(Arrays.asList(1, 2, 1, 3));
+        indexed.add(1, 1);
+        indexed.set(3, 4);
+        assertAll(
+                () -> assertEquals(Arrays.asList(1, 1, 2, 4, 3), indexed),
+                () -> assertTrue(indexed.contains(4)),
+                () -> assertEquals(-1, indexed.indexOf(5)),
+                () -> assertTrue(indexed.remove(Integer.valueOf(1))),
+                () -> assertEquals(Arrays.asList(1, 2, 4, 3), indexed),
+                () -> assertTrue(indexed.remove(Integer.valueOf(1))),
+                () -> assertFalse(indexed.contains(1)),
+                () -> assertTrue(indexed.removeAll(List.of(2))),
+                () -> assertEquals(Arrays.asList(4, 3), indexed)
+        );
+        indexed.clear();
+        assertFalse(indexed.contains(4));
+    }
+
+    /**
+     * Con la cadena de duplicados cada operación es O(1): con 100.000 copias del mismo elemento, un índice que
+     * recorriera los duplicados haría del orden de 10^10 pasos y no acabaría en el tiempo límite
+     */
+    @Test
+    void indexedDuplicatesCostConstantTime() {
+        int copies = 100_000;
+        LinkedList<Integer> indexed = LinkedList.getIndexedInstance();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            indexed.addAll(Collections.nCopies(copies, 1));
+            ListIterator<Integer> middle = indexed.listIterator(copies / 2);
+            for (int i = 0; i < copies / 4; i++) {
+                middle.next();
+                middle.remove();
+            }
+            for (int i = 0; i < copies / 4; i++) {
+                middle.add(2);
+                middle.add(1);
+            }
+            for (int i = 0; i < copies / 4; i++) indexed.add(0, 1);
+            for (int i = 0; i < copies / 4; i++) indexed.remove(Integer.valueOf(1));
+        });
+        assertAll(
+                () -> assertEquals(copies + copies / 4, indexed.size()),
+                () -> assertEquals(copies / 2, indexed.indexOf(2)),
+                () -> assertEquals(Integer.valueOf(1), indexed.get(copies / 2 + 1)),
+                () -> assertTrue(indexed.removeAll(List.of(1))),
+                () -> assertEquals(Collections.nCopies(copies / 4, 2), indexed)
+        );
+    }
+
+    /**
+     * Insertar siempre en el mismo hueco agota las etiquetas de orden y obliga a reetiquetar: el orden de los
+     * duplicados debe seguir coincidiendo con el de la lista
+     */
+    @Test
+    void indexedRelabelsWhenGapsRunOut() {
+        LinkedList<Integer> indexed = LinkedList.getIndexedInstance();
+        List<Integer> expected = new ArrayList<>();
+        indexed.addAll(List.of(0, 0));
+        expected.addAll(List.of(0, 0));
+        for (int i = 0; i < 10_000; i++) {
+            indexed.add(1, i % 3);
+            expected.add(1, i % 3);
+            indexed.add(indexed.size() - 1, i % 5);
+            expected.add(expected.size() - 1, i % 5);
+        }
+        for (Integer element = 0; element < 5; element++) {
+            for (int i = Collections.frequency(expected, element) / 2; i > 0; i--) {
+                expected.remove(element);
+                indexed.remove(element);
+            }
+            assertEquals(expected, indexed);
+        }
+    }
+
+    @Test
+    void indexedMatchesArrayList() {
+        Random random = new Random(7);
+        LinkedList<Integer> indexed = LinkedList.getIndexedInstance();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Integer element = random.nextInt(100);
+            int operation = random.nextInt(5);
+            if (operation == 0 || expected.isEmpty()) {
+                int position = random.nextInt(expected.size() + 1);
+                expected.add(position, element);
+                indexed.add(position, element);
+            } else if (operation == 1) {
+                expected.add(element);
+                indexed.add(element);
+            } else if (operation == 2) {
+                int position = random.nextInt(expected.size());
+                assertEquals(expected.set(position, element), indexed.set(position, element));
+            } else if (operation == 3) {
+                assertEquals(expected.remove(element), indexed.remove(element));
+            } else {
+                ListIterator<Integer> iterator = indexed.listIterator(random.nextInt(expected.size()));
+                expected.remove(iterator.nextIndex());
+                iterator.next();
+                iterator.remove();
+            }
+            assertEquals(expected.indexOf(element), indexed.indexOf(element));
+        }
+        List<Integer> removed = Arrays.asList(1, 2, 3, 1);
+        expected.removeAll(removed);
+        indexed.removeAll(removed);
+        assertAll(
+                () -> assertEquals(expected, indexed),
+                () -> {
+                    for (int i = 0; i < 100; i++) assertEquals(expected.contains(i), indexed.contains(i));
+                }
+        );
+    }
+
+    private static List<Integer> reversed(ListIterator<Integer> iterator) {
+        List<Integer> elements = new ArrayList<>();
+        while (iterator.hasPrevious()) elements.add(iterator.previous());
+        return elements;
+    }
+
     @Test
     void clear() {
         list.add(3);
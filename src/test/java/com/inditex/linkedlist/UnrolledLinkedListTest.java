@@ -0,0 +1,139 @@
+package com.inditex.linkedlist;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnrolledLinkedListTest {
+
+    /*
+     * Capacidad mínima para que pocos elementos ya provoquen divisiones y fusiones de nodos
+     */
+    private static final int NODE_CAPACITY = 4;
+
+    private UnrolledLinkedList<Integer> list;
+
+    @BeforeEach
+    void setUp() {
+        list = UnrolledLinkedList.getInstance(NODE_CAPACITY);
+    }
+
+    private static List<Integer> elements(Collection<Integer> collection) {
+        List<Integer> elements = new ArrayList<>();
+        collection.forEach(elements::add);
+        return elements;
+    }
+
+    @Test
+    void getInstance() {
+        assertAll(
+                () -> assertNotNull(list),
+                () -> assertEquals(0, list.size()),
+                () -> assertEquals(0, UnrolledLinkedList.getInstance().size()),
+                () -> assertThrows(IllegalArgumentException.class, () -> UnrolledLinkedList.getInstance(1))
+        );
+    }
+
+    @Test
+    void addWithIndexSplitsNodes() {
+        for (int i = 0; i < 10; i++) list.add(i);
+        list.add(0, -1);
+        list.add(6, 50);
+        list.add(12, 100);
+        assertAll(
+                () -> assertEquals(Arrays.asList(-1, 0, 1, 2, 3, 4, 50, 5, 6, 7, 8, 9, 100), elements(list)),
+                () -> assertEquals(50, list.get(6)),
+                () -> assertEquals(100, list.get(12)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.add(14, 0)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(13))
+        );
+    }
+
+    @Test
+    void randomOperationsMatchArrayList() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, i);
+                list.add(index, i);
+            } else if (operation == 1) {
+                expected.add(i);
+                list.add(i);
+            } else {
+                Integer element = expected.get(random.nextInt(expected.size()));
+                expected.remove(element);
+                list.remove(element);
+            }
+        }
+        assertAll(
+                () -> assertEquals(expected.size(), list.size()),
+                () -> assertEquals(expected, elements(list)),
+                () -> assertArrayEquals(expected.toArray(), list.toArray()),
+                () -> assertEquals(expected.get(expected.size() / 3), list.get(expected.size() / 3))
+        );
+    }
+
+    @Test
+    void iteratorRemoveAcrossMergedNodes() {
+        for (int i = 0; i < 20; i++) list.add(i);
+        Iterator<Integer> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 3 != 0) iterator.remove();
+        }
+        Iterator<Integer> failFast = list.iterator();
+        failFast.next();
+        list.add(99);
+        assertAll(
+                () -> assertEquals(Arrays.asList(0, 3, 6, 9, 12, 15, 18, 99), elements(list)),
+                () -> assertThrows(ConcurrentModificationException.class, failFast::next),
+                () -> assertThrows(IllegalStateException.class, () -> list.iterator().remove())
+        );
+    }
+
+    @Test
+    void bulkOperations() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 30; i++) values.add(i);
+        assertAll(
+                () -> assertTrue(list.addAll(values)),
+                () -> assertFalse(list.addAll(Collections.emptyList())),
+                () -> assertTrue(list.containsAll(values)),
+                () -> assertTrue(list.removeIf(element -> element % 5 != 0)),
+                () -> assertEquals(Arrays.asList(0, 5, 10, 15, 20, 25), elements(list)),
+                () -> assertTrue(list.retainAll(Arrays.asList(5, 25))),
+                () -> assertEquals(Arrays.asList(5, 25), elements(list)),
+                () -> assertTrue(list.removeAll(List.of(5))),
+                () -> assertFalse(list.contains(5)),
+                () -> assertArrayEquals(new Integer[]{25, null, 7}, list.toArray(new Integer[]{7, 7, 7}))
+        );
+        list.clear();
+        assertAll(
+                () -> assertTrue(list.isEmpty()),
+                () -> assertFalse(list.iterator().hasNext())
+        );
+    }
+
+    /**
+     * Sin contar los propios elementos, con nodos de 32 el coste por elemento es varias veces menor que el de LinkedList
+     */
+    @Test
+    void footprintIsSeveralTimesSmallerThanLinkedList() {
+        Integer[] values = new Integer[10_000];
+        for (int i = 0; i < values.length; i++) values[i] = i;
+        LinkedList<Integer> linked = LinkedList.getInstance();
+        UnrolledLinkedList<Integer> unrolled = UnrolledLinkedList.getInstance();
+        Collections.addAll(linked, values);
+        Collections.addAll(unrolled, values);
+        long elements = GraphLayout.parseInstance((Object[]) values).totalSize();
+        long linkedBytes = GraphLayout.parseInstance(linked).totalSize() - elements;
+        long unrolledBytes = GraphLayout.parseInstance(unrolled).totalSize() - elements;
+        assertTrue(unrolledBytes * 3 < linkedBytes, unrolledBytes + " vs " + linkedBytes);
+    }
+}
@@ -0,0 +1,58 @@
+package com.inditex.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    private Histogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    void empty() {
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertAll(
+                () -> assertEquals(0, snapshot.getCount()),
+                () -> assertEquals(0, snapshot.getP99()),
+                () -> assertEquals(0, snapshot.getMax())
+        );
+    }
+
+    @Test
+    void index() {
+        for (long value : new long[]{0, 1, 31, 32, 63, 64, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            long highest = Histogram.highestEquivalentValue(Histogram.index(value));
+            assertTrue(highest >= value, "highest equivalent of " + value);
+            assertTrue(highest - value <= value / 32, "precision of " + value);
+        }
+    }
+
+    @Test
+    void percentiles() {
+        for (long value = 1; value <= 10_000; value++) histogram.record(value * 1_000);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertAll(
+                () -> assertEquals(10_000, snapshot.getCount()),
+                () -> assertEquals(5_000_500, snapshot.getMean(), 1),
+                () -> assertEquals(5_000_000, snapshot.getP50(), 5_000_000 / 32.0),
+                () -> assertEquals(9_900_000, snapshot.getP99(), 9_900_000 / 32.0),
+                () -> assertEquals(10_000_000, snapshot.getMax())
+        );
+    }
+
+    @Test
+    void reset() {
+        histogram.record(5);
+        histogram.reset();
+        assertAll(
+                () -> assertEquals(0, histogram.getCount()),
+                () -> assertEquals(0, histogram.getMax())
+        );
+    }
+}
@@ -0,0 +1,165 @@
+package com.inditex.pool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cada test usa una base de datos H2 en memoria propia. unwrap(Connection.class) devuelve la conexión física que hay
+ * detrás del proxy prestado, lo que permite saber qué conexión se ha reutilizado
+ */
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    private ConnectionPool pool(int maxSize, long borrowTimeoutMillis) {
+        pool = new ConnectionPool(PoolConfig.builder()
+                .url("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .minSize(0)
+                .maxSize(maxSize)
+                .borrowTimeoutMillis(borrowTimeoutMillis)
+                .build());
+        return pool;
+    }
+
+    @Test
+    void borrowTimesOutWhenExhausted() throws SQLException {
+        ConnectionPool pool = pool(1, 50);
+        try (Connection leased = pool.getConnection()) {
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+        PoolMetrics metrics = pool.getMetrics();
+        assertAll(
+                () -> assertEquals(1, metrics.getTimeoutCount()),
+                () -> assertEquals(2, metrics.getBorrowCount()),
+                () -> assertEquals(1, metrics.getCreatedCount()),
+                () -> assertTrue(metrics.getMaxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(50))
+        );
+    }
+
+    @Test
+    void idleConnectionsAreReusedLifo() throws SQLException {
+        ConnectionPool pool = pool(3, 1_000);
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        Connection firstPhysical = first.unwrap(Connection.class);
+        Connection secondPhysical = second.unwrap(Connection.class);
+        first.close();
+        second.close();
+        try (Connection mostRecent = pool.getConnection();
+             Connection older = pool.getConnection()) {
+            assertAll(
+                    () -> assertSame(secondPhysical, mostRecent.unwrap(Connection.class)),
+                    () -> assertSame(firstPhysical, older.unwrap(Connection.class)),
+                    () -> assertEquals(2, pool.getMetrics().getCreatedCount())
+            );
+        }
+    }
+
+    @Test
+    void releaseRollsBackAndRestoresState() throws SQLException {
+        ConnectionPool pool = pool(1, 1_000);
+        int defaultIsolation;
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            defaultIsolation = connection.getTransactionIsolation();
+            statement.execute("CREATE TABLE T (ID INT)");
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            statement.execute("INSERT INTO T VALUES (1)");
+        }
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM T")) {
+            rs.next();
+            assertAll(
+                    () -> assertEquals(0, rs.getInt(1)),
+                    () -> assertTrue(connection.getAutoCommit()),
+                    () -> assertEquals(defaultIsolation, connection.getTransactionIsolation()),
+                    () -> assertEquals(1, pool.getMetrics().getCreatedCount())
+            );
+        }
+    }
+
+    @Test
+    void closedLeaseCannotBeUsed() throws SQLException {
+        ConnectionPool pool = pool(1, 1_000);
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+        assertAll(
+                () -> assertTrue(connection.isClosed()),
+                () -> assertThrows(SQLException.class, connection::createStatement),
+                () -> assertEquals(0, pool.getMetrics().getActive()),
+                () -> assertEquals(1, pool.getMetrics().getIdle())
+        );
+    }
+
+    @Test
+    void closeWithLeasedConnections() throws SQLException {
+        ConnectionPool pool = pool(2, 1_000);
+        Connection leased = pool.getConnection();
+        Connection idle = pool.getConnection();
+        Connection leasedPhysical = leased.unwrap(Connection.class);
+        Connection idlePhysical = idle.unwrap(Connection.class);
+        idle.close();
+        pool.close();
+        boolean idleClosedOnPoolClose = idlePhysical.isClosed();
+        boolean leasedUsableAfterPoolClose = leased.isValid(1);
+        leased.close();
+        assertAll(
+                () -> assertTrue(idleClosedOnPoolClose),
+                () -> assertTrue(leasedUsableAfterPoolClose),
+                () -> assertTrue(leasedPhysical.isClosed()),
+                () -> assertThrows(SQLException.class, pool::getConnection),
+                () -> assertEquals(0, pool.getMetrics().getActive()),
+                () -> assertEquals(0, pool.getMetrics().getIdle()),
+                () -> assertEquals(2, pool.getMetrics().getDestroyedCount())
+        );
+    }
+
+    @Test
+    void loadCountsLeasedConnectionsAndWaiters() throws Exception {
+        ConnectionPool pool = pool(1, 5_000);
+        int empty = pool.getLoad();
+        Connection leased = pool.getConnection();
+        int withLease = pool.getLoad();
+        CompletableFuture<Integer> waiter = CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = pool.getConnection()) {
+                return pool.getLoad();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getMetrics().getWaiters() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        int withWaiter = pool.getLoad();
+        leased.close();
+        int seenByWaiter = waiter.get(5, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(0, empty),
+                () -> assertEquals(1, withLease),
+                () -> assertEquals(2, withWaiter),
+                () -> assertEquals(1, seenByWaiter),
+                () -> assertEquals(0, pool.getLoad())
+        );
+    }
+}
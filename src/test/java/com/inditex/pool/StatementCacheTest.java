@@ -0,0 +1,148 @@
+package com.inditex.pool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Caché de statements de una conexión física, probada a través del pool con statementCacheSize 2.
+ * unwrap(PreparedStatement.class) devuelve el statement físico que hay detrás del proxy
+ */
+class StatementCacheTest {
+
+    private static final String INSERT = "INSERT INTO T (ID) VALUES (?)";
+
+    private static final String SELECT = "SELECT ID FROM T WHERE ID > ?";
+
+    private static final String COUNT = "SELECT COUNT(*) FROM T";
+
+    private ConnectionPool pool;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = new ConnectionPool(PoolConfig.builder()
+                .url("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .minSize(0)
+                .maxSize(1)
+                .statementCacheSize(2)
+                .build());
+        connection = pool.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE T (ID INT)");
+            statement.execute("INSERT INTO T VALUES (1), (2), (3)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+        pool.close();
+    }
+
+    private PreparedStatement physical(String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            return statement.unwrap(PreparedStatement.class);
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() throws SQLException {
+        PreparedStatement insert = physical(INSERT);
+        PreparedStatement select = physical(SELECT);
+        PreparedStatement insertAgain = physical(INSERT);
+        PreparedStatement count = physical(COUNT);
+        PoolMetrics metrics = pool.getMetrics();
+        assertAll(
+                () -> assertSame(insert, insertAgain),
+                () -> assertTrue(select.isClosed()),
+                () -> assertFalse(insert.isClosed()),
+                () -> assertFalse(count.isClosed()),
+                () -> assertEquals(1, metrics.getStatementCacheHits()),
+                () -> assertEquals(3, metrics.getStatementCacheMisses()),
+                () -> assertEquals(1, metrics.getStatementCacheEvictions()),
+                () -> assertNotSame(select, physical(SELECT))
+        );
+    }
+
+    @Test
+    void checkinClearsParametersBatchAndResultSet() throws SQLException {
+        ResultSet open;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT);
+             PreparedStatement select = connection.prepareStatement(SELECT)) {
+            insert.setInt(1, 10);
+            insert.addBatch();
+            insert.setInt(1, 11);
+            select.setInt(1, 0);
+            open = select.executeQuery();
+            open.next();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            assertAll(
+                    () -> assertTrue(open.isClosed()),
+                    () -> assertEquals(0, insert.executeBatch().length),
+                    () -> assertThrows(SQLException.class, insert::executeUpdate),
+                    () -> assertEquals(1, pool.getMetrics().getStatementCacheHits())
+            );
+        }
+        try (PreparedStatement count = connection.prepareStatement(COUNT);
+             ResultSet rs = count.executeQuery()) {
+            rs.next();
+            assertEquals(3, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void proxyCloseKeepsStatementOpen() throws SQLException {
+        PreparedStatement proxy = connection.prepareStatement(SELECT);
+        PreparedStatement statement = proxy.unwrap(PreparedStatement.class);
+        Connection owner = proxy.getConnection();
+        proxy.close();
+        assertAll(
+                () -> assertSame(connection, owner),
+                () -> assertTrue(proxy.isClosed()),
+                () -> assertFalse(statement.isClosed()),
+                () -> assertThrows(SQLException.class, proxy::executeQuery)
+        );
+        connection.close();
+        pool.close();
+        assertTrue(statement.isClosed());
+    }
+
+    @Test
+    void concurrentUseOfTheSameSqlIsNotCached() throws SQLException {
+        try (PreparedStatement cached = connection.prepareStatement(SELECT)) {
+            PreparedStatement uncached = connection.prepareStatement(SELECT);
+            uncached.close();
+            assertAll(
+                    () -> assertTrue(uncached.isClosed()),
+                    () -> assertFalse(cached.isClosed()),
+                    () -> assertNotSame(cached.unwrap(PreparedStatement.class), uncached)
+            );
+        }
+    }
+
+    @Test
+    void statementEvictedInUseIsClosedOnCheckin() throws SQLException {
+        PreparedStatement proxy = connection.prepareStatement(SELECT);
+        PreparedStatement statement = proxy.unwrap(PreparedStatement.class);
+        physical(INSERT);
+        physical(COUNT);
+        boolean openWhileInUse = !statement.isClosed();
+        proxy.close();
+        assertAll(
+                () -> assertTrue(openWhileInUse),
+                () -> assertTrue(statement.isClosed())
+        );
+    }
+}
@@ -0,0 +1,121 @@
+package com.inditex.reader;
+
+import com.inditex.TestSqlDao.OrderRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageIteratorTest {
+
+    private static final int ORDERS = 10;
+
+    private List<Long> requestedPages;
+
+    @BeforeEach
+    void setUp() {
+        requestedPages = new ArrayList<>();
+    }
+
+    /*
+     * Pedidos con ID 1..ORDERS
+     */
+    private List<OrderRow> load(long afterOrderId, int pageSize) {
+        requestedPages.add(afterOrderId);
+        List<OrderRow> page = new ArrayList<>();
+        for (long id = Math.max(afterOrderId + 1, 1); id <= ORDERS && page.size() < pageSize; id++) {
+            page.add(OrderRow.builder().orderId(id).userId(1).storeId(1).build());
+        }
+        return page;
+    }
+
+    private KeysetPageIterator iterator(int pageSize) {
+        return new KeysetPageIterator(
+                afterOrderId -> load(afterOrderId, pageSize),
+                afterOrderId -> CompletableFuture.completedFuture(load(afterOrderId, pageSize)),
+                pageSize
+        );
+    }
+
+    private static List<Long> drain(KeysetPageIterator iterator) {
+        List<Long> ids = new ArrayList<>();
+        iterator.forEachRemaining(row -> ids.add(row.getOrderId()));
+        return ids;
+    }
+
+    @Test
+    void pages() {
+        KeysetPageIterator iterator = iterator(4);
+        List<Long> ids = drain(iterator);
+        assertAll(
+                () -> assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids),
+                () -> assertEquals(List.of(Long.MIN_VALUE, 4L, 8L), requestedPages),
+                () -> assertFalse(iterator.hasNext()),
+                () -> assertThrows(NoSuchElementException.class, iterator::next)
+        );
+    }
+
+    @Test
+    void exactPages() {
+        List<Long> ids = drain(iterator(5));
+        assertAll(
+                () -> assertEquals(ORDERS, ids.size()),
+                () -> assertEquals(List.of(Long.MIN_VALUE, 5L, 10L), requestedPages)
+        );
+    }
+
+    @Test
+    void prefetch() {
+        KeysetPageIterator iterator = iterator(4);
+        assertAll(
+                () -> assertEquals(List.of(Long.MIN_VALUE), requestedPages),
+                () -> assertEquals(1L, iterator.next().getOrderId()),
+                () -> assertEquals(List.of(Long.MIN_VALUE, 4L), requestedPages)
+        );
+    }
+
+    @Test
+    void rejectedPrefetch() {
+        LongFunction<CompletableFuture<List<OrderRow>>> rejecting = afterOrderId -> {
+            CompletableFuture<List<OrderRow>> future = new CompletableFuture<>();
+            future.completeExceptionally(new RejectedExecutionException());
+            return future;
+        };
+        KeysetPageIterator iterator = new KeysetPageIterator(afterOrderId -> load(afterOrderId, 3), rejecting, 3);
+        assertEquals(ORDERS, drain(iterator).size());
+    }
+
+    @Test
+    void close() {
+        CompletableFuture<List<OrderRow>> pending = new CompletableFuture<>();
+        KeysetPageIterator iterator = new KeysetPageIterator(afterOrderId -> List.of(), afterOrderId -> pending, 3);
+        iterator.close();
+        assertAll(
+                () -> assertTrue(pending.isCancelled()),
+                () -> assertFalse(iterator.hasNext())
+        );
+    }
+
+    @Test
+    void failure() {
+        SQLException cause = new SQLException("boom");
+        CompletableFuture<List<OrderRow>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(cause);
+        KeysetPageIterator iterator = new KeysetPageIterator(afterOrderId -> List.of(), afterOrderId -> failed, 3);
+        UncheckedSQLException e = assertThrows(UncheckedSQLException.class, iterator::hasNext);
+        assertSame(cause, e.getCause());
+    }
+
+    @Test
+    void invalidPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> iterator(0));
+    }
+}
@@ -0,0 +1,200 @@
+package com.inditex.routing;
+
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.pool.ConnectionPool;
+import com.inditex.pool.PoolConfig;
+import com.inditex.support.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Un primario y dos réplicas sobre tres bases de datos H2 independientes con los mismos datos iniciales. Como no hay
+ * replicación, lo que se escribe en el primario no llega a las réplicas, lo que permite saber de dónde se ha leído
+ */
+class ReplicaRouterTest {
+
+    private static final long STORE = 1;
+
+    private EmbeddedDatabase primaryDatabase;
+
+    private EmbeddedDatabase firstDatabase;
+
+    private EmbeddedDatabase secondDatabase;
+
+    private ReplicaRouter router;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryDatabase = new EmbeddedDatabase(1);
+        firstDatabase = new EmbeddedDatabase(1);
+        secondDatabase = new EmbeddedDatabase(1);
+        for (EmbeddedDatabase database : List.of(primaryDatabase, firstDatabase, secondDatabase)) database.seed(2, 3, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (router != null) router.close();
+        primaryDatabase.close();
+        firstDatabase.close();
+        secondDatabase.close();
+    }
+
+    private static ConnectionPool pool(EmbeddedDatabase database) {
+        return new ConnectionPool(PoolConfig.builder().url(database.getUrl()).minSize(0).maxSize(4).build());
+    }
+
+    /**
+     * Pool que deja de dar conexiones mientras down esté activado, como una réplica caída
+     */
+    private static ConnectionPool flakyPool(EmbeddedDatabase database, AtomicBoolean down) {
+        return new ConnectionPool(PoolConfig.builder().url(database.getUrl()).minSize(0).maxSize(4).build()) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (down.get()) throw new SQLException("Replica down");
+                return super.getConnection();
+            }
+        };
+    }
+
+    private ReplicaRouter router(RoutingConfig config, ConnectionPool... replicas) {
+        router = new ReplicaRouter(pool(primaryDatabase), List.of(replicas), config);
+        return router;
+    }
+
+    private static RoutingConfig.RoutingConfigBuilder withoutHealthCheck() {
+        return RoutingConfig.builder().healthCheckIntervalMillis(0);
+    }
+
+    @Test
+    void roundRobinSpreadsReadsAndWritesGoToPrimary() throws SQLException {
+        ConnectionPool first = pool(firstDatabase);
+        ConnectionPool second = pool(secondDatabase);
+        ReplicaRouter router = router(withoutHealthCheck().build(), first, second);
+        TestSqlDao dao = TestSqlDao.newInstance(router, DaoConfig.builder().maxUserOrderIdCacheTtlMillis(0).build());
+        for (int i = 0; i < 10; i++) dao.getMaxUserOrderId(STORE);
+        dao.copyUserOrders(1, 100);
+        assertAll(
+                () -> assertEquals(5, first.getMetrics().getBorrowCount()),
+                () -> assertEquals(5, second.getMetrics().getBorrowCount()),
+                () -> assertEquals(1, router.getPrimary().getMetrics().getBorrowCount()),
+                () -> assertFalse(dao.getMaxUserOrderId(STORE).containsKey(100L))
+        );
+    }
+
+    @Test
+    void leastLoadedAvoidsBusyReplica() throws SQLException {
+        ConnectionPool first = pool(firstDatabase);
+        ConnectionPool second = pool(secondDatabase);
+        ReplicaRouter router = router(withoutHealthCheck().strategy(RoutingConfig.Strategy.LEAST_LOADED).build(), first, second);
+        try (Connection busy = first.getConnection()) {
+            for (int i = 0; i < 4; i++) {
+                try (Connection connection = router.getReadConnection()) {
+                    assertTrue(connection.isValid(1));
+                }
+            }
+        }
+        assertAll(
+                () -> assertEquals(1, first.getMetrics().getBorrowCount()),
+                () -> assertEquals(4, second.getMetrics().getBorrowCount())
+        );
+    }
+
+    @Test
+    void failingReplicaIsEjectedAndReadmitted() throws SQLException {
+        AtomicBoolean down = new AtomicBoolean(true);
+        ConnectionPool flaky = flakyPool(firstDatabase, down);
+        ConnectionPool second = pool(secondDatabase);
+        ReplicaRouter router = router(withoutHealthCheck().build(), flaky, second);
+        for (int i = 0; i < 4; i++) {
+            try (Connection connection = router.getReadConnection()) {
+                assertTrue(connection.isValid(1));
+            }
+        }
+        List<ConnectionPool> healthyWhileDown = router.getHealthyReplicas();
+        long servedBySecond = second.getMetrics().getBorrowCount();
+        down.set(false);
+        router.checkHealth();
+        assertAll(
+                () -> assertEquals(List.of(second), healthyWhileDown),
+                () -> assertEquals(4, servedBySecond),
+                () -> assertEquals(List.of(flaky, second), router.getHealthyReplicas())
+        );
+    }
+
+    @Test
+    void saturatedReplicaIsSkippedWithoutEjecting() throws SQLException {
+        ConnectionPool saturated = new ConnectionPool(PoolConfig.builder().url(firstDatabase.getUrl())
+                .minSize(0).maxSize(1).borrowTimeoutMillis(50).build());
+        ConnectionPool second = pool(secondDatabase);
+        ReplicaRouter router = router(withoutHealthCheck().build(), saturated, second);
+        try (Connection busy = saturated.getConnection()) {
+            for (int i = 0; i < 4; i++) {
+                try (Connection connection = router.getReadConnection()) {
+                    assertTrue(connection.isValid(1));
+                }
+            }
+            router.checkHealth();
+            Thread.currentThread().interrupt();
+            ReplicaRouter onlySaturated = new ReplicaRouter(pool(primaryDatabase), List.of(saturated), withoutHealthCheck().build());
+            assertThrows(SQLException.class, onlySaturated::getReadConnection);
+            assertTrue(Thread.interrupted());
+            assertEquals(List.of(saturated), onlySaturated.getHealthyReplicas());
+            onlySaturated.getPrimary().close();
+        }
+        assertAll(
+                () -> assertEquals(List.of(saturated, second), router.getHealthyReplicas()),
+                () -> assertEquals(3, saturated.getMetrics().getTimeoutCount()),
+                () -> assertEquals(5, second.getMetrics().getBorrowCount())
+        );
+    }
+
+    @Test
+    void readsFallBackToPrimaryWithoutHealthyReplicas() throws SQLException {
+        AtomicBoolean down = new AtomicBoolean(true);
+        ReplicaRouter router = router(withoutHealthCheck().build(), flakyPool(firstDatabase, down));
+        TestSqlDao dao = TestSqlDao.newInstance(router, DaoConfig.builder().maxUserOrderIdCacheTtlMillis(0).build());
+        dao.copyUserOrders(1, 100);
+        assertAll(
+                () -> assertTrue(dao.getMaxUserOrderId(STORE).containsKey(100L)),
+                () -> assertTrue(router.getHealthyReplicas().isEmpty())
+        );
+    }
+
+    @Test
+    void readYourWritesAfterCopy() throws SQLException {
+        ReplicaRouter router = router(withoutHealthCheck().readYourWritesMillis(60_000).build(), pool(firstDatabase));
+        TestSqlDao dao = TestSqlDao.newInstance(router);
+        boolean beforeCopy = dao.getMaxUserOrderId(STORE).containsKey(100L);
+        dao.copyUserOrders(1, 100);
+        assertAll(
+                () -> assertFalse(beforeCopy),
+                () -> assertTrue(dao.getMaxUserOrderId(STORE).containsKey(100L)),
+                () -> assertTrue(dao.getUserMaxOrders(List.of(STORE)).containsKey(STORE))
+        );
+    }
+
+    @Test
+    void periodicHealthCheckReadmitsReplica() throws Exception {
+        AtomicBoolean down = new AtomicBoolean(true);
+        ConnectionPool flaky = flakyPool(firstDatabase, down);
+        ReplicaRouter router = router(RoutingConfig.builder().healthCheckIntervalMillis(20).build(), flaky);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!router.getHealthyReplicas().isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        boolean ejected = router.getHealthyReplicas().isEmpty();
+        down.set(false);
+        while (router.getHealthyReplicas().isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertAll(
+                () -> assertTrue(ejected),
+                () -> assertEquals(List.of(flaky), router.getHealthyReplicas())
+        );
+    }
+}
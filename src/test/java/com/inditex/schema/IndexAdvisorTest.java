@@ -0,0 +1,119 @@
+package com.inditex.schema;
+
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.pool.PoolMetrics;
+import com.inditex.support.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexAdvisorTest {
+
+    private EmbeddedDatabase database;
+
+    private TestSqlDao dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabase(2);
+        database.seed(3, 3, 3);
+        dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder().checkQueryPlans(true).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void schemaCoversQueries() throws SQLException {
+        assertEquals(List.of(), dao.checkQueryPlans());
+    }
+
+    @Test
+    void schemaIsIdempotent() throws SQLException {
+        try (Connection connection = database.getPool().getConnection()) {
+            assertDoesNotThrow(() -> Schema.create(connection));
+        }
+        assertEquals(List.of(), dao.checkQueryPlans());
+    }
+
+    @Test
+    void explainBypassesStatementCache() throws SQLException {
+        PoolMetrics before = database.getPool().getMetrics();
+        dao.checkQueryPlans();
+        PoolMetrics after = database.getPool().getMetrics();
+        assertAll(
+                () -> assertEquals(before.getStatementCacheMisses(), after.getStatementCacheMisses()),
+                () -> assertEquals(before.getStatementCacheHits(), after.getStatementCacheHits())
+        );
+    }
+
+    @Test
+    void missingIndex() throws SQLException {
+        database.execute("DROP INDEX IDX_PEDIDOS_USUARIO_PEDIDO");
+        List<PlanWarning> warnings = dao.checkQueryPlans();
+        assertAll(
+                () -> assertTrue(warnings.stream().anyMatch(warning -> warning.getQuery().equals("copyUserOrders.insertSelect")
+                        && warning.getReason() == PlanWarning.Reason.FULL_TABLE_SCAN)),
+                () -> assertTrue(warnings.stream().anyMatch(warning -> warning.getQuery().equals("copyUserOrders.userStores")
+                        && warning.getReason() == PlanWarning.Reason.FULL_INDEX_SCAN)),
+                () -> assertTrue(warnings.stream().noneMatch(warning -> warning.getQuery().equals("getMaxUserOrderId")))
+        );
+    }
+
+    @Test
+    void explainFailed() throws SQLException {
+        try (Connection connection = database.getPool().getConnection()) {
+            List<PlanWarning> warnings = IndexAdvisor.check(connection, Map.of("broken", "SELECT * FROM NO_EXISTE"));
+            assertAll(
+                    () -> assertEquals(1, warnings.size()),
+                    () -> assertEquals(PlanWarning.Reason.EXPLAIN_FAILED, warnings.get(0).getReason())
+            );
+        }
+    }
+
+    @Test
+    void mySqlPlan() {
+        List<PlanWarning> warnings = IndexAdvisor.analyzeMySql("query", List.of(
+                Map.of("TABLE", "P", "TYPE", "ALL", "EXTRA", "Using where; Using filesort"),
+                Map.of("TABLE", "U", "TYPE", "eq_ref", "EXTRA", ""),
+                Map.of("TABLE", "<derived2>", "TYPE", "ALL", "EXTRA", "Using where"),
+                Map.of("TABLE", "C", "TYPE", "index", "EXTRA", "Using index")
+        ));
+        assertAll(
+                () -> assertEquals(3, warnings.size()),
+                () -> assertEquals(PlanWarning.Reason.FULL_TABLE_SCAN, warnings.get(0).getReason()),
+                () -> assertEquals("P", warnings.get(0).getTable()),
+                () -> assertEquals(PlanWarning.Reason.FILESORT, warnings.get(1).getReason()),
+                () -> assertEquals(PlanWarning.Reason.FULL_INDEX_SCAN, warnings.get(2).getReason()),
+                () -> assertEquals("C", warnings.get(2).getTable())
+        );
+    }
+
+    @Test
+    void h2Plan() {
+        String plan = "SELECT * FROM PUBLIC.PEDIDOS /* PUBLIC.PEDIDOS.tableScan */ "
+                .concat("INNER JOIN PUBLIC.USUARIOS /* PUBLIC.PRIMARY_KEY_3: ID_USUARIO = P.ID_USUARIO */ ON 1=1 ")
+                .concat("INNER JOIN PUBLIC.PEDIDOS Q /* PUBLIC.IDX_PEDIDOS_TIENDA_TOTAL: ID_USUARIO = ?1\n AND TOTAL > ?2\n */");
+        List<PlanWarning> warnings = IndexAdvisor.analyzeH2("query", plan, Map.of(
+                "PRIMARY_KEY_3", "ID_USUARIO",
+                "IDX_PEDIDOS_TIENDA_TOTAL", "ID_TIENDA"
+        ));
+        assertAll(
+                () -> assertEquals(2, warnings.size()),
+                () -> assertEquals(PlanWarning.Reason.FULL_TABLE_SCAN, warnings.get(0).getReason()),
+                () -> assertEquals("PEDIDOS", warnings.get(0).getTable()),
+                () -> assertEquals(PlanWarning.Reason.FULL_INDEX_SCAN, warnings.get(1).getReason()),
+                () -> assertEquals("IDX_PEDIDOS_TIENDA_TOTAL", warnings.get(1).getTable())
+        );
+    }
+}
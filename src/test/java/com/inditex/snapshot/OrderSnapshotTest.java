@@ -0,0 +1,156 @@
+package com.inditex.snapshot;
+
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.TestSqlDao.Order;
+import com.inditex.TestSqlDao.OrderRow;
+import com.inditex.metrics.QueryInstrumentation;
+import com.inditex.support.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderSnapshotTest {
+
+    private static final int STORES = 3;
+
+    private static final int USERS_PER_STORE = 4;
+
+    private static final int ORDERS_PER_USER = 5;
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedDatabase database;
+
+    private TestSqlDao dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabase(4);
+        database.seed(STORES, USERS_PER_STORE, ORDERS_PER_USER);
+        dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder().maxUserOrderIdCacheTtlMillis(0).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    private void insertOrder(long user, long store, double total) throws SQLException {
+        database.execute("INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, TOTAL, SUBTOTAL) VALUES ("
+                + user + ", " + store + ", " + total + ", " + total + ")");
+    }
+
+    private void assertSameAsQuery(long store) throws SQLException, IOException {
+        Map<Long, Long> expectedIds = dao.getMaxUserOrderId(store);
+        Optional<Order> expectedOrder = dao.getUserMaxOrder(store);
+        try (OrderSnapshot snapshot = OrderSnapshot.open(directory, store)) {
+            Map<Long, Long> actualIds = snapshot.getMaxUserOrderIds().asMap();
+            Optional<OrderRow> actualOrder = snapshot.getMaxOrder();
+            assertAll(
+                    () -> assertEquals(expectedIds, actualIds),
+                    () -> assertEquals(expectedOrder.map(Order::getOrderId), actualOrder.map(OrderRow::getOrderId)),
+                    () -> assertEquals(expectedOrder.map(Order::getUserId), actualOrder.map(OrderRow::getUserId)),
+                    () -> assertNull(actualOrder.map(OrderRow::getAddress).orElse(null))
+            );
+        }
+    }
+
+    @Test
+    void snapshotMatchesQueries() throws SQLException, IOException {
+        OrderSnapshotExporter exporter = dao.newSnapshotExporter(directory);
+        for (long store = 1; store <= STORES; store++) {
+            assertEquals(USERS_PER_STORE * ORDERS_PER_USER, exporter.export(store));
+            assertSameAsQuery(store);
+        }
+    }
+
+    @Test
+    void incrementalExportAppendsOnlyNewOrders() throws SQLException, IOException {
+        OrderSnapshotExporter exporter = dao.newSnapshotExporter(directory);
+        exporter.export(1);
+        int copied = dao.copyUserOrders(1, 100);
+        insertOrder(2, 1, 1_000_000);
+        int exported = exporter.export(1);
+        assertAll(
+                () -> assertEquals(copied + 1, exported),
+                () -> assertEquals(0, exporter.export(1)),
+                () -> assertEquals(2, OrderSnapshot.segmentFiles(directory, 1).size())
+        );
+        assertSameAsQuery(1);
+    }
+
+    @Test
+    void ordersOfMissingUsersOnlyCountForMaxOrderIds() throws SQLException, IOException {
+        insertOrder(999, 1, 5_000_000);
+        dao.newSnapshotExporter(directory).export(1);
+        try (OrderSnapshot snapshot = OrderSnapshot.open(directory, 1)) {
+            assertAll(
+                    () -> assertTrue(snapshot.getMaxUserOrderIds().containsKey(999)),
+                    () -> assertNotEquals(999L, snapshot.getMaxOrder().map(OrderRow::getUserId).orElse(0L))
+            );
+        }
+        assertSameAsQuery(1);
+    }
+
+    @Test
+    void exportIsSplitInSegments() throws SQLException, IOException {
+        OrderSnapshotExporter exporter = new OrderSnapshotExporter(
+                () -> database.getPool().getConnection(), QueryInstrumentation.NOOP, directory, 3, 7);
+        exporter.export(2);
+        List<Path> files = OrderSnapshot.segmentFiles(directory, 2);
+        try (OrderSnapshot snapshot = OrderSnapshot.open(directory, 2)) {
+            DoubleAdder total = new DoubleAdder();
+            snapshot.forEach((orderId, userId, date, orderTotal, subtotal, userExists) -> total.add(orderTotal));
+            assertAll(
+                    () -> assertEquals(3, files.size()),
+                    () -> assertEquals(USERS_PER_STORE * ORDERS_PER_USER, snapshot.size()),
+                    () -> assertEquals(OrderSegment.maxOrderId(files.get(2), 2), snapshot.getWatermark()),
+                    () -> assertEquals(dao.streamStoreOrders(2).mapToDouble(OrderRow::getTotal).sum(), total.sum(), 1e-6),
+                    () -> assertEquals(Optional.of(Timestamp.valueOf("2023-01-01 00:00:00")),
+                            snapshot.getMaxOrder().map(OrderRow::getDate))
+            );
+        }
+        assertSameAsQuery(2);
+    }
+
+    @Test
+    void rebuildReplacesSegments() throws SQLException, IOException {
+        OrderSnapshotExporter exporter = dao.newSnapshotExporter(directory);
+        exporter.export(1);
+        insertOrder(1, 1, 10);
+        exporter.export(1);
+        database.execute("DELETE FROM PEDIDOS WHERE TOTAL = 10");
+        assertEquals(USERS_PER_STORE * ORDERS_PER_USER, exporter.rebuild(1));
+        assertEquals(1, OrderSnapshot.segmentFiles(directory, 1).size());
+        assertSameAsQuery(1);
+    }
+
+    @Test
+    void emptyAndCorruptSnapshots() throws IOException {
+        try (OrderSnapshot snapshot = OrderSnapshot.open(directory.resolve("missing"), 1)) {
+            assertAll(
+                    () -> assertEquals(0, snapshot.size()),
+                    () -> assertEquals(0L, snapshot.getWatermark()),
+                    () -> assertTrue(snapshot.getMaxOrder().isEmpty()),
+                    () -> assertTrue(snapshot.getMaxUserOrderIds().isEmpty())
+            );
+        }
+        Files.write(directory.resolve(OrderSegment.fileName(1, 10)), new byte[OrderSegment.HEADER_SIZE + OrderSegment.ROW_BYTES]);
+        assertThrows(IOException.class, () -> OrderSnapshot.open(directory, 1));
+    }
+}
@@ -0,0 +1,96 @@
+package com.inditex.support;
+
+import com.inditex.pool.ConnectionPool;
+import com.inditex.pool.PoolConfig;
+import com.inditex.schema.Schema;
+
+import java.sql.*;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Base de datos H2 en memoria (modo MySQL) que sustituye a MySQL en benchmarks y tests
+ *  - Las tablas e índices se crean con el DDL de Schema, el mismo que se usa contra MySQL
+ *  - Cada instancia crea una base de datos con nombre único, viva mientras exista el pool
+ *  - seed() genera stores tiendas con usersPerStore usuarios cada una y ordersPerUser pedidos por usuario, con
+ *    importes pseudoaleatorios reproducibles (semilla fija)
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+
+    private final String url;
+
+    private final ConnectionPool pool;
+
+    public EmbeddedDatabase(int poolSize) throws SQLException {
+        this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        this.pool = new ConnectionPool(PoolConfig.builder()
+                .url(url)
+                .minSize(1)
+                .maxSize(poolSize)
+                .build());
+        try (Connection connection = pool.getConnection()) {
+            Schema.create(connection);
+        }
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void seed(int stores, int usersPerStore, int ordersPerUser) throws SQLException {
+        Random random = new Random(42);
+        Timestamp date = Timestamp.valueOf("2023-01-01 00:00:00");
+        try (Connection connection = pool.getConnection();
+             PreparedStatement users = connection.prepareStatement("INSERT INTO USUARIOS (ID_USUARIO, NOMBRE, DIRECCION) VALUES (?, ?, ?)");
+             PreparedStatement orders = connection.prepareStatement(
+                     "INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, FECHA, TOTAL, SUBTOTAL, DIRECCION) VALUES (?, ?, ?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            for (long store = 1; store <= stores; store++) {
+                for (int i = 0; i < usersPerStore; i++) {
+                    long user = userId(store, i, usersPerStore);
+                    users.setLong(1, user);
+                    users.setString(2, "Usuario " + user);
+                    users.setString(3, "Calle " + user);
+                    users.addBatch();
+                    for (int j = 0; j < ordersPerUser; j++) {
+                        double total = Math.round(random.nextDouble() * 100_000) / 100.0;
+                        orders.setLong(1, user);
+                        orders.setLong(2, store);
+                        orders.setTimestamp(3, date);
+                        orders.setDouble(4, total);
+                        orders.setDouble(5, total / 1.21);
+                        orders.setString(6, "Calle " + user);
+                        orders.addBatch();
+                    }
+                    orders.executeBatch();
+                }
+                users.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    public static long userId(long store, int index, int usersPerStore) {
+        return (store - 1) * usersPerStore + index + 1;
+    }
+
+    public void execute(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            execute("SHUTDOWN");
+        } catch (SQLException ignored) {
+            // La base de datos se descarta igualmente
+        }
+        pool.close();
+    }
+}
@@ -0,0 +1,142 @@
+package com.inditex.view;
+
+import com.inditex.DaoConfig;
+import com.inditex.TestSqlDao;
+import com.inditex.TestSqlDao.Order;
+import com.inditex.collection.LongLongMap;
+import com.inditex.support.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaxOrderViewTest {
+
+    private static final int STORES = 3;
+
+    private static final int USERS_PER_STORE = 4;
+
+    private EmbeddedDatabase database;
+
+    private TestSqlDao reference;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabase(4);
+        database.seed(STORES, USERS_PER_STORE, 5);
+        reference = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder().maxUserOrderIdCacheTtlMillis(0).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    private TestSqlDao dao(boolean consistencyCheck) {
+        return TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .materializedView(true)
+                .materializedViewConsistencyCheck(consistencyCheck)
+                .build());
+    }
+
+    private void insertOrder(long user, long store, double total) throws SQLException {
+        database.execute("INSERT INTO PEDIDOS (ID_USUARIO, ID_TIENDA, TOTAL, SUBTOTAL) VALUES ("
+                + user + ", " + store + ", " + total + ", " + total + ")");
+    }
+
+    private void assertSameAsQuery(TestSqlDao dao, long store) throws SQLException {
+        Map<Long, Long> expectedIds = reference.getMaxUserOrderId(store);
+        Optional<Order> expectedOrder = reference.getUserMaxOrder(store);
+        Map<Long, Long> actualIds = dao.getMaxUserOrderId(store);
+        Optional<Order> actualOrder = dao.getUserMaxOrder(store);
+        assertAll(
+                () -> assertEquals(expectedIds, actualIds),
+                () -> assertEquals(expectedOrder.map(Order::getOrderId), actualOrder.map(Order::getOrderId)),
+                () -> assertEquals(expectedOrder.map(Order::getName), actualOrder.map(Order::getName))
+        );
+    }
+
+    @Test
+    void load() throws SQLException {
+        TestSqlDao dao = dao(false);
+        for (long store = 1; store <= STORES + 1; store++) assertSameAsQuery(dao, store);
+        assertEquals(STORES + 1, dao.getMaxOrderView().orElseThrow().getLoadedStores());
+    }
+
+    @Test
+    void updatedAfterDaoWrites() throws SQLException {
+        TestSqlDao dao = dao(false);
+        long user = EmbeddedDatabase.userId(2, 0, USERS_PER_STORE);
+        assertSameAsQuery(dao, 2);
+        dao.copyUserOrders(user, EmbeddedDatabase.userId(2, 1, USERS_PER_STORE));
+        assertSameAsQuery(dao, 2);
+    }
+
+    @Test
+    void catchUp() throws SQLException {
+        TestSqlDao dao = dao(false);
+        MaxOrderView view = dao.getMaxOrderView().orElseThrow();
+        long user = EmbeddedDatabase.userId(1, 2, USERS_PER_STORE);
+        assertSameAsQuery(dao, 1);
+        insertOrder(user, 1, 1_000_000);
+        insertOrder(user, 2, 1_000_000);
+        assertNotEquals(reference.getUserMaxOrder(1).map(Order::getOrderId), dao.getUserMaxOrder(1).map(Order::getOrderId));
+        assertEquals(2, view.catchUp());
+        assertAll(
+                () -> assertSameAsQuery(dao, 1),
+                () -> assertEquals(1, view.getLoadedStores()),
+                () -> assertEquals(1_000_000, view.getMaxTotal(1)),
+                () -> assertEquals(0, view.catchUp())
+        );
+    }
+
+    /**
+     * Cada catchUp deja los usuarios cambiados en la capa reciente hasta que supera 64 y se fusiona con la base. Un
+     * mapa ya devuelto no cambia con los catchUp posteriores
+     */
+    @Test
+    void catchUpLayersAndMerges() throws SQLException {
+        TestSqlDao dao = dao(false);
+        MaxOrderView view = dao.getMaxOrderView().orElseThrow();
+        assertSameAsQuery(dao, 2);
+        Map<Long, Long> before = Map.copyOf(view.getMaxUserOrderIds(2).asMap());
+        LongLongMap published = view.getMaxUserOrderIds(2);
+        for (int round = 0; round < 10; round++) {
+            insertOrder(EmbeddedDatabase.userId(2, round % USERS_PER_STORE, USERS_PER_STORE), 2, 10);
+            for (int i = 0; i < 10; i++) insertOrder(10_000 + round * 10 + i, 2, 10);
+            view.catchUp();
+            Map<Long, Long> expected = reference.getMaxUserOrderId(2);
+            LongLongMap layered = view.getMaxUserOrderIds(2);
+            Map<Long, Long> forEach = new HashMap<>();
+            layered.forEach(forEach::put);
+            assertAll(
+                    () -> assertEquals(expected, layered.asMap()),
+                    () -> assertEquals(expected, forEach),
+                    () -> assertEquals(expected.size(), layered.size())
+            );
+        }
+        assertEquals(before, published.asMap());
+    }
+
+    @Test
+    void consistencyCheck() throws SQLException {
+        TestSqlDao dao = dao(true);
+        MaxOrderView view = dao.getMaxOrderView().orElseThrow();
+        assertSameAsQuery(dao, 3);
+        insertOrder(EmbeddedDatabase.userId(3, 0, USERS_PER_STORE), 3, 1_000_000);
+        assertSameAsQuery(dao, 3);
+        assertEquals(0, view.getMismatchCount());
+        database.execute("DELETE FROM PEDIDOS WHERE TOTAL = 1000000");
+        assertSameAsQuery(dao, 3);
+        assertAll(
+                () -> assertEquals(1, view.getMismatchCount()),
+                () -> assertEquals(reference.getMaxUserOrderId(3), view.getMaxUserOrderIds(3).asMap())
+        );
+    }
+}
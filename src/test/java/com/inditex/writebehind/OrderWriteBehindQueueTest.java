@@ -0,0 +1,299 @@
+package com.inditex.writebehind;
+
+import com.inditex.CopyOptions;
+import com.inditex.DaoConfig;
+import com.inditex.RetryPolicy;
+import com.inditex.TestSqlDao;
+import com.inditex.TestSqlDao.OrderRow;
+import com.inditex.bulk.BulkCopyReport;
+import com.inditex.bulk.CopyPair;
+import com.inditex.metrics.QueryInstrumentation;
+import com.inditex.metrics.QueryMetrics;
+import com.inditex.support.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderWriteBehindQueueTest {
+
+    private static final int USERS_PER_STORE = 10;
+
+    private static final int ORDERS_PER_USER = 5;
+
+    private EmbeddedDatabase database;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabase(8);
+        database.seed(2, USERS_PER_STORE, ORDERS_PER_USER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    private long countOrders(long user) throws SQLException {
+        try (Connection connection = database.getPool().getConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT COUNT(*) FROM PEDIDOS WHERE ID_USUARIO = ?")) {
+            stmt.setLong(1, user);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static List<OrderRow> rows(long user, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> OrderRow.builder().userId(user).storeId(1).total(i).subtotal(i).address("Calle " + user).build())
+                .collect(Collectors.toList());
+    }
+
+    private OrderWriteBehindQueue queue(WriteBehindConfig config) {
+        return new OrderWriteBehindQueue(() -> database.getPool().getConnection(), QueryInstrumentation.NOOP, config);
+    }
+
+    @Test
+    void concurrentCopiesAreCoalescedIntoBatches() throws InterruptedException, SQLException {
+        TestSqlDao dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .writeBehind(WriteBehindConfig.builder().maxDelayMillis(50).build())
+                .build());
+        List<CopyPair> pairs = IntStream.range(0, USERS_PER_STORE)
+                .mapToObj(i -> CopyPair.of(EmbeddedDatabase.userId(1, i, USERS_PER_STORE), 1_000 + i))
+                .collect(Collectors.toList());
+        BulkCopyReport report = dao.copyUserOrders(pairs, 8);
+        WriteBehindMetrics metrics = dao.getWriteBehindQueue().orElseThrow().getMetrics();
+        assertAll(
+                () -> assertTrue(report.getFailures().isEmpty()),
+                () -> assertEquals(USERS_PER_STORE * ORDERS_PER_USER, report.getCopiedOrders()),
+                () -> assertEquals(ORDERS_PER_USER, countOrders(1_000)),
+                () -> assertEquals(USERS_PER_STORE * ORDERS_PER_USER, metrics.getRowsWritten()),
+                () -> assertEquals(USERS_PER_STORE, metrics.getRequestsCompleted()),
+                () -> assertTrue(metrics.getBatches() < USERS_PER_STORE, "batches: " + metrics.getBatches()),
+                () -> assertEquals(metrics.getBatches(), metrics.getFlushLatency().getCount()),
+                () -> assertTrue(metrics.getRowsPerSecond() > 0),
+                () -> assertEquals(0, metrics.getQueuedRows())
+        );
+    }
+
+    @Test
+    void repeatedCopyIsSkipped() throws SQLException {
+        TestSqlDao dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .writeBehind(WriteBehindConfig.builder().maxDelayMillis(0).build())
+                .build());
+        CopyOptions idempotent = CopyOptions.builder().idempotent(true).build();
+        int first = dao.copyUserOrders(1, 500, idempotent);
+        int second = dao.copyUserOrders(1, 500, idempotent);
+        int transformed = dao.copyUserOrders(2, 501, CopyOptions.builder()
+                .transformer(row -> row.getTotal() > 500 ? null : row)
+                .build());
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, first),
+                () -> assertEquals(0, second),
+                () -> assertEquals(ORDERS_PER_USER, countOrders(500)),
+                () -> assertEquals(transformed, countOrders(501))
+        );
+    }
+
+    @Test
+    void largeCopiesTakeTheDirectPath() throws SQLException {
+        QueryMetrics metrics = new QueryMetrics(Long.MAX_VALUE);
+        TestSqlDao dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .instrumentation(metrics)
+                .writeBehind(WriteBehindConfig.builder().maxBatchRows(ORDERS_PER_USER - 1).build())
+                .build());
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, dao.copyUserOrders(1, 500)),
+                () -> assertEquals(0, dao.getWriteBehindQueue().orElseThrow().getMetrics().getRequestsCompleted()),
+                () -> assertEquals(1, metrics.getExecutions("copyUserOrders.writeBehindFallback")),
+                () -> assertEquals(1, metrics.getExecutions("copyUserOrders.insertSelect"))
+        );
+    }
+
+    @Test
+    void copiesLargerThanCapacityTakeTheDirectPath() throws SQLException {
+        TestSqlDao dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .writeBehind(WriteBehindConfig.builder().capacity(ORDERS_PER_USER - 1).maxBatchRows(100).build())
+                .build());
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, dao.copyUserOrders(1, 500)),
+                () -> assertEquals(0, dao.getWriteBehindQueue().orElseThrow().getMetrics().getRequestsCompleted())
+        );
+    }
+
+    @Test
+    void nonDefaultTransactionOptionsTakeTheDirectPath() throws SQLException {
+        TestSqlDao dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .writeBehind(WriteBehindConfig.builder().maxDelayMillis(0).build())
+                .build());
+        int serializable = dao.copyUserOrders(1, 500, CopyOptions.builder().isolation(Connection.TRANSACTION_SERIALIZABLE).build());
+        int batched = dao.copyUserOrders(2, 501, CopyOptions.builder().transformer(row -> row).batchSize(2).build());
+        int retried = dao.copyUserOrders(3, 502, CopyOptions.builder().retryPolicy(RetryPolicy.none()).build());
+        int queued = dao.copyUserOrders(4, 503, CopyOptions.builder().transformer(row -> row).build());
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, serializable),
+                () -> assertEquals(ORDERS_PER_USER, batched),
+                () -> assertEquals(ORDERS_PER_USER, retried),
+                () -> assertEquals(ORDERS_PER_USER, queued),
+                () -> assertEquals(1, dao.getWriteBehindQueue().orElseThrow().getMetrics().getRequestsCompleted())
+        );
+    }
+
+    @Test
+    void failingRequestDoesNotFailItsBatch() throws SQLException {
+        try (OrderWriteBehindQueue queue = queue(WriteBehindConfig.builder().maxDelayMillis(10_000).maxBatchRows(100).build())) {
+            CompletableFuture<Integer> good = queue.submit(rows(600, 3));
+            List<OrderRow> invalid = List.of(OrderRow.builder().userId(601).storeId(1).address("x".repeat(300)).build());
+            CompletableFuture<Integer> bad = queue.submit(invalid);
+            CompletableFuture<Integer> other = queue.submit(rows(602, 2), CopyPair.of(1, 602));
+            queue.flush().join();
+            assertAll(
+                    () -> assertEquals(3, good.join()),
+                    () -> assertThrows(ExecutionException.class, bad::get),
+                    () -> assertEquals(2, other.join()),
+                    () -> assertEquals(3, countOrders(600)),
+                    () -> assertEquals(0, countOrders(601)),
+                    () -> assertEquals(1, queue.getMetrics().getRequestsFailed())
+            );
+        }
+    }
+
+    @Test
+    void fullQueueAppliesBackpressure() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderWriteBehindQueue queue = new OrderWriteBehindQueue(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+            return database.getPool().getConnection();
+        }, QueryInstrumentation.NOOP, WriteBehindConfig.builder().capacity(10).maxDelayMillis(0).offerTimeoutMillis(50).build());
+        try {
+            CompletableFuture<Integer> first = queue.submit(rows(700, 6));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Integer> second = queue.submit(rows(701, 4));
+            assertThrows(SQLTimeoutException.class, () -> queue.submit(rows(702, 1)));
+            assertThrows(IllegalArgumentException.class, () -> queue.submit(rows(703, 11)));
+            release.countDown();
+            assertAll(
+                    () -> assertEquals(6, first.get(5, TimeUnit.SECONDS)),
+                    () -> assertEquals(4, second.get(5, TimeUnit.SECONDS)),
+                    () -> assertEquals(1, queue.getMetrics().getOfferTimeouts())
+            );
+        } finally {
+            release.countDown();
+            queue.close();
+        }
+    }
+
+    /**
+     * La primera copia ocupa al escritor esperando el bloqueo que otra transacción tiene sobre su registro en
+     * COPIAS_PEDIDOS; la segunda, cancelada mientras espera en la cola, no llega a escribirse
+     */
+    @Test
+    void cancelledCopyIsNotWritten() throws Exception {
+        TestSqlDao dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .writeBehind(WriteBehindConfig.builder().maxDelayMillis(0).build())
+                .build());
+        OrderWriteBehindQueue queue = dao.getWriteBehindQueue().orElseThrow();
+        try (Connection blocker = lockCopy(1, 500)) {
+            CompletableFuture<Integer> blocked = dao.copyUserOrdersAsync(1, 500, CopyOptions.builder().idempotent(true).build(), 0);
+            awaitQueuedRows(queue, ORDERS_PER_USER);
+            Thread.sleep(100);
+            CompletableFuture<Integer> cancelled = dao.copyUserOrdersAsync(2, 501);
+            awaitQueuedRows(queue, 2 * ORDERS_PER_USER);
+            cancelled.cancel(true);
+            blocker.rollback();
+            assertEquals(ORDERS_PER_USER, blocked.get(5, TimeUnit.SECONDS));
+        }
+        queue.flush().get(5, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(ORDERS_PER_USER, countOrders(500)),
+                () -> assertEquals(0, countOrders(501)),
+                () -> assertEquals(0, queue.getMetrics().getQueuedRows()),
+                () -> assertEquals(1, queue.getMetrics().getRequestsCompleted())
+        );
+    }
+
+    /**
+     * El escritor queda esperando al bloqueo de COPIAS_PEDIDOS con la primera copia; la segunda, síncrona, deja de
+     * esperar al vencer queryTimeoutSeconds y se descarta de la cola
+     */
+    @Test
+    void copyTimesOutWaitingForTheWriter() throws Exception {
+        TestSqlDao dao = TestSqlDao.newInstance(database.getPool(), DaoConfig.builder()
+                .queryTimeoutSeconds(1)
+                .writeBehind(WriteBehindConfig.builder().maxDelayMillis(0).build())
+                .build());
+        OrderWriteBehindQueue queue = dao.getWriteBehindQueue().orElseThrow();
+        try (Connection blocker = lockCopy(1, 500)) {
+            CompletableFuture<Integer> blocked = dao.copyUserOrdersAsync(1, 500, CopyOptions.builder().idempotent(true).build(), 0);
+            awaitQueuedRows(queue, ORDERS_PER_USER);
+            Thread.sleep(100);
+            assertThrows(SQLTimeoutException.class, () -> dao.copyUserOrders(2, 501));
+            blocker.rollback();
+            assertEquals(ORDERS_PER_USER, blocked.get(5, TimeUnit.SECONDS));
+        }
+        queue.flush().get(5, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(0, countOrders(501)),
+                () -> assertEquals(0, queue.getMetrics().getQueuedRows())
+        );
+    }
+
+    /**
+     * Deja sin confirmar, en otra transacción, el registro del par en COPIAS_PEDIDOS para que la escritura del mismo
+     * par espere al bloqueo
+     */
+    private Connection lockCopy(long idUserOri, long idUserDes) throws SQLException {
+        Connection blocker = database.getPool().getConnection();
+        blocker.setAutoCommit(false);
+        try (PreparedStatement stmt = blocker.prepareStatement(
+                "INSERT INTO COPIAS_PEDIDOS (ID_USUARIO_ORIGEN, ID_USUARIO_DESTINO) VALUES (?, ?)")) {
+            stmt.setLong(1, idUserOri);
+            stmt.setLong(2, idUserDes);
+            stmt.executeUpdate();
+        }
+        return blocker;
+    }
+
+    private static void awaitQueuedRows(OrderWriteBehindQueue queue, int rows) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (queue.getMetrics().getQueuedRows() < rows && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(rows, queue.getMetrics().getQueuedRows());
+    }
+
+    @Test
+    void closeWritesPendingRequests() throws SQLException {
+        OrderWriteBehindQueue queue = queue(WriteBehindConfig.builder().maxDelayMillis(60_000).build());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (long user = 800; user < 805; user++) futures.add(queue.submit(rows(user, 2)));
+        queue.close();
+        assertAll(
+                () -> assertTrue(futures.stream().allMatch(future -> future.isDone() && future.join() == 2)),
+                () -> assertEquals(2, countOrders(804)),
+                () -> assertThrows(SQLException.class, () -> queue.submit(rows(805, 1))),
+                () -> assertThrows(SQLException.class, queue::flush)
+        );
+    }
+}